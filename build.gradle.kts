@@ -2,6 +2,7 @@ plugins {
     java
     id("org.springframework.boot") version "3.4.0"
     id("io.spring.dependency-management") version "1.1.6"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "org.finsible"
@@ -27,8 +28,16 @@ dependencies {
     implementation("org.springframework.boot:spring-boot-starter")
     implementation("org.springframework.boot:spring-boot-starter-web")
     implementation("org.springframework.boot:spring-boot-starter-actuator")
+    implementation("org.springframework.boot:spring-boot-starter-aop")
+    runtimeOnly("io.micrometer:micrometer-registry-prometheus")
     implementation("org.springframework.boot:spring-boot-starter-logging")
     implementation("org.zalando:logbook-spring-boot-starter:3.10.0")
+    implementation("net.ttddyy:datasource-proxy:1.10")
+    // brotli encoder for the pre-encoded reference data responses, the native library of each deployment platform is listed
+    implementation("com.aayushatharva.brotli4j:brotli4j:1.16.0")
+    runtimeOnly("com.aayushatharva.brotli4j:native-linux-x86_64:1.16.0")
+    runtimeOnly("com.aayushatharva.brotli4j:native-linux-aarch64:1.16.0")
+    runtimeOnly("com.aayushatharva.brotli4j:native-osx-aarch64:1.16.0")
     implementation("com.google.api-client:google-api-client:2.7.1")
     implementation("org.springframework.boot:spring-boot-starter-data-jpa")
     implementation("org.springframework.boot:spring-boot-starter-security")
@@ -48,8 +57,22 @@ dependencies {
     testImplementation("org.springframework.security:spring-security-test")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
     implementation(kotlin("stdlib-jdk8"))
+    jmh("org.springframework:spring-test")
+    // only for AuthenticationBenchmark's UserRepository, which is never called once the user is cached
+    jmh("org.mockito:mockito-core")
 }
 
 tasks.withType<Test> {
     useJUnitPlatform()
 }
+
+// Benchmarks live in src/jmh/java, run them with: SECRET_KEY=... JWT_EXPIRATION=... ./gradlew jmh
+// (JwtService reads both variables when the class is loaded)
+// AccountListingBenchmark and BootstrapBenchmark boot the application, so they also need the DB_* variables of a migrated database
+jmh {
+    jmhVersion = "1.37"
+    profilers = listOf("gc") // allocation rate per operation, used to catch allocation regressions
+    resultFormat = "JSON"
+    resultsFile = layout.buildDirectory.file("reports/jmh/results.json")
+    humanOutputFile = layout.buildDirectory.file("reports/jmh/human.txt")
+}
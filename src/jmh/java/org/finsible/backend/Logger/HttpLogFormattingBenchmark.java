@@ -0,0 +1,232 @@
+package org.finsible.backend.Logger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.zalando.logbook.Correlation;
+import org.zalando.logbook.HttpHeaders;
+import org.zalando.logbook.HttpRequest;
+import org.zalando.logbook.HttpResponse;
+import org.zalando.logbook.Origin;
+import org.zalando.logbook.Precorrelation;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// Per-exchange cost of the HTTP access log line; run with -prof gc (jmh { profilers = listOf("gc") }) to compare gc.alloc.rate.norm.
+// The exchange is made of plain stubs: mock invocations would cost (and allocate) more than the formatting being measured.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HttpLogFormattingBenchmark {
+    private Precorrelation precorrelation;
+    private Correlation correlation;
+    private HttpRequest request;
+    private HttpResponse response;
+    private LegacyFormatter legacyFormatter;
+
+    @Setup
+    public void setUp() {
+        StubCorrelation exchange = new StubCorrelation("b6a2c4f1e2d3a4b5", Instant.now(), Duration.ofMillis(42));
+        precorrelation = exchange;
+        correlation = exchange;
+        request = new StubRequest("GET", "/transactions");
+        response = new StubResponse(200);
+        legacyFormatter = new LegacyFormatter();
+    }
+
+    // previous formatter: request details serialized into a shared map, parsed back and re-serialized on the response
+    @Benchmark
+    public String legacyFormatter() throws IOException {
+        legacyFormatter.format(precorrelation, request);
+        return legacyFormatter.format(correlation, response);
+    }
+
+    @Benchmark
+    public String correlatedJsonSink() throws IOException {
+        return CorrelatedJsonSink.format(correlation, request, response);
+    }
+
+    private static class LegacyFormatter {
+        private final ObjectMapper objectMapper = new ObjectMapper();
+        private final Map<String, String> requestMap = new HashMap<>();
+
+        String format(Precorrelation precorrelation, HttpRequest request) throws IOException {
+            requestMap.put(precorrelation.getId(), objectMapper.writeValueAsString(Map.of(
+                    "method", request.getMethod(),
+                    "url", request.getPath())));
+            return "";
+        }
+
+        @SuppressWarnings("unchecked")
+        String format(Correlation correlation, HttpResponse response) throws IOException {
+            Map<String, String> requestDetails = objectMapper.readValue(requestMap.getOrDefault(correlation.getId(), "{}"), Map.class);
+            return objectMapper.writeValueAsString(Map.of(
+                    "method", requestDetails.get("method"),
+                    "url", requestDetails.get("url"),
+                    "status", response.getStatus(),
+                    "responseTime", correlation.getDuration().toMillis() + "ms"));
+        }
+    }
+
+    // one object for both callbacks of an exchange, like logbook's own correlation
+    private record StubCorrelation(String id, Instant start, Duration duration) implements Precorrelation, Correlation {
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public Instant getStart() {
+            return start;
+        }
+
+        @Override
+        public Instant getEnd() {
+            return start.plus(duration);
+        }
+
+        @Override
+        public Duration getDuration() {
+            return duration;
+        }
+
+        @Override
+        public Correlation correlate() {
+            return this;
+        }
+    }
+
+    private record StubRequest(String method, String path) implements HttpRequest {
+        @Override
+        public String getRemote() {
+            return "127.0.0.1";
+        }
+
+        @Override
+        public String getMethod() {
+            return method;
+        }
+
+        @Override
+        public String getScheme() {
+            return "http";
+        }
+
+        @Override
+        public String getHost() {
+            return "localhost";
+        }
+
+        @Override
+        public Optional<Integer> getPort() {
+            return Optional.of(8080);
+        }
+
+        @Override
+        public String getPath() {
+            return path;
+        }
+
+        @Override
+        public String getQuery() {
+            return "";
+        }
+
+        @Override
+        public String getProtocolVersion() {
+            return "HTTP/1.1";
+        }
+
+        @Override
+        public Origin getOrigin() {
+            return Origin.REMOTE;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return HttpHeaders.empty();
+        }
+
+        @Override
+        public String getContentType() {
+            return null;
+        }
+
+        @Override
+        public Charset getCharset() {
+            return StandardCharsets.UTF_8;
+        }
+
+        @Override
+        public byte[] getBody() {
+            return new byte[0];
+        }
+
+        @Override
+        public HttpRequest withBody() {
+            return this;
+        }
+
+        @Override
+        public HttpRequest withoutBody() {
+            return this;
+        }
+    }
+
+    private record StubResponse(int status) implements HttpResponse {
+        @Override
+        public int getStatus() {
+            return status;
+        }
+
+        @Override
+        public String getProtocolVersion() {
+            return "HTTP/1.1";
+        }
+
+        @Override
+        public Origin getOrigin() {
+            return Origin.LOCAL;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return HttpHeaders.empty();
+        }
+
+        @Override
+        public String getContentType() {
+            return null;
+        }
+
+        @Override
+        public Charset getCharset() {
+            return StandardCharsets.UTF_8;
+        }
+
+        @Override
+        public byte[] getBody() {
+            return new byte[0];
+        }
+
+        @Override
+        public HttpResponse withBody() {
+            return this;
+        }
+
+        @Override
+        public HttpResponse withoutBody() {
+            return this;
+        }
+    }
+}
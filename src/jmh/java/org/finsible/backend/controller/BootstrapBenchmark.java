@@ -0,0 +1,122 @@
+package org.finsible.backend.controller;
+
+import org.finsible.backend.AppConstants;
+import org.finsible.backend.FinsibleApplication;
+import org.finsible.backend.dto.request.AccountRequestDTO;
+import org.finsible.backend.entity.User;
+import org.finsible.backend.repository.AccountGroupRepository;
+import org.finsible.backend.repository.UserRepository;
+import org.finsible.backend.service.AccountService;
+import org.finsible.backend.service.CurrencyService;
+import org.finsible.backend.service.JwtService;
+import org.finsible.backend.service.LanguageService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Time to interactive of a cold client launch over real HTTP: the six calls the clients make one after another
+// vs. one /bootstrap call. Needs a migrated database (DB_* variables) and the JWT variables, the seeded user is removed
+// on teardown.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BootstrapBenchmark {
+    private static final List<String> LAUNCH_CALLS = List.of("/auth/me?deviceType=web", "/accounts/all", "/account-groups/all",
+            "/category/all", "/supported-currencies/all", "/supported-languages/all");
+
+    @Param({"8", "40"})
+    private int accountCount;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private String baseUrl;
+    private String authorization;
+    private String userId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(FinsibleApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .properties("server.port=0", "logging.level.org.finsible.backend=WARN", "logging.level.org.zalando.logbook=WARN",
+                        "logging.level.org.springframework.security=WARN")
+                .run();
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        httpClient = HttpClient.newHttpClient();
+        userId = "benchmark-" + UUID.randomUUID();
+        seedUser();
+        authorization = "Bearer " + JwtService.generateToken(userId, List.of("USER"));
+    }
+
+    private void seedUser() {
+        LanguageService languageService = context.getBean(LanguageService.class);
+        CurrencyService currencyService = context.getBean(CurrencyService.class);
+        context.getBean(UserRepository.class).save(User.builder()
+                .id(userId)
+                .email(userId + "@benchmark.local")
+                .name("Benchmark User")
+                .lastLoggedIn(Instant.now())
+                .accountCreated(Instant.now())
+                .defaultLanguage(languageService.getLanguageOrDefault(AppConstants.DEFAULT_LANGUAGE_CODE))
+                .defaultCurrency(currencyService.getCurrencyOrDefault(AppConstants.DEFAULT_CURRENCY_CODE))
+                .build());
+        AccountService accountService = context.getBean(AccountService.class);
+        Long bankGroupId = context.getBean(AccountGroupRepository.class)
+                .findAccountGroupByName(AppConstants.BANK_ACCOUNT_TYPE).getId();
+        for (int i = 0; i < accountCount; i++) {
+            AccountRequestDTO bank = new AccountRequestDTO();
+            bank.setName("Bank " + i);
+            accountService.createAccount(userId, bankGroupId, bank);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        // the user's data version row goes with the user (ON DELETE CASCADE)
+        jdbcTemplate.update("DELETE FROM accounts WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+        context.close();
+    }
+
+    @Benchmark
+    public int sequentialLaunchCalls() throws IOException, InterruptedException {
+        int bytes = 0;
+        for (String path : LAUNCH_CALLS) {
+            bytes += get(path);
+        }
+        return bytes;
+    }
+
+    @Benchmark
+    public int bootstrap() throws IOException, InterruptedException {
+        return get("/bootstrap");
+    }
+
+    private int get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", authorization)
+                .header("Accept-Encoding", "gzip")
+                .GET()
+                .build();
+        HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(path + " answered " + response.statusCode());
+        }
+        return response.body().length;
+    }
+}
@@ -0,0 +1,111 @@
+package org.finsible.backend.service;
+
+import org.finsible.backend.AppConstants;
+import org.finsible.backend.FinsibleApplication;
+import org.finsible.backend.dto.request.AccountRequestDTO;
+import org.finsible.backend.dto.request.CreditCardAccountRequestDTO;
+import org.finsible.backend.dto.request.DebitCardAccountRequestDTO;
+import org.finsible.backend.dto.response.AccountResponseDTO;
+import org.finsible.backend.entity.User;
+import org.finsible.backend.repository.AccountGroupRepository;
+import org.finsible.backend.repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Account listing against a real database: single join query vs. the per-detail-table lookups it replaced.
+// Needs the same DB_* environment as the application, the seeded user and accounts are removed on teardown.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccountListingBenchmark {
+    // a quarter of these become credit cards and a quarter debit cards linked to one of the bank accounts
+    @Param({"8", "40"})
+    private int accountCount;
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private String userId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(FinsibleApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.org.finsible.backend=WARN")
+                .run();
+        accountService = context.getBean(AccountService.class);
+        userId = "benchmark-" + UUID.randomUUID();
+        seedAccounts();
+    }
+
+    private void seedAccounts() {
+        LanguageService languageService = context.getBean(LanguageService.class);
+        CurrencyService currencyService = context.getBean(CurrencyService.class);
+        context.getBean(UserRepository.class).save(User.builder()
+                .id(userId)
+                .email(userId + "@benchmark.local")
+                .name("Benchmark User")
+                .lastLoggedIn(Instant.now())
+                .accountCreated(Instant.now())
+                .defaultLanguage(languageService.getLanguageOrDefault(AppConstants.DEFAULT_LANGUAGE_CODE))
+                .defaultCurrency(currencyService.getCurrencyOrDefault(AppConstants.DEFAULT_CURRENCY_CODE))
+                .build());
+
+        Long bankGroupId = context.getBean(AccountGroupRepository.class)
+                .findAccountGroupByName(AppConstants.BANK_ACCOUNT_TYPE).getId();
+        int cards = accountCount / 4;
+        Long lastBankAccountId = null;
+        try {
+            for (int i = 0; i < accountCount - 2 * cards; i++) {
+                AccountRequestDTO bank = new AccountRequestDTO();
+                bank.setName("Bank " + i);
+                lastBankAccountId = accountService.createAccount(userId, bankGroupId, bank).getId();
+            }
+            for (int i = 0; i < cards; i++) {
+                CreditCardAccountRequestDTO creditCard = new CreditCardAccountRequestDTO();
+                creditCard.setName("Credit card " + i);
+                creditCard.setCreditLimit(BigDecimal.valueOf(50000));
+                creditCard.setBillingDate(5);
+                creditCard.setDueDate(25);
+                accountService.createCreditCardAccount(userId, creditCard);
+
+                DebitCardAccountRequestDTO debitCard = new DebitCardAccountRequestDTO();
+                debitCard.setName("Debit card " + i);
+                debitCard.setLinkedBankAccountId(lastBankAccountId);
+                accountService.createDebitCardAccount(userId, debitCard);
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to seed benchmark accounts", e);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        // detail rows go with their accounts (ON DELETE CASCADE)
+        jdbcTemplate.update("DELETE FROM accounts WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+        context.close();
+    }
+
+    @Benchmark
+    public List<AccountResponseDTO> getAccountsWithDetailJoins() {
+        return accountService.getAccountsWithDetailJoins(userId);
+    }
+
+    @Benchmark
+    public List<AccountResponseDTO> getAccountsWithDetailLookups() {
+        return accountService.getAccountsWithDetailLookups(userId);
+    }
+}
@@ -0,0 +1,101 @@
+package org.finsible.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import org.finsible.backend.cache.UserExistenceCache;
+import org.finsible.backend.cache.VerifiedTokenCache;
+import org.finsible.backend.repository.UserRepository;
+import org.finsible.backend.utility.CookieHandler;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Cost and allocation rate of the code every authenticated request goes through
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthenticationBenchmark {
+    private static final String USER_ID = "benchmark-user";
+    private static final List<String> ROLES = List.of("USER");
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    private String token;
+    private CookieHandler cookieHandler;
+    private VerifiedTokenCache verifiedTokenCache;
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest cookieRequest;
+    private MockHttpServletRequest bearerRequest;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        token = JwtService.generateToken(USER_ID, ROLES);
+
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        Mockito.when(userRepository.existsById(USER_ID)).thenReturn(true);
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        cookieHandler = new CookieHandler();
+        verifiedTokenCache = new VerifiedTokenCache(10000, meterRegistry);
+        filter = new JwtAuthenticationFilter(cookieHandler, verifiedTokenCache, new UserExistenceCache(userRepository, 10000, meterRegistry),
+                meterRegistry);
+
+        cookieRequest = new MockHttpServletRequest("GET", "/accounts/all");
+        cookieRequest.setCookies(new Cookie(CookieHandler.AUTH_STATUS_COOKIE_NAME, "true"), new Cookie(CookieHandler.JWT_COOKIE_NAME, token));
+        bearerRequest = new MockHttpServletRequest("GET", "/accounts/all");
+        bearerRequest.addHeader("Authorization", "Bearer " + token);
+        response = new MockHttpServletResponse();
+    }
+
+    @TearDown(Level.Invocation)
+    public void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return JwtService.generateToken(USER_ID, ROLES);
+    }
+
+    @Benchmark
+    public Object validateToken() {
+        return JwtService.validateToken(token);
+    }
+
+    @Benchmark
+    public String extractJwtToken() {
+        return cookieHandler.extractJwtToken(cookieRequest);
+    }
+
+    // steady state: token and user are already cached
+    @Benchmark
+    public MockHttpServletResponse doFilterInternalCached() throws ServletException, IOException {
+        filter.doFilterInternal(bearerRequest, response, NO_OP_CHAIN);
+        return response;
+    }
+
+    // first request with a token: full signature verification before it is cached
+    @Benchmark
+    public MockHttpServletResponse doFilterInternalUncached() throws ServletException, IOException {
+        verifiedTokenCache.clear();
+        filter.doFilterInternal(bearerRequest, response, NO_OP_CHAIN);
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse doFilterInternalFromCookie() throws ServletException, IOException {
+        filter.doFilterInternal(cookieRequest, response, NO_OP_CHAIN);
+        return response;
+    }
+}
@@ -0,0 +1,58 @@
+package org.finsible.backend.settlement;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Netting and settling a busy space: thousands of members, millions of open split rows
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class DebtSimplificationBenchmark {
+    @Param({"1000", "5000"})
+    private int members;
+
+    @Param({"1000000", "5000000"})
+    private int splitRows;
+
+    private int[] debtors;
+    private int[] creditors;
+    private long[] amounts;
+    private long[] positions;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        debtors = new int[splitRows];
+        creditors = new int[splitRows];
+        amounts = new long[splitRows];
+        for (int i = 0; i < splitRows; i++) {
+            int debtor = random.nextInt(members);
+            int creditor = random.nextInt(members - 1);
+            debtors[i] = debtor;
+            creditors[i] = creditor >= debtor ? creditor + 1 : creditor;
+            // up to 10,000.0000 in 1/10000 units, the scale split_balances uses
+            amounts[i] = random.nextLong(1, 100_000_000L);
+        }
+        positions = DebtSimplificationEngine.netPositions(members, debtors, creditors, amounts);
+    }
+
+    @Benchmark
+    public long[] netPositions() {
+        return DebtSimplificationEngine.netPositions(members, debtors, creditors, amounts);
+    }
+
+    @Benchmark
+    public DebtSimplificationEngine.Settlements simplify() {
+        return DebtSimplificationEngine.simplify(positions);
+    }
+
+    @Benchmark
+    public DebtSimplificationEngine.Settlements netAndSimplify() {
+        return DebtSimplificationEngine.simplify(DebtSimplificationEngine.netPositions(members, debtors, creditors, amounts));
+    }
+}
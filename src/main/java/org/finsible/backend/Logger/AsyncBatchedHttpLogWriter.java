@@ -0,0 +1,105 @@
+package org.finsible.backend.Logger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.zalando.logbook.Correlation;
+import org.zalando.logbook.HttpLogWriter;
+import org.zalando.logbook.Logbook;
+import org.zalando.logbook.Precorrelation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hands HTTP log lines to a single background thread so request threads never wait on the log appender.
+ * The queue is bounded: when it is full the line is dropped and counted instead of blocking the request.
+ * The writer thread drains whatever has queued up (up to batchSize lines) per wake-up.
+ * Lines go to the same logger and level as logbook's DefaultHttpLogWriter.
+ */
+public class AsyncBatchedHttpLogWriter implements HttpLogWriter, AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(Logbook.class);
+    private static final long CLOSE_TIMEOUT_MILLIS = 2000;
+
+    private final BlockingQueue<String> lines;
+    private final int batchSize;
+    private final LongAdder dropped = new LongAdder();
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    public AsyncBatchedHttpLogWriter(int capacity, int batchSize) {
+        this.lines = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.writerThread = new Thread(this::drain, "http-log-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    @Override
+    public boolean isActive() {
+        return log.isTraceEnabled();
+    }
+
+    @Override
+    public void write(@NonNull Precorrelation precorrelation, @NonNull String request) {
+        enqueue(request);
+    }
+
+    @Override
+    public void write(@NonNull Correlation correlation, @NonNull String response) {
+        enqueue(response);
+    }
+
+    public long droppedLines() {
+        return dropped.sum();
+    }
+
+    private void enqueue(String line) {
+        if (!lines.offer(line)) {
+            dropped.increment();
+        }
+    }
+
+    private void drain() {
+        List<String> batch = new ArrayList<>(batchSize);
+        while (running || !lines.isEmpty()) {
+            try {
+                String first = lines.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                lines.drainTo(batch, batchSize - 1);
+                for (String line : batch) {
+                    log.trace(line);
+                }
+            } catch (InterruptedException e) {
+                // close() interrupts only after running is cleared, the loop still empties the queue
+                Thread.currentThread().interrupt();
+                lines.drainTo(batch);
+                batch.forEach(log::trace);
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // writes what is still queued, then stops the writer thread
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        writerThread.join(CLOSE_TIMEOUT_MILLIS);
+        if (writerThread.isAlive()) {
+            writerThread.interrupt();
+        }
+        long droppedLines = dropped.sum();
+        if (droppedLines > 0) {
+            LoggerFactory.getLogger(AsyncBatchedHttpLogWriter.class).warn("Dropped {} HTTP log lines, the writer queue was full", droppedLines);
+        }
+    }
+}
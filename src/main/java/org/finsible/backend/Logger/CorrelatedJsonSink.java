@@ -0,0 +1,61 @@
+package org.finsible.backend.Logger;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.finsible.backend.monitoring.RequestQueryStats;
+import org.springframework.lang.NonNull;
+import org.zalando.logbook.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+/**
+ * One JSON line per exchange: {"method", "url", "status", "responseTime", "dbQueries", "dbTimeMs"}.
+ * Logbook passes the request again when the response is written, so nothing has to be remembered between the two
+ * callbacks; the line is streamed straight into a JsonGenerator.
+ */
+public class CorrelatedJsonSink implements Sink {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    // enough for the usual line, StringWriter grows for long urls
+    private static final int INITIAL_LINE_CAPACITY = 128;
+
+    private final HttpLogWriter writer;
+
+    public CorrelatedJsonSink(HttpLogWriter writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public boolean isActive() {
+        return writer.isActive();
+    }
+
+    // only completed exchanges are logged
+    @Override
+    public void write(@NonNull Precorrelation precorrelation, @NonNull HttpRequest request) {
+    }
+
+    @Override
+    public void write(@NonNull Correlation correlation, @NonNull HttpRequest request, @NonNull HttpResponse response) throws IOException {
+        writer.write(correlation, format(correlation, request, response));
+    }
+
+    static String format(Correlation correlation, HttpRequest request, HttpResponse response) throws IOException {
+        StringWriter line = new StringWriter(INITIAL_LINE_CAPACITY);
+        try (JsonGenerator json = JSON_FACTORY.createGenerator(line)) {
+            json.writeStartObject();
+            json.writeStringField("method", request.getMethod());
+            json.writeStringField("url", request.getPath());
+            json.writeNumberField("status", response.getStatus());
+            json.writeStringField("responseTime", correlation.getDuration().toMillis() + "ms");
+            // written on the request thread, so these are the stats of this exchange (absent when db monitoring is off)
+            RequestQueryStats queryStats = RequestQueryStats.current();
+            if (queryStats != null) {
+                json.writeNumberField("dbQueries", queryStats.statements());
+                json.writeNumberField("dbTimeMs", queryStats.elapsedMillis());
+            }
+            json.writeEndObject();
+        }
+        return line.toString();
+    }
+}
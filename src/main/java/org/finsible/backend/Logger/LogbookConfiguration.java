@@ -1,58 +1,32 @@
 package org.finsible.backend.Logger;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.lang.NonNull;
 import org.zalando.logbook.*;
 import org.zalando.logbook.core.Conditions;
-import org.zalando.logbook.core.DefaultHttpLogWriter;
-import org.zalando.logbook.core.DefaultSink;
-import java.util.HashMap;
-import java.util.Map;
 
 @Configuration
 public class LogbookConfiguration {
+    @Bean(destroyMethod = "close")
+    public AsyncBatchedHttpLogWriter httpLogWriter(@Value("${app.http-log.queue-capacity:8192}") int queueCapacity,
+                                                   @Value("${app.http-log.batch-size:256}") int batchSize,
+                                                   MeterRegistry meterRegistry) {
+        AsyncBatchedHttpLogWriter writer = new AsyncBatchedHttpLogWriter(queueCapacity, batchSize);
+        FunctionCounter.builder("http.log.dropped", writer, AsyncBatchedHttpLogWriter::droppedLines)
+                .description("HTTP log lines dropped because the writer queue was full")
+                .register(meterRegistry);
+        return writer;
+    }
+
     @Bean
-   public Logbook logbook() {
+    public Logbook logbook(AsyncBatchedHttpLogWriter httpLogWriter) {
         return Logbook.builder()
-                .condition(Conditions.exclude(Conditions.requestTo("/actuator/**")))
-                .sink(new DefaultSink(new CustomJsonHttpLogFormatter(), new DefaultHttpLogWriter()))
+                // imports are streamed, logbook would buffer the whole body to log it
+                .condition(Conditions.exclude(Conditions.requestTo("/actuator/**"), Conditions.requestTo("/transactions/import")))
+                .sink(new CorrelatedJsonSink(httpLogWriter))
                 .build();
-   }
-
-    private static class CustomJsonHttpLogFormatter implements HttpLogFormatter {
-        private final ObjectMapper objectMapper = new ObjectMapper();
-        private final Map<String,String> requestMap = new HashMap<>();
-
-        @Override
-        public String format(@NonNull Precorrelation precorrelation, @NonNull HttpRequest request) {
-            try {
-                String requestDetails=objectMapper.writeValueAsString(Map.of(
-                        "method", request.getMethod(),
-                        "url", request.getPath()
-                ));
-                requestMap.put(precorrelation.getId(), requestDetails);
-
-                return "";
-            } catch (Exception e) {
-                return "Error formatting request log: " + e.getMessage();
-            }
-        }
-
-        @Override
-        public String format(@NonNull Correlation correlation, @NonNull HttpResponse response) {
-            try {
-                Map<String,String> requestDetails=objectMapper.readValue(requestMap.getOrDefault(correlation.getId(),"{}"), Map.class);
-                return objectMapper.writeValueAsString(Map.of(
-                        "method", requestDetails.get("method"),
-                        "url",requestDetails.get("url"),
-                        "status", response.getStatus(),
-                        "responseTime", correlation.getDuration().toMillis() + "ms"
-                ));
-            } catch (Exception e) {
-                return "Error formatting response log: " + e.getMessage();
-            }
-        }
     }
 }
@@ -0,0 +1,265 @@
+package org.finsible.backend.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.finsible.backend.utility.TransactionScopedBuffer;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the in-process caches of all app nodes in step through Postgres LISTEN/NOTIFY. Writes publish an invalidation
+ * that is sent with NOTIFY right before their transaction commits, so Postgres delivers it only if the write commits,
+ * and only after it is visible. Every node holds one dedicated connection (outside the pool, on the primary) listening
+ * on the channel and hands each message to the subscribers of its entity type.
+ * Notifications sent while a node is not listening are lost, so every (re)connect flushes all subscribed caches.
+ */
+@Component
+public class CacheInvalidationBus {
+    public static final String CHANNEL = "cache_invalidation";
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationBus.class);
+    private static final String NOTIFY_SQL = "SELECT pg_notify(?, ?)";
+    // how far the listen connection's socket timeout sits above the poll timeout
+    private static final long SOCKET_TIMEOUT_MARGIN_SECONDS = 5;
+
+    public enum EntityType {
+        USER,
+        // any of a user's accounts, categories, account groups or balances, one message per user and transaction
+        USER_DATA,
+        DEFAULT_CATEGORIES,
+        CURRENCY,
+        LANGUAGE
+    }
+
+    // node is the publishing node, which skips its own messages (it has updated its caches already)
+    public record Invalidation(String node, EntityType type, String id, String userId) {
+    }
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final DataSourceProperties dataSourceProperties;
+    private final boolean enabled;
+    private final long pollTimeoutMillis;
+    private final long maxReconnectDelayMillis;
+    private final Map<EntityType, List<Consumer<Invalidation>>> subscribers = new EnumMap<>(EntityType.class);
+    private final List<Runnable> flushSubscribers = new CopyOnWriteArrayList<>();
+    // the same invalidation published twice in one transaction is sent once
+    private final TransactionScopedBuffer<Invalidation, Boolean> pending =
+            new TransactionScopedBuffer<>(LinkedHashMap::new, (first, second) -> first, this::send);
+    private final LongAdder received = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private volatile boolean running;
+    private volatile Thread listenerThread;
+    private volatile Connection listenConnection;
+
+    public CacheInvalidationBus(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, DataSourceProperties dataSourceProperties,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.cache-invalidation.enabled:true}") boolean enabled,
+                                @Value("${app.cache-invalidation.poll-timeout:PT10S}") Duration pollTimeout,
+                                @Value("${app.cache-invalidation.max-reconnect-delay:PT30S}") Duration maxReconnectDelay) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.dataSourceProperties = dataSourceProperties;
+        this.enabled = enabled;
+        this.pollTimeoutMillis = pollTimeout.toMillis();
+        this.maxReconnectDelayMillis = maxReconnectDelay.toMillis();
+        for (EntityType type : EntityType.values()) {
+            subscribers.put(type, new CopyOnWriteArrayList<>());
+        }
+        FunctionCounter.builder("cache.invalidations.received", received, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("cache.invalidations.flushes", flushes, LongAdder::sum).register(meterRegistry);
+    }
+
+    // id and userId may be null when the entity type has none
+    public void publish(EntityType type, String id, String userId) {
+        if (enabled) {
+            pending.add(new Invalidation(nodeId, type, id, userId), Boolean.TRUE);
+        }
+    }
+
+    public void subscribe(EntityType type, Consumer<Invalidation> onInvalidation) {
+        subscribers.get(type).add(onInvalidation);
+    }
+
+    public void onFlush(Runnable flush) {
+        flushSubscribers.add(flush);
+    }
+
+    private void send(Map<Invalidation, Boolean> invalidations) {
+        for (Invalidation invalidation : invalidations.keySet()) {
+            String payload;
+            try {
+                payload = objectMapper.writeValueAsString(invalidation);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not serialize cache invalidation " + invalidation, e);
+            }
+            try {
+                jdbcTemplate.query(NOTIFY_SQL, resultSet -> null, CHANNEL, payload);
+            } catch (DataAccessException e) {
+                // without a transaction the write is already committed, other nodes catch up on their next flush
+                if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                    logger.warn("Failed to publish cache invalidation {}: {}", invalidation, e.getMessage());
+                    continue;
+                }
+                throw e;
+            }
+        }
+    }
+
+    // listening starts once the application is ready, when every cache has subscribed
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::listen, "cache-invalidation-listener");
+        thread.setDaemon(true);
+        listenerThread = thread;
+        thread.start();
+    }
+
+    private void listen() {
+        long reconnectDelayMillis = 500;
+        while (running) {
+            try (Connection connection = connect()) {
+                listenConnection = connection;
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                logger.info("Listening for cache invalidations on channel {}", CHANNEL);
+                // whatever was published while this node was not listening is unknown
+                flushAll();
+                reconnectDelayMillis = 500;
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) pollTimeoutMillis);
+                    if (notifications == null || notifications.length == 0) {
+                        // a quiet channel and a dead connection look the same until something is sent on it
+                        try (Statement statement = connection.createStatement()) {
+                            statement.execute("SELECT 1");
+                        }
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        dispatch(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("Cache invalidation listener lost its connection, reconnecting in {} ms: {}", reconnectDelayMillis, e.getMessage());
+            } finally {
+                listenConnection = null;
+            }
+            try {
+                Thread.sleep(reconnectDelayMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            reconnectDelayMillis = Math.min(reconnectDelayMillis * 2, maxReconnectDelayMillis);
+        }
+    }
+
+    Connection connect() throws SQLException {
+        return DriverManager.getConnection(dataSourceProperties.determineUrl(), listenConnectionProperties());
+    }
+
+    // on a connection that died without the server closing it (dropped by a firewall, a failed-over primary) the heartbeat
+    // would wait for its reply forever: the socket timeout, just above the poll timeout, fails it, and keepalives let the
+    // OS notice a dead peer in between
+    Properties listenConnectionProperties() {
+        Properties properties = new Properties();
+        String username = dataSourceProperties.determineUsername();
+        String password = dataSourceProperties.determinePassword();
+        if (username != null) {
+            properties.setProperty("user", username);
+        }
+        if (password != null) {
+            properties.setProperty("password", password);
+        }
+        properties.setProperty("socketTimeout", String.valueOf(Math.ceilDiv(pollTimeoutMillis, 1000) + SOCKET_TIMEOUT_MARGIN_SECONDS));
+        properties.setProperty("tcpKeepAlive", "true");
+        return properties;
+    }
+
+    void dispatch(String payload) {
+        Invalidation invalidation;
+        try {
+            invalidation = objectMapper.readValue(payload, Invalidation.class);
+        } catch (JsonProcessingException e) {
+            logger.warn("Ignoring malformed cache invalidation {}", payload);
+            return;
+        }
+        if (nodeId.equals(invalidation.node())) {
+            return;
+        }
+        received.increment();
+        for (Consumer<Invalidation> subscriber : subscribers.get(invalidation.type())) {
+            try {
+                subscriber.accept(invalidation);
+            } catch (RuntimeException e) {
+                logger.warn("Cache invalidation {} failed: {}", invalidation, e.getMessage());
+            }
+        }
+    }
+
+    private void flushAll() {
+        flushes.increment();
+        for (Runnable flush : flushSubscribers) {
+            try {
+                flush.run();
+            } catch (RuntimeException e) {
+                logger.warn("Cache flush failed: {}", e.getMessage());
+            }
+        }
+        logger.info("Flushed {} caches", flushSubscribers.size());
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        Thread thread = listenerThread;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        Connection connection = listenConnection;
+        if (connection != null) {
+            try {
+                // unblocks a listener waiting for notifications
+                connection.close();
+            } catch (SQLException e) {
+                logger.debug("Failed to close the cache invalidation connection: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.finsible.backend.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.finsible.backend.loan.AmortizationCalculator;
+import org.finsible.backend.loan.AmortizationSchedule;
+import org.finsible.backend.loan.LoanTerms;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Amortization schedules keyed by the loan terms they were computed from. A schedule never changes for the same terms,
+ * so entries need no invalidation: an edited loan simply looks up a new key and its old entry ages out.
+ */
+@Component
+public class LoanScheduleCache {
+    private final Map<LoanTerms, AmortizationSchedule> schedules = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public LoanScheduleCache(@Value("${app.loans.schedule-cache.max-size:10000}") int maxSize, MeterRegistry meterRegistry) {
+        this.maxSize = maxSize;
+        FunctionCounter.builder("loan.schedule.cache.hits", hits, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("loan.schedule.cache.misses", misses, LongAdder::sum).register(meterRegistry);
+        Gauge.builder("loan.schedule.cache.size", schedules, Map::size).register(meterRegistry);
+    }
+
+    public AmortizationSchedule get(LoanTerms terms) {
+        AmortizationSchedule schedule = schedules.get(terms);
+        if (schedule != null) {
+            hits.increment();
+            return schedule;
+        }
+        misses.increment();
+        schedule = AmortizationCalculator.schedule(terms);
+        if (schedules.size() >= maxSize) {
+            // make room by dropping an arbitrary entry, it is recomputed on its next use
+            Iterator<LoanTerms> iterator = schedules.keySet().iterator();
+            if (iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+        schedules.put(terms, schedule);
+        return schedule;
+    }
+
+    public void clear() {
+        schedules.clear();
+    }
+}
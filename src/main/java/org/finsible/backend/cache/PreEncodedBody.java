@@ -0,0 +1,116 @@
+package org.finsible.backend.cache;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A serialized response body together with its gzip and brotli encodings, all computed once when the body is built.
+ * Each encoding is its own representation, so each gets its own strong ETag.
+ */
+public final class PreEncodedBody {
+    private static final Logger logger = LoggerFactory.getLogger(PreEncodedBody.class);
+    public static final String GZIP = "gzip";
+    public static final String BROTLI = "br";
+    private static final boolean BROTLI_AVAILABLE = loadBrotli();
+
+    public record Variant(String contentEncoding, byte[] bytes, String etag) {
+    }
+
+    private final long version;
+    private final Variant identity;
+    private final Variant gzip;
+    private final Variant brotli;
+
+    private PreEncodedBody(long version, Variant identity, Variant gzip, Variant brotli) {
+        this.version = version;
+        this.identity = identity;
+        this.gzip = gzip;
+        this.brotli = brotli;
+    }
+
+    public static PreEncodedBody encode(long version, String etag, byte[] json) {
+        Variant identity = new Variant(null, json, etag);
+        Variant gzip = new Variant(GZIP, gzip(json), etag + "-" + GZIP);
+        Variant brotli = BROTLI_AVAILABLE ? new Variant(BROTLI, brotli(json), etag + "-" + BROTLI) : null;
+        return new PreEncodedBody(version, identity, gzip, brotli);
+    }
+
+    public long version() {
+        return version;
+    }
+
+    // the smallest encoding the client accepts, brotli before gzip before none
+    public Variant variantFor(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return identity;
+        }
+        boolean brotliAccepted = false;
+        boolean gzipAccepted = false;
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (isRefused(parts)) {
+                continue;
+            }
+            brotliAccepted |= coding.equals(BROTLI) || coding.equals("*");
+            gzipAccepted |= coding.equals(GZIP) || coding.equals("x-gzip") || coding.equals("*");
+        }
+        if (brotliAccepted && brotli != null) {
+            return brotli;
+        }
+        return gzipAccepted ? gzip : identity;
+    }
+
+    // "q=0" means the coding is not acceptable
+    private static boolean isRefused(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2)) <= 0;
+                } catch (NumberFormatException e) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2 + 32);
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+            gzipOut.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] brotli(byte[] bytes) {
+        try {
+            // encoded once per version, so the slowest and smallest setting is worth it
+            return Encoder.compress(bytes, new Encoder.Parameters().setQuality(11));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // brotli needs a native library, without one for this platform responses are offered in gzip only
+    private static boolean loadBrotli() {
+        try {
+            Brotli4jLoader.ensureAvailability();
+            return true;
+        } catch (Throwable e) {
+            logger.warn("Brotli is not available on this platform, serving gzip only: {}", e.getMessage());
+            return false;
+        }
+    }
+}
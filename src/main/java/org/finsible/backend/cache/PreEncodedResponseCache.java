@@ -0,0 +1,101 @@
+package org.finsible.backend.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Response bodies of the reference data endpoints (currencies, languages), serialized and compressed once per snapshot
+ * version. A request only picks the bytes of the encoding it accepts; an admin change bumps the snapshot version and the
+ * next request builds the body again.
+ * ETags are a hash of the serialized data (the list, not the envelope with its timestamp), so every node hands out the
+ * same tag for the same data, across restarts too; snapshot versions only tell when to hash again.
+ */
+@Component
+public class PreEncodedResponseCache {
+    public static final String CURRENCIES = "supported-currencies";
+    public static final String LANGUAGES = "supported-languages";
+    private static final Logger logger = LoggerFactory.getLogger(PreEncodedResponseCache.class);
+    private final Map<String, PreEncodedBody> bodies = new ConcurrentHashMap<>();
+    private final Map<String, Tag> tags = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper;
+    private final LongAdder encodings = new LongAdder();
+
+    public PreEncodedResponseCache(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        FunctionCounter.builder("reference.response.encodings", encodings, LongAdder::sum).register(meterRegistry);
+    }
+
+    private record Tag(long version, String etag) {
+    }
+
+    // data must be built from the same snapshot the version was read from, response wraps it into the body
+    public PreEncodedBody get(String key, long version, Supplier<?> data, Function<Object, ?> response) {
+        PreEncodedBody cached = bodies.get(key);
+        if (cached != null && cached.version() == version) {
+            return cached;
+        }
+        return bodies.compute(key, (ignored, current) -> {
+            // a request holding an older snapshot must not replace a newer body, it is served the newer one
+            if (current != null && current.version() >= version) {
+                return current;
+            }
+            return encode(key, version, data.get(), response);
+        });
+    }
+
+    // identity-encoding ETag of the data at this version, hashed once per version
+    public String etag(String key, long version, Supplier<?> data) {
+        Tag cached = tags.get(key);
+        if (cached != null && cached.version() == version) {
+            return cached.etag();
+        }
+        return tags.compute(key, (ignored, current) -> current != null && current.version() >= version ? current
+                : new Tag(version, contentTag(key, serialize(key, data.get())))).etag();
+    }
+
+    public void clear() {
+        bodies.clear();
+        tags.clear();
+    }
+
+    private PreEncodedBody encode(String key, long version, Object data, Function<Object, ?> response) {
+        String etag = contentTag(key, serialize(key, data));
+        tags.merge(key, new Tag(version, etag), (current, created) -> current.version() >= created.version() ? current : created);
+        PreEncodedBody encoded = PreEncodedBody.encode(version, etag, serialize(key, response.apply(data)));
+        encodings.increment();
+        logger.info("Encoded {} response at version {}", key, version);
+        return encoded;
+    }
+
+    private byte[] serialize(String key, Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + key + " response", e);
+        }
+    }
+
+    // the first 96 bits of the SHA-256 of the data, plenty to tell versions of a list apart
+    private static String contentTag(String key, byte[] json) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(json);
+            return key + "-" + HexFormat.of().formatHex(hash, 0, 12);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package org.finsible.backend.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Immutable, code-indexed view of a small reference table (currencies, languages).
+ * Changes never modify a snapshot, they produce a new one with a higher version which the owner swaps in atomically.
+ */
+public final class ReferenceDataSnapshot<T> {
+    private final List<T> rows;
+    private final Map<String, T> rowsByCode;
+    private final Function<T, String> codeOf;
+    private final long version;
+
+    private ReferenceDataSnapshot(List<T> rows, Function<T, String> codeOf, long version) {
+        Map<String, T> byCode = new HashMap<>();
+        for (T row : rows) {
+            byCode.put(codeOf.apply(row), row);
+        }
+        this.rows = Collections.unmodifiableList(new ArrayList<>(rows));
+        this.rowsByCode = Collections.unmodifiableMap(byCode);
+        this.codeOf = codeOf;
+        this.version = version;
+    }
+
+    public static <T> ReferenceDataSnapshot<T> of(List<T> rows, Function<T, String> codeOf, long version) {
+        return new ReferenceDataSnapshot<>(rows, codeOf, version);
+    }
+
+    public static <T> ReferenceDataSnapshot<T> empty(Function<T, String> codeOf) {
+        return new ReferenceDataSnapshot<>(List.of(), codeOf, 0);
+    }
+
+    public T get(String code) {
+        return code == null ? null : rowsByCode.get(code);
+    }
+
+    public List<T> all() {
+        return rows;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    // copy with the row added, or replaced if a row with the same code exists
+    public ReferenceDataSnapshot<T> withRow(T row) {
+        String code = codeOf.apply(row);
+        List<T> updated = new ArrayList<>(rows.size() + 1);
+        boolean replaced = false;
+        for (T existing : rows) {
+            if (codeOf.apply(existing).equals(code)) {
+                updated.add(row);
+                replaced = true;
+            } else {
+                updated.add(existing);
+            }
+        }
+        if (!replaced) {
+            updated.add(row);
+        }
+        return new ReferenceDataSnapshot<>(updated, codeOf, version + 1);
+    }
+
+    public ReferenceDataSnapshot<T> withoutRow(String code) {
+        List<T> updated = rows.stream().filter(row -> !codeOf.apply(row).equals(code)).toList();
+        return new ReferenceDataSnapshot<>(updated, codeOf, version + 1);
+    }
+}
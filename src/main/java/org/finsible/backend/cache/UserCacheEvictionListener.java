@@ -0,0 +1,57 @@
+package org.finsible.backend.cache;
+
+import jakarta.persistence.PreRemove;
+import org.finsible.backend.cache.CacheInvalidationBus.EntityType;
+import org.finsible.backend.entity.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// JPA entity listener (instantiated through Spring) that drops a deleted user from the authentication caches,
+// on this node directly and on the others through the cache invalidation bus
+@Component
+public class UserCacheEvictionListener {
+    private static final Logger logger = LoggerFactory.getLogger(UserCacheEvictionListener.class);
+    private final UserExistenceCache userExistenceCache;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    public UserCacheEvictionListener(UserExistenceCache userExistenceCache, VerifiedTokenCache verifiedTokenCache,
+                                     CacheInvalidationBus cacheInvalidationBus) {
+        this.userExistenceCache = userExistenceCache;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        cacheInvalidationBus.subscribe(EntityType.USER, invalidation -> evict(invalidation.userId()));
+        cacheInvalidationBus.onFlush(() -> {
+            userExistenceCache.clear();
+            verifiedTokenCache.clear();
+        });
+    }
+
+    // published on remove rather than after it: the delete itself is flushed at commit, too late to join the transaction.
+    // This node evicts only once the delete committed, a lookup missing the cache before that would find the user again
+    // and cache it for good
+    @PreRemove
+    public void onUserRemoving(User user) {
+        String userId = user.getId();
+        cacheInvalidationBus.publish(EntityType.USER, userId, userId);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(userId);
+            }
+        });
+    }
+
+    private void evict(String userId) {
+        userExistenceCache.evict(userId);
+        verifiedTokenCache.evictUser(userId);
+        logger.info("Evicted user with id {} from authentication caches", userId);
+    }
+}
@@ -0,0 +1,64 @@
+package org.finsible.backend.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.finsible.backend.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers which user ids are known to exist so the authentication filter does not have to
+ * query the users table on every request. Entries are removed when the user is deleted.
+ */
+@Component
+public class UserExistenceCache {
+    private final Set<String> existingUserIds = ConcurrentHashMap.newKeySet();
+    private final UserRepository userRepository;
+    private final int maxSize;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public UserExistenceCache(UserRepository userRepository, @Value("${app.auth.user-cache.max-size:10000}") int maxSize,
+                              MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.maxSize = maxSize;
+        FunctionCounter.builder("auth.user.cache.hits", hits, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("auth.user.cache.misses", misses, LongAdder::sum).register(meterRegistry);
+        Gauge.builder("auth.user.cache.size", existingUserIds, Set::size).register(meterRegistry);
+    }
+
+    public boolean exists(String userId) {
+        if (existingUserIds.contains(userId)) {
+            hits.increment();
+            return true;
+        }
+        misses.increment();
+        if (!userRepository.existsById(userId)) {
+            return false;
+        }
+        if (existingUserIds.size() >= maxSize) {
+            // make room by dropping an arbitrary entry, it will be loaded again on its next request
+            Iterator<String> iterator = existingUserIds.iterator();
+            if (iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+        existingUserIds.add(userId);
+        return true;
+    }
+
+    public void evict(String userId) {
+        existingUserIds.remove(userId);
+    }
+
+    public void clear() {
+        existingUserIds.clear();
+    }
+}
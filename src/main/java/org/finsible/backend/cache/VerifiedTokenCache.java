@@ -0,0 +1,117 @@
+package org.finsible.backend.cache;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of already verified JWTs.
+ * Entries are keyed by the SHA-256 digest of the token (raw tokens are never kept in memory)
+ * and live until the token's own expiry.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    public record VerifiedToken(String userId, Claims claims, List<SimpleGrantedAuthority> authorities, long expiresAtMillis) {
+        boolean isExpired(long nowMillis) {
+            return nowMillis >= expiresAtMillis;
+        }
+    }
+
+    private final Map<String, VerifiedToken> tokens = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public VerifiedTokenCache(@Value("${app.auth.token-cache.max-size:10000}") int maxSize, MeterRegistry meterRegistry) {
+        this.maxSize = maxSize;
+        FunctionCounter.builder("auth.token.cache.hits", hits, LongAdder::sum)
+                .description("Requests authenticated from the verified-token cache")
+                .register(meterRegistry);
+        FunctionCounter.builder("auth.token.cache.misses", misses, LongAdder::sum)
+                .description("Requests that needed a full JWT verification")
+                .register(meterRegistry);
+        Gauge.builder("auth.token.cache.size", tokens, Map::size).register(meterRegistry);
+    }
+
+    public VerifiedToken get(String token) {
+        String key = digest(token);
+        VerifiedToken verifiedToken = tokens.get(key);
+        if (verifiedToken == null) {
+            misses.increment();
+            return null;
+        }
+        if (verifiedToken.isExpired(System.currentTimeMillis())) {
+            tokens.remove(key, verifiedToken);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return verifiedToken;
+    }
+
+    /**
+     * Builds the authentication details from freshly validated claims and caches them until the token expires
+     * @param token The raw JWT
+     * @param claims Claims returned by a successful validation
+     * @return The cached entry
+     */
+    public VerifiedToken put(String token, Claims claims) {
+        List<?> roles = claims.get("roles", List.class);
+        List<SimpleGrantedAuthority> authorities = roles != null
+                ? roles.stream().map(role -> new SimpleGrantedAuthority("ROLE_" + role)).toList()
+                : List.of(new SimpleGrantedAuthority("ROLE_USER"));
+        long expiresAt = claims.getExpiration() != null ? claims.getExpiration().getTime() : Long.MAX_VALUE;
+        VerifiedToken verifiedToken = new VerifiedToken(claims.getSubject(), claims, authorities, expiresAt);
+
+        if (tokens.size() >= maxSize) {
+            evict();
+        }
+        tokens.put(digest(token), verifiedToken);
+        return verifiedToken;
+    }
+
+    public void evictUser(String userId) {
+        tokens.values().removeIf(verifiedToken -> verifiedToken.userId().equals(userId));
+    }
+
+    public void clear() {
+        tokens.clear();
+    }
+
+    // drop expired entries first, if the cache is still full drop arbitrary ones to make room
+    private void evict() {
+        long now = System.currentTimeMillis();
+        tokens.values().removeIf(verifiedToken -> verifiedToken.isExpired(now));
+        Iterator<String> iterator = tokens.keySet().iterator();
+        while (tokens.size() >= maxSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = messageDigest.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is mandatory for every JVM
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.finsible.backend.configuration;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.finsible.backend.service.CategoryService;
+import org.finsible.backend.service.CurrencyService;
+import org.finsible.backend.service.GoogleTokenVerifierRegistry;
+import org.finsible.backend.service.LanguageService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metrics that are not auto-configured. Spring Boot already publishes http.server.requests (per endpoint),
+ * spring.data.repository.invocations (per repository method) and the hikaricp.* pool meters; their histograms are
+ * switched on in application.properties. The auth and loan schedule caches register their own meters.
+ */
+@Configuration
+public class MetricsConfiguration {
+    // enables @Timed on Spring beans
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public MeterBinder inProcessCacheMetrics(CategoryService categoryService, CurrencyService currencyService, LanguageService languageService,
+                                             GoogleTokenVerifierRegistry googleTokenVerifierRegistry) {
+        return registry -> {
+            FunctionCounter.builder("category.defaults.cache.hits", categoryService, CategoryService::getDefaultCategoryCacheHits)
+                    .register(registry);
+            FunctionCounter.builder("category.defaults.cache.misses", categoryService, CategoryService::getDefaultCategoryCacheMisses)
+                    .description("Rebuilds of the pre-mapped default categories")
+                    .register(registry);
+            // reference data is always served from its snapshot, so size and version are what there is to watch
+            Gauge.builder("reference.data.snapshot.size", currencyService, service -> service.getSnapshot().all().size())
+                    .tag("table", "currencies").register(registry);
+            Gauge.builder("reference.data.snapshot.version", currencyService, service -> service.getSnapshot().version())
+                    .tag("table", "currencies").register(registry);
+            Gauge.builder("reference.data.snapshot.size", languageService, service -> service.getSnapshot().all().size())
+                    .tag("table", "languages").register(registry);
+            Gauge.builder("reference.data.snapshot.version", languageService, service -> service.getSnapshot().version())
+                    .tag("table", "languages").register(registry);
+            Gauge.builder("auth.google.verifier.cache.size", googleTokenVerifierRegistry, GoogleTokenVerifierRegistry::cachedVerifierCount)
+                    .register(registry);
+        };
+    }
+}
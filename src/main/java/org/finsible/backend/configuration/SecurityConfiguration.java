@@ -1,15 +1,21 @@
 package org.finsible.backend.configuration;
 
+import org.finsible.backend.monitoring.RequestQueryStatsFilter;
 import org.finsible.backend.service.JwtAuthenticationFilter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -22,9 +28,13 @@ import java.util.List;
 public class SecurityConfiguration { //middleware
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final List<IpAddressMatcher> actuatorClients;
 
-    public SecurityConfiguration(JwtAuthenticationFilter jwtAuthenticationFilter) {
+    public SecurityConfiguration(JwtAuthenticationFilter jwtAuthenticationFilter,
+                                 @Value("${app.actuator.allowed-clients:127.0.0.1/32,::1/128}") List<String> actuatorClients) {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.actuatorClients = actuatorClients.stream().map(String::trim).filter(client -> !client.isEmpty())
+                .map(IpAddressMatcher::new).toList();
     }
 
     @Bean
@@ -33,7 +43,9 @@ public class SecurityConfiguration { //middleware
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 //browsers do not automatically add custom HTTP headers like Authorization: Bearer <token> to cross-origin requests.
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/auth/sign-in/google-code", "/auth/sign-in/google", "/actuator/**", "/health").permitAll() // Allow authentication endpoints
+                        .requestMatchers("/auth/sign-in/google-code", "/auth/sign-in/google", "/actuator/health/**", "/actuator/info", "/health").permitAll() // Allow authentication endpoints
+                        // metrics, prometheus and mappings describe the internals, only the scrapers' addresses may read them
+                        .requestMatchers("/actuator/**").access(fromActuatorClient())
                         .anyRequest().authenticated() // Protect other endpoints
                 )
                 .sessionManagement(sess -> sess.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
@@ -41,6 +53,11 @@ public class SecurityConfiguration { //middleware
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class).build();
     }
 
+    private AuthorizationManager<RequestAuthorizationContext> fromActuatorClient() {
+        return (authentication, context) -> new AuthorizationDecision(
+                actuatorClients.stream().anyMatch(client -> client.matches(context.getRequest())));
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
@@ -59,6 +76,10 @@ public class SecurityConfiguration { //middleware
         // Allow all headers
         configuration.setAllowedHeaders(List.of("*"));
 
+        // let the dev frontend read the db monitoring headers
+        configuration.setExposedHeaders(List.of(RequestQueryStatsFilter.QUERY_COUNT_HEADER, RequestQueryStatsFilter.QUERY_TIME_HEADER,
+                RequestQueryStatsFilter.REPEATED_STATEMENTS_HEADER));
+
         // Allow credentials (important for cookies)
         configuration.setAllowCredentials(true);
 
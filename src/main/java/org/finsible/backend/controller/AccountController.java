@@ -5,27 +5,57 @@ import org.finsible.backend.BaseResponse;
 import org.finsible.backend.dto.request.AccountRequestDTO;
 import org.finsible.backend.dto.request.CreditCardAccountRequestDTO;
 import org.finsible.backend.dto.request.DebitCardAccountRequestDTO;
+import org.finsible.backend.dto.request.LoanPrepaymentRequestDTO;
 import org.finsible.backend.dto.request.groups.Create;
 import org.finsible.backend.dto.request.groups.Update;
 import org.finsible.backend.dto.response.AccountResponseDTO;
+import org.finsible.backend.dto.response.CreditCardStatementResponseDTO;
+import org.finsible.backend.dto.response.LoanScheduleResponseDTO;
+import org.finsible.backend.dto.response.LoanWhatIfResponseDTO;
 import org.finsible.backend.service.AccountService;
+import org.finsible.backend.service.CreditCardStatementService;
+import org.finsible.backend.service.LoanService;
+import org.finsible.backend.service.UserDataVersionService;
+import org.finsible.backend.utility.ConditionalGet;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
 @RequestMapping("/accounts")
 public class AccountController {
     private AccountService accountService;
+    private CreditCardStatementService creditCardStatementService;
+    private LoanService loanService;
+    private UserDataVersionService userDataVersionService;
 
     @Autowired
     public void setAccountService(AccountService accountService) {
         this.accountService = accountService;
     }
 
+    @Autowired
+    public void setCreditCardStatementService(CreditCardStatementService creditCardStatementService) {
+        this.creditCardStatementService = creditCardStatementService;
+    }
+
+    @Autowired
+    public void setLoanService(LoanService loanService) {
+        this.loanService = loanService;
+    }
+
+    @Autowired
+    public void setUserDataVersionService(UserDataVersionService userDataVersionService) {
+        this.userDataVersionService = userDataVersionService;
+    }
+
     @PostMapping("/{accountGroupId}/")
     public ResponseEntity<BaseResponse<AccountResponseDTO>> createAccount(@RequestAttribute("userId") String userId, @PathVariable Long accountGroupId,
                                                                          @Validated(Create.class) @RequestBody AccountRequestDTO accountRequestDTO) {
@@ -35,8 +65,10 @@ public class AccountController {
     }
 
     @GetMapping("/all")
-    public ResponseEntity<BaseResponse<List<AccountResponseDTO>>> getAccount(@RequestAttribute("userId") String userId) {
-        return ResponseEntity.ok(new BaseResponse<>("Accounts fetched successfully", true, accountService.getAccounts(userId)));
+    public ResponseEntity<BaseResponse<List<AccountResponseDTO>>> getAccount(@RequestAttribute("userId") String userId, WebRequest webRequest) {
+        // the version is read before the accounts, so a concurrent write can only make the tag older than the body, never newer
+        return ConditionalGet.respond(webRequest, userDataVersionService.accountsETag(userId),
+                () -> new BaseResponse<>("Accounts fetched successfully", true, accountService.getAccounts(userId)));
     }
 
     @PutMapping("/{accountId}")
@@ -81,4 +113,29 @@ public class AccountController {
         AccountResponseDTO response =  accountService.updateDebitCardAccount(userId, accountId, debitCardAccountRequestDTO);
         return ResponseEntity.ok(new BaseResponse<>("Debit card account updated successfully", true, response));
     }
+
+    // latest statements first
+    @GetMapping("/credit-card/{accountId}/statements")
+    public ResponseEntity<BaseResponse<List<CreditCardStatementResponseDTO>>> getCreditCardStatements(@RequestAttribute("userId") String userId, @PathVariable Long accountId) {
+        return ResponseEntity.ok(new BaseResponse<>("Statements fetched successfully", true, creditCardStatementService.getStatements(userId, accountId)));
+    }
+
+    // re-runs (or backfills) the statement cycle of a day, cards that already have a statement for it are skipped
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping("/credit-card/statements/generate")
+    public ResponseEntity<BaseResponse<Long>> generateCreditCardStatements(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(new BaseResponse<>("Statements generated", true, creditCardStatementService.generateStatements(date)));
+    }
+
+    @GetMapping("/loan/{accountId}/schedule")
+    public ResponseEntity<BaseResponse<LoanScheduleResponseDTO>> getLoanSchedule(@RequestAttribute("userId") String userId, @PathVariable Long accountId) throws BadRequestException {
+        return ResponseEntity.ok(new BaseResponse<>("Loan schedule fetched successfully", true, loanService.getSchedule(userId, accountId)));
+    }
+
+    // the schedule with extra principal payments, nothing is saved
+    @PostMapping("/loan/{accountId}/schedule/what-if")
+    public ResponseEntity<BaseResponse<LoanWhatIfResponseDTO>> getLoanPrepaymentWhatIf(@RequestAttribute("userId") String userId, @PathVariable Long accountId,
+                                                                                     @Validated @RequestBody LoanPrepaymentRequestDTO loanPrepaymentRequestDTO) throws BadRequestException {
+        return ResponseEntity.ok(new BaseResponse<>("Loan prepayment schedule computed", true, loanService.getPrepaymentWhatIf(userId, accountId, loanPrepaymentRequestDTO)));
+    }
 }
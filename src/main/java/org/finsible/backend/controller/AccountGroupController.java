@@ -7,24 +7,29 @@ import org.finsible.backend.dto.request.groups.Create;
 import org.finsible.backend.dto.request.groups.Update;
 import org.finsible.backend.dto.response.AccountGroupResponseDTO;
 import org.finsible.backend.service.AccountGroupService;
+import org.finsible.backend.service.UserDataVersionService;
+import org.finsible.backend.utility.ConditionalGet;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import java.util.List;
 
 @RestController
 @RequestMapping("/account-groups")
 public class AccountGroupController {
     private final AccountGroupService accountGroupService;
+    private final UserDataVersionService userDataVersionService;
 
-    public AccountGroupController(AccountGroupService accountGroupService) {
+    public AccountGroupController(AccountGroupService accountGroupService, UserDataVersionService userDataVersionService) {
         this.accountGroupService = accountGroupService;
+        this.userDataVersionService = userDataVersionService;
     }
 
     @GetMapping("/all")
-    public ResponseEntity<BaseResponse<List<AccountGroupResponseDTO>>> getAccountGroups(@RequestAttribute String userId) {
-        List<AccountGroupResponseDTO> accountGroups = accountGroupService.getAccountGroups(userId);
-        return ResponseEntity.ok(new BaseResponse<>("Account groups fetched successfully", true, accountGroups));
+    public ResponseEntity<BaseResponse<List<AccountGroupResponseDTO>>> getAccountGroups(@RequestAttribute String userId, WebRequest webRequest) {
+        return ConditionalGet.respond(webRequest, userDataVersionService.accountGroupsETag(userId),
+                () -> new BaseResponse<>("Account groups fetched successfully", true, accountGroupService.getAccountGroups(userId)));
     }
 
     @PostMapping("/")
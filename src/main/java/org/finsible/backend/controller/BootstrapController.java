@@ -0,0 +1,33 @@
+package org.finsible.backend.controller;
+
+import org.finsible.backend.AppConstants;
+import org.finsible.backend.BaseResponse;
+import org.finsible.backend.dto.response.BootstrapResponseDTO;
+import org.finsible.backend.service.BootstrapService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/bootstrap")
+public class BootstrapController {
+    private final BootstrapService bootstrapService;
+
+    public BootstrapController(BootstrapService bootstrapService) {
+        this.bootstrapService = bootstrapService;
+    }
+
+    // etags: section tags the client already holds (from an earlier bootstrap or the list endpoints), those sections are skipped
+    @GetMapping
+    public ResponseEntity<BaseResponse<BootstrapResponseDTO>> getBootstrap(@RequestAttribute String userId,
+                                                                           @RequestParam(required = false) List<String> etags) {
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore())
+                .body(new BaseResponse<>(AppConstants.DATA_FETCH_SUCCESS, true, bootstrapService.getBootstrap(userId, etags)));
+    }
+}
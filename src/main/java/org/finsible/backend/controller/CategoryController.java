@@ -6,13 +6,17 @@ import org.finsible.backend.dto.request.CategoryRequestDTO;
 import org.finsible.backend.dto.request.groups.Create;
 import org.finsible.backend.dto.request.groups.Update;
 import org.finsible.backend.dto.response.CategoryResponseDTO;
+import org.finsible.backend.dto.response.CategoryTreeNodeDTO;
 import org.finsible.backend.entity.Category;
 import org.finsible.backend.service.CategoryService;
+import org.finsible.backend.service.UserDataVersionService;
+import org.finsible.backend.utility.ConditionalGet;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -20,20 +24,39 @@ import java.util.List;
 @RequestMapping("/category")
 public class CategoryController {
     private CategoryService categoryService;
+    private UserDataVersionService userDataVersionService;
 
     @Autowired
     public void setCategoryController(CategoryService categoryService) {
         this.categoryService = categoryService;
     }
 
+    @Autowired
+    public void setUserDataVersionService(UserDataVersionService userDataVersionService) {
+        this.userDataVersionService = userDataVersionService;
+    }
+
     @GetMapping("/all")
-    public ResponseEntity<BaseResponse<List<CategoryResponseDTO>>> getCategories(@RequestAttribute("userId") String userId) {
-       return ResponseEntity.ok(new BaseResponse<>("Categories fetched successfully", true, categoryService.getAllCategories(userId)));
+    public ResponseEntity<BaseResponse<List<CategoryResponseDTO>>> getCategories(@RequestAttribute("userId") String userId, WebRequest webRequest) {
+       return ConditionalGet.respond(webRequest, categoriesETag(userId),
+               () -> new BaseResponse<>("Categories fetched successfully", true, categoryService.getAllCategories(userId)));
+    }
+
+    @GetMapping("/tree")
+    public ResponseEntity<BaseResponse<List<CategoryTreeNodeDTO>>> getCategoryTree(@RequestAttribute("userId") String userId, WebRequest webRequest) {
+        return ConditionalGet.respond(webRequest, categoriesETag(userId),
+                () -> new BaseResponse<>("Category tree fetched successfully", true, categoryService.getCategoryTree(userId)));
     }
 
     @GetMapping("/type/{type}")
-    public ResponseEntity<BaseResponse<List<CategoryResponseDTO>>> getCategoriesByType(@RequestAttribute("userId") String userId, @PathVariable Category.CategoryType type) {
-        return ResponseEntity.ok(new BaseResponse<>("Categories of type " + type + " fetched successfully", true, categoryService.getCategoriesByType(userId, type)));
+    public ResponseEntity<BaseResponse<List<CategoryResponseDTO>>> getCategoriesByType(@RequestAttribute("userId") String userId, @PathVariable Category.CategoryType type,
+                                                                                     WebRequest webRequest) {
+        return ConditionalGet.respond(webRequest, categoriesETag(userId),
+                () -> new BaseResponse<>("Categories of type " + type + " fetched successfully", true, categoryService.getCategoriesByType(userId, type)));
+    }
+
+    private String categoriesETag(String userId) {
+        return userDataVersionService.categoriesETag(userId, categoryService.getDefaultCategoriesVersion());
     }
 
     @PreAuthorize("hasRole('ROLE_ADMIN')")
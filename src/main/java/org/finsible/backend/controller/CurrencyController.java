@@ -2,32 +2,46 @@ package org.finsible.backend.controller;
 
 import jakarta.validation.Valid;
 import org.finsible.backend.BaseResponse;
+import org.finsible.backend.cache.PreEncodedResponseCache;
+import org.finsible.backend.cache.ReferenceDataSnapshot;
 import org.finsible.backend.dto.request.CurrencyRequestDTO;
 import org.finsible.backend.dto.response.CurrencyResponseDTO;
+import org.finsible.backend.entity.SupportedCurrency;
 import org.finsible.backend.mapper.CurrencyMapper;
 import org.finsible.backend.service.CurrencyService;
+import org.finsible.backend.utility.ConditionalGet;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.List;
+import java.time.Duration;
 
 @RestController
 @RequestMapping("/supported-currencies")
 public class CurrencyController {
     private final CurrencyService currencyService;
     private final CurrencyMapper currencyMapper;
-    public CurrencyController(CurrencyService currencyService, CurrencyMapper currencyMapper) {
+    private final PreEncodedResponseCache preEncodedResponseCache;
+    private final CacheControl cacheControl;
+
+    public CurrencyController(CurrencyService currencyService, CurrencyMapper currencyMapper, PreEncodedResponseCache preEncodedResponseCache,
+                              @Value("${app.reference-data.max-age:PT5M}") Duration maxAge) {
         this.currencyService = currencyService;
         this.currencyMapper = currencyMapper;
+        this.preEncodedResponseCache = preEncodedResponseCache;
+        this.cacheControl = CacheControl.maxAge(maxAge).cachePrivate();
     }
 
+    // served from bytes encoded once per snapshot version (the timestamp is the one of the encoding)
     @GetMapping("/all")
-    public ResponseEntity<BaseResponse<List<CurrencyResponseDTO>>> getAllCurrencies() {
-        List<CurrencyResponseDTO> currencies = currencyService.getAllSupportedCurrencies();
-        return ResponseEntity.ok(
-                new BaseResponse<>("Supported currencies retrieved successfully", true, currencies)
-        );
+    public ResponseEntity<byte[]> getAllCurrencies(WebRequest webRequest) {
+        ReferenceDataSnapshot<SupportedCurrency> snapshot = currencyService.getSnapshot();
+        return ConditionalGet.respond(webRequest, preEncodedResponseCache.get(PreEncodedResponseCache.CURRENCIES, snapshot.version(),
+                () -> snapshot.all().stream().map(currencyMapper::toCurrencyResponseDTO).toList(),
+                data -> new BaseResponse<>("Supported currencies retrieved successfully", true, data)), cacheControl);
     }
 
     @GetMapping("/{code}")
@@ -2,33 +2,46 @@ package org.finsible.backend.controller;
 
 import jakarta.validation.Valid;
 import org.finsible.backend.BaseResponse;
+import org.finsible.backend.cache.PreEncodedResponseCache;
+import org.finsible.backend.cache.ReferenceDataSnapshot;
 import org.finsible.backend.dto.request.LanguageRequestDTO;
 import org.finsible.backend.dto.response.LanguageResponseDTO;
+import org.finsible.backend.entity.SupportedLanguage;
 import org.finsible.backend.mapper.LanguageMapper;
 import org.finsible.backend.service.LanguageService;
+import org.finsible.backend.utility.ConditionalGet;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.List;
+import java.time.Duration;
 
 @RestController
 @RequestMapping("/supported-languages")
 public class LanguageController {
     private final LanguageService languageService;
     private final LanguageMapper languageMapper;
+    private final PreEncodedResponseCache preEncodedResponseCache;
+    private final CacheControl cacheControl;
 
-    public LanguageController(LanguageService languageService, LanguageMapper languageMapper) {
+    public LanguageController(LanguageService languageService, LanguageMapper languageMapper, PreEncodedResponseCache preEncodedResponseCache,
+                              @Value("${app.reference-data.max-age:PT5M}") Duration maxAge) {
         this.languageService = languageService;
         this.languageMapper = languageMapper;
+        this.preEncodedResponseCache = preEncodedResponseCache;
+        this.cacheControl = CacheControl.maxAge(maxAge).cachePrivate();
     }
 
+    // served from bytes encoded once per snapshot version (the timestamp is the one of the encoding)
     @GetMapping("/all")
-    public ResponseEntity<BaseResponse<List<LanguageResponseDTO>>> getAllLanguages() {
-        List<LanguageResponseDTO> languages = languageService.getAllSupportedLanguages();
-        return ResponseEntity.ok(
-                new BaseResponse<>("Supported languages retrieved successfully", true, languages)
-        );
+    public ResponseEntity<byte[]> getAllLanguages(WebRequest webRequest) {
+        ReferenceDataSnapshot<SupportedLanguage> snapshot = languageService.getSnapshot();
+        return ConditionalGet.respond(webRequest, preEncodedResponseCache.get(PreEncodedResponseCache.LANGUAGES, snapshot.version(),
+                () -> snapshot.all().stream().map(languageMapper::toLanguageResponseDTO).toList(),
+                data -> new BaseResponse<>("Supported languages retrieved successfully", true, data)), cacheControl);
     }
 
     @GetMapping("/{code}")
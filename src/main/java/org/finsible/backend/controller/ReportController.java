@@ -0,0 +1,47 @@
+package org.finsible.backend.controller;
+
+import org.apache.coyote.BadRequestException;
+import org.finsible.backend.BaseResponse;
+import org.finsible.backend.dto.response.MonthlySpendResponseDTO;
+import org.finsible.backend.service.MonthlySpendRollupService;
+import org.finsible.backend.service.ReportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+import java.util.List;
+
+@RestController
+@RequestMapping("/reports")
+public class ReportController {
+    private ReportService reportService;
+    private MonthlySpendRollupService monthlySpendRollupService;
+
+    @Autowired
+    public void setReportService(ReportService reportService) {
+        this.reportService = reportService;
+    }
+
+    @Autowired
+    public void setMonthlySpendRollupService(MonthlySpendRollupService monthlySpendRollupService) {
+        this.monthlySpendRollupService = monthlySpendRollupService;
+    }
+
+    // from/to as yyyy-MM, defaults to the last 12 months
+    @GetMapping("/monthly")
+    public ResponseEntity<BaseResponse<List<MonthlySpendResponseDTO>>> getMonthlySpend(@RequestAttribute("userId") String userId,
+                                                                                       @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+                                                                                       @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to)
+            throws BadRequestException {
+        return ResponseEntity.ok(new BaseResponse<>("Monthly report fetched successfully", true, reportService.getMonthlySpend(userId, from, to)));
+    }
+
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping("/monthly/rebuild")
+    public ResponseEntity<BaseResponse<Long>> rebuildMonthlySpend() {
+        return ResponseEntity.ok(new BaseResponse<>("Monthly report rollup rebuilt", true, monthlySpendRollupService.rebuild()));
+    }
+}
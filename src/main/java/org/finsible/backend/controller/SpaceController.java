@@ -0,0 +1,27 @@
+package org.finsible.backend.controller;
+
+import org.finsible.backend.BaseResponse;
+import org.finsible.backend.dto.response.SettlementResponseDTO;
+import org.finsible.backend.service.SettlementService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/spaces")
+public class SpaceController {
+    private SettlementService settlementService;
+
+    @Autowired
+    public void setSettlementService(SettlementService settlementService) {
+        this.settlementService = settlementService;
+    }
+
+    // who should pay whom to settle all open split balances of the space
+    @GetMapping("/{spaceId}/settlements")
+    public ResponseEntity<BaseResponse<List<SettlementResponseDTO>>> getSettlements(@RequestAttribute("userId") String userId, @PathVariable Long spaceId) {
+        return ResponseEntity.ok(new BaseResponse<>("Settlements fetched successfully", true, settlementService.getSettlements(userId, spaceId)));
+    }
+}
@@ -0,0 +1,32 @@
+package org.finsible.backend.controller;
+
+import org.apache.coyote.BadRequestException;
+import org.finsible.backend.AppConstants;
+import org.finsible.backend.BaseResponse;
+import org.finsible.backend.dto.response.SyncResponseDTO;
+import org.finsible.backend.service.SyncService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/sync")
+public class SyncController {
+    private final SyncService syncService;
+
+    public SyncController(SyncService syncService) {
+        this.syncService = syncService;
+    }
+
+    // since: the watermark of the previous sync, omitted on first sync
+    @GetMapping
+    public ResponseEntity<BaseResponse<SyncResponseDTO>> sync(@RequestAttribute String userId, @RequestParam(required = false) String since)
+            throws BadRequestException {
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore())
+                .body(new BaseResponse<>(AppConstants.DATA_FETCH_SUCCESS, true, syncService.sync(userId, since)));
+    }
+}
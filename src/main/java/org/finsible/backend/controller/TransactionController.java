@@ -0,0 +1,108 @@
+package org.finsible.backend.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.apache.coyote.BadRequestException;
+import org.finsible.backend.BaseResponse;
+import org.finsible.backend.dto.request.TransactionRequestDTO;
+import org.finsible.backend.dto.request.groups.Create;
+import org.finsible.backend.dto.request.groups.Update;
+import org.finsible.backend.dto.response.ImportProgressResponseDTO;
+import org.finsible.backend.dto.response.TransactionPageResponseDTO;
+import org.finsible.backend.dto.response.TransactionResponseDTO;
+import org.finsible.backend.entity.Transaction;
+import org.finsible.backend.importer.TransactionRowReader;
+import org.finsible.backend.service.TransactionImportService;
+import org.finsible.backend.service.TransactionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.time.Instant;
+
+@RestController
+@RequestMapping("/transactions")
+public class TransactionController {
+    private TransactionService transactionService;
+    private TransactionImportService transactionImportService;
+
+    @Autowired
+    public void setTransactionService(TransactionService transactionService) {
+        this.transactionService = transactionService;
+    }
+
+    @Autowired
+    public void setTransactionImportService(TransactionImportService transactionImportService) {
+        this.transactionImportService = transactionImportService;
+    }
+
+    // newest first; pass the returned nextCursor back as ?cursor= for the next page
+    @GetMapping
+    public ResponseEntity<BaseResponse<TransactionPageResponseDTO>> getTransactions(@RequestAttribute("userId") String userId,
+                                                                                    @RequestParam(required = false) Long accountId,
+                                                                                    @RequestParam(required = false) Long categoryId,
+                                                                                    @RequestParam(required = false) Transaction.TransactionType type,
+                                                                                    @RequestParam(required = false) Long spaceId,
+                                                                                    @RequestParam(required = false) Instant from,
+                                                                                    @RequestParam(required = false) Instant to,
+                                                                                    @RequestParam(required = false) String cursor,
+                                                                                    @RequestParam(required = false) Integer size) throws BadRequestException {
+        TransactionService.TransactionFilter filter = new TransactionService.TransactionFilter(accountId, categoryId, type, spaceId, from, to);
+        return ResponseEntity.ok(new BaseResponse<>("Transactions fetched successfully", true,
+                transactionService.getTransactions(userId, filter, cursor, size)));
+    }
+
+    @GetMapping("/{transactionId}")
+    public ResponseEntity<BaseResponse<TransactionResponseDTO>> getTransaction(@RequestAttribute("userId") String userId, @PathVariable Long transactionId) {
+        return ResponseEntity.ok(new BaseResponse<>("Transaction fetched successfully", true, transactionService.getTransaction(userId, transactionId)));
+    }
+
+    @PostMapping("/")
+    public ResponseEntity<BaseResponse<TransactionResponseDTO>> createTransaction(@RequestAttribute("userId") String userId,
+                                                                                  @Validated(Create.class) @RequestBody TransactionRequestDTO transactionRequestDTO)
+            throws BadRequestException {
+        return ResponseEntity.ok(new BaseResponse<>("Transaction created successfully", true,
+                transactionService.createTransaction(userId, transactionRequestDTO)));
+    }
+
+    @PutMapping("/{transactionId}")
+    public ResponseEntity<BaseResponse<TransactionResponseDTO>> updateTransaction(@RequestAttribute("userId") String userId, @PathVariable Long transactionId,
+                                                                                  @Validated(Update.class) @RequestBody TransactionRequestDTO transactionRequestDTO)
+            throws BadRequestException {
+        return ResponseEntity.ok(new BaseResponse<>("Transaction updated successfully", true,
+                transactionService.updateTransaction(userId, transactionId, transactionRequestDTO)));
+    }
+
+    @DeleteMapping("/{transactionId}")
+    public ResponseEntity<BaseResponse<Void>> deleteTransaction(@RequestAttribute("userId") String userId, @PathVariable Long transactionId) {
+        transactionService.deleteTransaction(userId, transactionId);
+        return ResponseEntity.ok(new BaseResponse<>("Transaction deleted successfully", true));
+    }
+
+    // the body is read straight from the request stream; accountId is the account for OFX rows and CSV rows without an account_id
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ofx", "application/ofx", MediaType.TEXT_PLAIN_VALUE,
+            MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<BaseResponse<ImportProgressResponseDTO>> importTransactions(@RequestAttribute("userId") String userId,
+                                                                                      @RequestParam(required = false) TransactionRowReader.ImportFormat format,
+                                                                                      @RequestParam(required = false) Long accountId,
+                                                                                      HttpServletRequest request) throws IOException, BadRequestException {
+        TransactionRowReader.ImportFormat resolvedFormat = format;
+        if (resolvedFormat == null) {
+            String contentType = request.getContentType();
+            resolvedFormat = contentType != null && contentType.contains("ofx") ? TransactionRowReader.ImportFormat.OFX : TransactionRowReader.ImportFormat.CSV;
+        }
+        ImportProgressResponseDTO result = transactionImportService.importTransactions(userId, resolvedFormat, accountId, request.getInputStream());
+        return ResponseEntity.ok(new BaseResponse<>("Transactions imported", true, result));
+    }
+
+    @GetMapping("/import/progress")
+    public ResponseEntity<BaseResponse<ImportProgressResponseDTO>> getImportProgress(@RequestAttribute("userId") String userId) {
+        ImportProgressResponseDTO progress = transactionImportService.getProgress(userId);
+        if (progress == null) {
+            return ResponseEntity.ok(new BaseResponse<>("No import found", true));
+        }
+        return ResponseEntity.ok(new BaseResponse<>("Import progress fetched successfully", true, progress));
+    }
+}
@@ -0,0 +1,38 @@
+package org.finsible.backend.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.finsible.backend.loan.AmortizationCalculator;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanPrepaymentRequestDTO {
+    @NotEmpty(message = "At least one prepayment is required")
+    @Valid
+    private List<PrepaymentDTO> prepayments;
+
+    // defaults to REDUCE_TENURE
+    private AmortizationCalculator.PrepaymentMode mode;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PrepaymentDTO {
+        @NotNull(message = "Prepayment date is required")
+        private LocalDate date;
+
+        @NotNull(message = "Prepayment amount is required")
+        @Positive(message = "Prepayment amount must be positive")
+        private BigDecimal amount;
+    }
+}
@@ -0,0 +1,46 @@
+package org.finsible.backend.dto.request;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import org.finsible.backend.dto.request.groups.Create;
+import org.finsible.backend.dto.request.groups.Update;
+import org.finsible.backend.entity.Transaction;
+import org.finsible.backend.validator.AtLeastOneFieldNotNull;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Data
+@AtLeastOneFieldNotNull(groups = Update.class)
+public class TransactionRequestDTO {
+    // valid values: "INCOME", "EXPENSE", "TRANSFER"
+    @NotNull(groups = Create.class, message = "Transaction type must be provided")
+    private Transaction.TransactionType type;
+
+    @NotNull(groups = Create.class, message = "Amount must be provided")
+    @PositiveOrZero(groups = {Create.class, Update.class}, message = "Amount must not be negative")
+    private BigDecimal totalAmount;
+
+    // defaults to the total amount when the transaction is not split
+    @PositiveOrZero(groups = {Create.class, Update.class}, message = "User share must not be negative")
+    private BigDecimal userShare;
+
+    private Boolean isSplit;
+
+    private Long categoryId;
+
+    private Long accountId;
+
+    @Size(groups = {Create.class, Update.class}, max = 2000, message = "Description must not exceed 2000 characters")
+    private String description;
+
+    private Long spaceId;
+
+    @Size(groups = {Create.class, Update.class}, min = 3, max = 3, message = "Currency code must be a 3-letter ISO code")
+    private String currencyCode;
+
+    // when the transaction happened, defaults to now
+    private Instant transactionDate;
+}
@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 
 @Data
 @NoArgsConstructor
@@ -37,4 +38,29 @@ public class AccountResponseDTO {
     // linked bank account id - include only when non-null
     @JsonInclude(JsonInclude.Include.NON_NULL)
     private Long linkedBankAccountId;
+
+    // loan details - include only when non-null
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String loanType;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private BigDecimal principalAmount;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private BigDecimal interestRate;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private BigDecimal emiAmount;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer emiDate;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer tenureMonths;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private LocalDate startDate;
+    // from the loan's amortization schedule
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private LocalDate nextEmiDate;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private BigDecimal nextEmiAmount;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private BigDecimal outstandingPrincipal;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer remainingInstallments;
 }
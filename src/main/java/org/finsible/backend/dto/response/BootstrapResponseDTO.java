@@ -0,0 +1,19 @@
+package org.finsible.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BootstrapResponseDTO {
+    private BootstrapSectionDTO<UserResponseDTO> user;
+    private BootstrapSectionDTO<List<AccountResponseDTO>> accounts;
+    private BootstrapSectionDTO<List<AccountGroupResponseDTO>> accountGroups;
+    private BootstrapSectionDTO<List<CategoryResponseDTO>> categories;
+    private BootstrapSectionDTO<List<CurrencyResponseDTO>> currencies;
+    private BootstrapSectionDTO<List<LanguageResponseDTO>> languages;
+}
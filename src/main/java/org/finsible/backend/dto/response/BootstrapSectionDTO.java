@@ -0,0 +1,15 @@
+package org.finsible.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// data is left out (null) when the client already holds the section at this etag
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BootstrapSectionDTO<T> {
+    private String etag;
+    private boolean notModified;
+    private T data;
+}
@@ -0,0 +1,25 @@
+package org.finsible.backend.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.finsible.backend.entity.Category;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategoryTreeNodeDTO {
+    private Long id;
+    private String name;
+    private String icon;
+    private Category.CategoryType type; // "INCOME" or "EXPENSE"
+    private Boolean isSystemDefault;
+
+    // sub-categories - omitted for leaf categories
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<CategoryTreeNodeDTO> subCategories = new ArrayList<>();
+}
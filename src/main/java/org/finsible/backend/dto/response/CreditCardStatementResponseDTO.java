@@ -0,0 +1,24 @@
+package org.finsible.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreditCardStatementResponseDTO {
+    private Long id;
+    private Long accountId;
+    private LocalDate statementDate;
+    private LocalDate periodStart;
+    private LocalDate dueDate;
+    private BigDecimal totalCharges;
+    private BigDecimal totalCredits;
+    private BigDecimal amountDue;
+    private long transactionCount;
+    private String currencyCode;
+}
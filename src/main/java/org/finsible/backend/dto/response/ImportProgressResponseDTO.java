@@ -0,0 +1,21 @@
+package org.finsible.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportProgressResponseDTO {
+    private String status; // RUNNING, COMPLETED or FAILED
+    private long rowsRead;
+    private long rowsImported;
+    private long rowsRejected;
+    private List<String> errors; // first rejected rows only
+    private Instant startedAt;
+    private Instant finishedAt;
+}
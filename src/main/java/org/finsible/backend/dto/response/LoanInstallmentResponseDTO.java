@@ -0,0 +1,21 @@
+package org.finsible.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanInstallmentResponseDTO {
+    private int number;
+    private LocalDate dueDate;
+    private BigDecimal emi;
+    private BigDecimal interest;
+    private BigDecimal principal;
+    private BigDecimal prepayment;
+    private BigDecimal outstanding; // principal left after this installment
+}
@@ -0,0 +1,21 @@
+package org.finsible.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanScheduleResponseDTO {
+    private Long accountId;
+    private BigDecimal principalAmount;
+    private BigDecimal totalInterest;
+    private BigDecimal totalPayment;
+    private LocalDate endDate;
+    private List<LoanInstallmentResponseDTO> installments;
+}
@@ -0,0 +1,17 @@
+package org.finsible.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// the loan with the requested prepayments next to the current plan
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanWhatIfResponseDTO {
+    private LoanScheduleResponseDTO schedule;
+    private BigDecimal interestSaved;
+    private int installmentsSaved;
+}
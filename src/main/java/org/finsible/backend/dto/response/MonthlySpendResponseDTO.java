@@ -0,0 +1,20 @@
+package org.finsible.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MonthlySpendResponseDTO {
+    private YearMonth month;
+    private Long categoryId; // null for uncategorized transactions
+    private String currencyCode;
+    private BigDecimal spent;
+    private BigDecimal received;
+    private long transactionCount;
+}
@@ -0,0 +1,19 @@
+package org.finsible.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// one suggested transfer: "from" pays "to" the amount
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SettlementResponseDTO {
+    private String fromEmail;
+    private String fromName;
+    private String toEmail;
+    private String toName;
+    private BigDecimal amount;
+}
@@ -0,0 +1,20 @@
+package org.finsible.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// full: the lists hold everything and the client replaces its copy, otherwise it applies them (and deleted) on top
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncResponseDTO {
+    private String watermark;
+    private boolean full;
+    private List<AccountResponseDTO> accounts;
+    private List<AccountGroupResponseDTO> accountGroups;
+    private List<CategoryResponseDTO> categories;
+    private List<SyncTombstoneDTO> deleted;
+}
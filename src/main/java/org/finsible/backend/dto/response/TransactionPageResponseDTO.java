@@ -0,0 +1,17 @@
+package org.finsible.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionPageResponseDTO {
+    private List<TransactionResponseDTO> transactions;
+    // pass back as ?cursor= to get the next page, null on the last page
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,26 @@
+package org.finsible.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.finsible.backend.entity.Transaction;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionResponseDTO {
+    private Long id;
+    private Transaction.TransactionType type;
+    private BigDecimal totalAmount;
+    private BigDecimal userShare;
+    private Boolean isSplit;
+    private Long categoryId;
+    private Long accountId;
+    private String description;
+    private Long spaceId;
+    private String currencyCode;
+    private Instant transactionDate;
+}
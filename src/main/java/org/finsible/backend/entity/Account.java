@@ -37,6 +37,8 @@ public class Account {
     private String description;
     private String icon;
 
+    // set on insert, afterwards only changed by BalancePostingService with atomic delta updates
+    @Column(updatable = false)
     private BigDecimal balance;
 
     @ManyToOne
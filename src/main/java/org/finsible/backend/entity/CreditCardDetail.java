@@ -30,10 +30,12 @@ public class CreditCardDetail {
     @JoinColumn(name = "account_id")
     private Account account;
 
-    @Column(name = "credit_limit", nullable = false)
+    // set on insert, afterwards changed only with SQL: a new limit through AccountService.updateCreditCardAccount,
+    // available credit by BalancePostingService, so saving a loaded card never overwrites a concurrent posting
+    @Column(name = "credit_limit", nullable = false, updatable = false)
     private BigDecimal creditLimit;
 
-    @Column(name = "available_credit", nullable = false)
+    @Column(name = "available_credit", nullable = false, updatable = false)
     private BigDecimal availableCredit;
 
     @Column(name = "billing_date", nullable = false)
@@ -0,0 +1,41 @@
+package org.finsible.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+// read-only mapping, statements are inserted in bulk by CreditCardStatementService
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "credit_card_statements")
+public class CreditCardStatement {
+    @Id
+    private Long id;
+
+    private Long accountId;
+
+    private LocalDate statementDate;
+
+    private LocalDate periodStart; // inclusive, the cycle ends the day before statementDate
+
+    private LocalDate dueDate;
+
+    private BigDecimal totalCharges;
+
+    private BigDecimal totalCredits;
+
+    private BigDecimal amountDue;
+
+    private Long transactionCount;
+
+    private String currencyCode;
+
+    private Instant createdAt;
+}
@@ -0,0 +1,49 @@
+package org.finsible.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// read-only mapping of the rollup table, rows are written with upserts by MonthlySpendRollupService
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "monthly_category_spend")
+@IdClass(MonthlyCategorySpend.Key.class)
+public class MonthlyCategorySpend {
+    public static final long UNCATEGORIZED = 0L;
+
+    @Id
+    private String userId;
+
+    @Id
+    private LocalDate month;
+
+    @Id
+    private Long categoryId;
+
+    @Id
+    private String currencyCode;
+
+    private BigDecimal spent;
+
+    private BigDecimal received;
+
+    private Long transactionCount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String userId;
+        private LocalDate month;
+        private Long categoryId;
+        private String currencyCode;
+    }
+}
@@ -0,0 +1,89 @@
+package org.finsible.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.annotation.CreatedBy;
+import org.springframework.data.annotation.LastModifiedBy;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Data
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table(name = "transactions")
+@EntityListeners(AuditingEntityListener.class)
+public class Transaction {
+    public enum TransactionType {
+        INCOME, EXPENSE, TRANSFER
+    }
+
+    // a pooled sequence instead of IDENTITY lets Hibernate batch inserts: 50 ids per round trip (see V4 migration)
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_id_seq")
+    @SequenceGenerator(name = "transactions_id_seq", sequenceName = "transactions_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TransactionType type;
+
+    private BigDecimal totalAmount;
+
+    private BigDecimal userShare;
+
+    @Builder.Default
+    private Boolean isSplit = false;
+
+    // relations are lazy: listing only needs their ids, which Hibernate reads from the foreign key columns
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "paid_by_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private User paidBy;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "category_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Category category;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "account_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Account account;
+
+    @Column(columnDefinition = "TEXT")
+    private String description;
+
+    private Long spaceId; // spaces are not mapped yet
+
+    @Column(name = "currency_code", nullable = false, length = 3)
+    private String currencyCode;
+
+    // the transaction date: set from the request, defaults to the time of creation. Listing is ordered by (createdAt, id)
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    @LastModifiedDate
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    @CreatedBy
+    private String createdBy;
+
+    @LastModifiedBy
+    private String updatedBy;
+
+    @PrePersist
+    void defaultCreatedAt() {
+        if (createdAt == null) {
+            createdAt = Instant.now();
+        }
+    }
+}
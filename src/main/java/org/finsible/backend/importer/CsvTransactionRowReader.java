@@ -0,0 +1,136 @@
+package org.finsible.backend.importer;
+
+import org.finsible.backend.entity.Transaction;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * CSV with a header row. Columns (any order, case-insensitive): date, amount (required), type, account_id, category_id,
+ * description, currency. Without a type a negative amount is an expense and a positive one an income.
+ * Dates are ISO instants or yyyy-MM-dd (midnight UTC). Quoted fields are supported, line breaks inside quotes are not.
+ */
+public class CsvTransactionRowReader implements TransactionRowReader {
+    private final BufferedReader reader;
+    private final Long defaultAccountId;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private long lineNumber = 1;
+
+    public CsvTransactionRowReader(BufferedReader reader, Long defaultAccountId) throws IOException {
+        this.reader = reader;
+        this.defaultAccountId = defaultAccountId;
+        String header = reader.readLine();
+        if (header == null) {
+            throw new InvalidImportRowException(1, "Empty file");
+        }
+        List<String> names = split(stripBom(header));
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("date") || !columns.containsKey("amount")) {
+            throw new InvalidImportRowException(1, "Header must contain 'date' and 'amount' columns");
+        }
+    }
+
+    @Override
+    public ImportedTransaction next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+        } while (line.isBlank());
+
+        List<String> fields = split(line);
+        try {
+            BigDecimal amount = new BigDecimal(required(fields, "amount"));
+            String typeValue = field(fields, "type");
+            Transaction.TransactionType type;
+            if (typeValue == null) {
+                type = amount.signum() < 0 ? Transaction.TransactionType.EXPENSE : Transaction.TransactionType.INCOME;
+            } else {
+                type = Transaction.TransactionType.valueOf(typeValue.toUpperCase(Locale.ROOT));
+            }
+            String accountId = field(fields, "account_id");
+            String categoryId = field(fields, "category_id");
+            return new ImportedTransaction(lineNumber, parseDate(required(fields, "date")), type, amount.abs(),
+                    accountId == null ? defaultAccountId : Long.valueOf(accountId),
+                    categoryId == null ? null : Long.valueOf(categoryId),
+                    field(fields, "description"), field(fields, "currency"));
+        } catch (NumberFormatException e) {
+            throw new InvalidImportRowException(lineNumber, "Invalid number: " + e.getMessage());
+        } catch (DateTimeParseException e) {
+            throw new InvalidImportRowException(lineNumber, "Invalid date: " + e.getParsedString());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidImportRowException(lineNumber, "Invalid type, expected INCOME, EXPENSE or TRANSFER");
+        }
+    }
+
+    private String required(List<String> fields, String column) {
+        String value = field(fields, column);
+        if (value == null) {
+            throw new InvalidImportRowException(lineNumber, "Missing " + column);
+        }
+        return value;
+    }
+
+    private String field(List<String> fields, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Instant parseDate(String value) {
+        if (value.length() == 10) {
+            return LocalDate.parse(value).atStartOfDay(ZoneOffset.UTC).toInstant();
+        }
+        return Instant.parse(value);
+    }
+
+    private static String stripBom(String header) {
+        return !header.isEmpty() && header.charAt(0) == '\uFEFF' ? header.substring(1) : header;
+    }
+
+    static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,82 @@
+package org.finsible.backend.importer;
+
+import org.apache.coyote.BadRequestException;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// progress of the running (or last finished) import of each user, polled while the upload request is still streaming
+@Component
+public class ImportProgressTracker {
+    public static final int MAX_REPORTED_ERRORS = 100;
+
+    public enum Status {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    public static final class ImportProgress {
+        private final Instant startedAt = Instant.now();
+        private final AtomicLong rowsRead = new AtomicLong();
+        private final AtomicLong rowsImported = new AtomicLong();
+        private final AtomicLong rowsRejected = new AtomicLong();
+        private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+        private volatile Status status = Status.RUNNING;
+        private volatile Instant finishedAt;
+
+        public void rowRead() {
+            rowsRead.incrementAndGet();
+        }
+
+        public void imported(int rows) {
+            rowsImported.addAndGet(rows);
+        }
+
+        public void rejected(long lineNumber, String reason) {
+            rowsRejected.incrementAndGet();
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("Row " + lineNumber + ": " + reason);
+            }
+        }
+
+        public Instant getStartedAt() { return startedAt; }
+        public Instant getFinishedAt() { return finishedAt; }
+        public Status getStatus() { return status; }
+        public long getRowsRead() { return rowsRead.get(); }
+        public long getRowsImported() { return rowsImported.get(); }
+        public long getRowsRejected() { return rowsRejected.get(); }
+
+        public List<String> getErrors() {
+            synchronized (errors) {
+                return List.copyOf(errors);
+            }
+        }
+    }
+
+    private final Map<String, ImportProgress> progressByUser = new ConcurrentHashMap<>();
+
+    // one import per user at a time
+    public ImportProgress start(String userId) throws BadRequestException {
+        ImportProgress started = new ImportProgress();
+        ImportProgress current = progressByUser.compute(userId,
+                (id, existing) -> existing != null && existing.status == Status.RUNNING ? existing : started);
+        if (current != started) {
+            throw new BadRequestException("An import is already running for this user");
+        }
+        return started;
+    }
+
+    public void finish(ImportProgress progress, boolean succeeded) {
+        progress.finishedAt = Instant.now();
+        progress.status = succeeded ? Status.COMPLETED : Status.FAILED;
+    }
+
+    public ImportProgress get(String userId) {
+        return progressByUser.get(userId);
+    }
+}
@@ -0,0 +1,11 @@
+package org.finsible.backend.importer;
+
+import org.finsible.backend.entity.Transaction;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+// one parsed row of an import file, ids are not validated yet
+public record ImportedTransaction(long lineNumber, Instant date, Transaction.TransactionType type, BigDecimal amount,
+                                  Long accountId, Long categoryId, String description, String currencyCode) {
+}
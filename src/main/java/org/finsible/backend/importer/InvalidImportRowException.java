@@ -0,0 +1,15 @@
+package org.finsible.backend.importer;
+
+// a row that cannot be parsed, the reader is positioned after it so the import can continue
+public class InvalidImportRowException extends RuntimeException {
+    private final long lineNumber;
+
+    public InvalidImportRowException(long lineNumber, String message) {
+        super(message);
+        this.lineNumber = lineNumber;
+    }
+
+    public long getLineNumber() {
+        return lineNumber;
+    }
+}
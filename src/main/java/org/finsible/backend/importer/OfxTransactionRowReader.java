@@ -0,0 +1,123 @@
+package org.finsible.backend.importer;
+
+import org.finsible.backend.entity.Transaction;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * OFX 1.x (SGML, closing tags optional) and 2.x (XML) bank statements. Every STMTTRN block becomes one transaction in the
+ * account chosen by the caller; the sign of TRNAMT decides income or expense and CURDEF the currency.
+ * The body is tokenized tag by tag, nothing but the current transaction is kept in memory.
+ */
+public class OfxTransactionRowReader implements TransactionRowReader {
+    private static final DateTimeFormatter OFX_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+    private static final DateTimeFormatter OFX_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final BufferedReader reader;
+    private final Long accountId;
+    private String currencyCode;
+    private long transactionNumber;
+
+    public OfxTransactionRowReader(BufferedReader reader, Long accountId) {
+        this.reader = reader;
+        this.accountId = accountId;
+    }
+
+    @Override
+    public ImportedTransaction next() throws IOException {
+        Map<String, String> fields = null;
+        String tag;
+        while ((tag = nextTag()) != null) {
+            if (tag.equals("STMTTRN")) {
+                fields = new HashMap<>();
+            } else if (tag.equals("/STMTTRN") && fields != null) {
+                return toTransaction(fields);
+            } else if (!tag.startsWith("/")) {
+                String value = nextValue();
+                if (tag.equals("CURDEF")) {
+                    currencyCode = value;
+                } else if (fields != null && !value.isEmpty()) {
+                    fields.put(tag, value);
+                }
+            }
+        }
+        return null;
+    }
+
+    private ImportedTransaction toTransaction(Map<String, String> fields) {
+        long number = ++transactionNumber;
+        try {
+            BigDecimal amount = new BigDecimal(require(fields, "TRNAMT", number));
+            Transaction.TransactionType type = amount.signum() < 0 ? Transaction.TransactionType.EXPENSE : Transaction.TransactionType.INCOME;
+            String description = fields.getOrDefault("NAME", fields.get("MEMO"));
+            return new ImportedTransaction(number, parseDate(require(fields, "DTPOSTED", number)), type, amount.abs(), accountId, null,
+                    description, currencyCode);
+        } catch (NumberFormatException e) {
+            throw new InvalidImportRowException(number, "Invalid TRNAMT: " + fields.get("TRNAMT"));
+        } catch (DateTimeParseException e) {
+            throw new InvalidImportRowException(number, "Invalid DTPOSTED: " + fields.get("DTPOSTED"));
+        }
+    }
+
+    private static String require(Map<String, String> fields, String tag, long number) {
+        String value = fields.get(tag);
+        if (value == null) {
+            throw new InvalidImportRowException(number, "Missing " + tag);
+        }
+        return value;
+    }
+
+    // OFX dates look like 20240131, 20240131120000 or 20240131120000.000[-5:EST]; the offset is ignored and UTC assumed
+    private static Instant parseDate(String value) {
+        String digits = value.length() > 14 ? value.substring(0, 14) : value;
+        if (digits.length() == 8) {
+            return LocalDate.parse(digits, OFX_DATE).atStartOfDay(ZoneOffset.UTC).toInstant();
+        }
+        return LocalDateTime.parse(digits, OFX_DATE_TIME).toInstant(ZoneOffset.UTC);
+    }
+
+    // skips to the next '<' and returns the tag name, upper-cased
+    private String nextTag() throws IOException {
+        int c;
+        while ((c = reader.read()) != -1 && c != '<') {
+            // text outside a value, e.g. the OFX header or whitespace
+        }
+        if (c == -1) {
+            return null;
+        }
+        StringBuilder tag = new StringBuilder();
+        while ((c = reader.read()) != -1 && c != '>') {
+            tag.append((char) c);
+        }
+        return tag.toString().trim().toUpperCase(Locale.ROOT);
+    }
+
+    // text up to the next '<', which is left unread for nextTag
+    private String nextValue() throws IOException {
+        StringBuilder value = new StringBuilder();
+        while (true) {
+            reader.mark(1);
+            int c = reader.read();
+            if (c == -1) {
+                break;
+            }
+            if (c == '<') {
+                reader.reset();
+                break;
+            }
+            value.append((char) c);
+        }
+        return value.toString().trim();
+    }
+}
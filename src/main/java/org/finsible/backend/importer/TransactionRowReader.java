@@ -0,0 +1,23 @@
+package org.finsible.backend.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * Reads an import file one transaction at a time, so the body is never held in memory.
+ * next() returns null at the end of input and throws InvalidImportRowException for a row it cannot parse.
+ */
+public interface TransactionRowReader {
+    ImportedTransaction next() throws IOException;
+
+    static TransactionRowReader forFormat(ImportFormat format, BufferedReader reader, Long defaultAccountId) throws IOException {
+        return switch (format) {
+            case CSV -> new CsvTransactionRowReader(reader, defaultAccountId);
+            case OFX -> new OfxTransactionRowReader(reader, defaultAccountId);
+        };
+    }
+
+    enum ImportFormat {
+        CSV, OFX
+    }
+}
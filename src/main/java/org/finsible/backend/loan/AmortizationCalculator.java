@@ -0,0 +1,95 @@
+package org.finsible.backend.loan;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Reducing-balance amortization: each EMI first pays the month's interest on the outstanding principal, the rest repays
+ * principal. Amounts are rounded to cents per installment and the last installment absorbs the rounding remainder.
+ */
+public final class AmortizationCalculator {
+    public enum PrepaymentMode {
+        REDUCE_TENURE, // keep the EMI, finish earlier
+        REDUCE_EMI     // keep the end date, pay less per month
+    }
+
+    private static final int SCALE = 2;
+    private static final MathContext MATH = MathContext.DECIMAL64;
+    private static final BigDecimal MONTHS_TIMES_PERCENT = BigDecimal.valueOf(1200);
+    // an EMI that barely covers the interest would otherwise run (almost) forever
+    private static final int MAX_INSTALLMENTS = 1200;
+
+    private AmortizationCalculator() {
+    }
+
+    public static BigDecimal monthlyRate(LoanTerms terms) {
+        return terms.annualRatePercent().divide(MONTHS_TIMES_PERCENT, MATH);
+    }
+
+    // annuity EMI = P * r * (1 + r)^n / ((1 + r)^n - 1), P / n without interest
+    public static BigDecimal standardEmi(BigDecimal principal, BigDecimal monthlyRate, int months) {
+        if (monthlyRate.signum() == 0) {
+            return principal.divide(BigDecimal.valueOf(months), SCALE, RoundingMode.CEILING);
+        }
+        BigDecimal growth = BigDecimal.ONE.add(monthlyRate).pow(months, MATH);
+        return principal.multiply(monthlyRate, MATH).multiply(growth, MATH)
+                .divide(growth.subtract(BigDecimal.ONE), SCALE, RoundingMode.CEILING);
+    }
+
+    public static AmortizationSchedule schedule(LoanTerms terms) {
+        return schedule(terms, List.of(), PrepaymentMode.REDUCE_TENURE);
+    }
+
+    public static AmortizationSchedule schedule(LoanTerms terms, List<Prepayment> prepayments, PrepaymentMode mode) {
+        BigDecimal rate = monthlyRate(terms);
+        BigDecimal emi = terms.emiAmount() != null ? terms.emiAmount() : standardEmi(terms.principal(), rate, terms.tenureMonths());
+        if (emi.compareTo(terms.principal().multiply(rate).setScale(SCALE, RoundingMode.HALF_UP)) <= 0) {
+            throw new IllegalArgumentException("EMI " + emi + " does not cover the first month's interest");
+        }
+        List<Prepayment> pending = prepayments.stream()
+                .filter(prepayment -> prepayment.amount() != null && prepayment.amount().signum() > 0)
+                .sorted(Comparator.comparing(Prepayment::date))
+                .toList();
+        int nextPrepayment = 0;
+
+        YearMonth firstMonth = YearMonth.from(terms.startDate()).plusMonths(1);
+        int emiDay = terms.emiDay() != null ? terms.emiDay() : terms.startDate().getDayOfMonth();
+        List<AmortizationSchedule.Installment> installments = new ArrayList<>(terms.tenureMonths());
+        BigDecimal outstanding = terms.principal();
+        for (int number = 1; outstanding.signum() > 0 && number <= MAX_INSTALLMENTS; number++) {
+            YearMonth month = firstMonth.plusMonths(number - 1L);
+            LocalDate dueDate = month.atDay(Math.min(emiDay, month.lengthOfMonth()));
+
+            // prepayments made since the previous EMI reduce the principal this EMI charges interest on
+            BigDecimal prepaid = BigDecimal.ZERO;
+            while (nextPrepayment < pending.size() && pending.get(nextPrepayment).date().isBefore(dueDate)) {
+                prepaid = prepaid.add(pending.get(nextPrepayment++).amount());
+            }
+            if (prepaid.signum() > 0) {
+                prepaid = prepaid.min(outstanding);
+                outstanding = outstanding.subtract(prepaid);
+                if (mode == PrepaymentMode.REDUCE_EMI && outstanding.signum() > 0) {
+                    emi = standardEmi(outstanding, rate, Math.max(terms.tenureMonths() - number + 1, 1));
+                }
+            }
+
+            BigDecimal interest = outstanding.multiply(rate).setScale(SCALE, RoundingMode.HALF_UP);
+            BigDecimal principalPart = emi.subtract(interest);
+            BigDecimal payment = emi;
+            if (principalPart.compareTo(outstanding) >= 0 || number == terms.tenureMonths() && terms.emiAmount() == null) {
+                // last installment: clear what is left, including rounding remainders
+                principalPart = outstanding;
+                payment = interest.add(outstanding);
+            }
+            outstanding = outstanding.subtract(principalPart);
+            installments.add(new AmortizationSchedule.Installment(number, dueDate, payment, interest, principalPart, prepaid, outstanding));
+        }
+        return new AmortizationSchedule(terms.principal(), installments);
+    }
+}
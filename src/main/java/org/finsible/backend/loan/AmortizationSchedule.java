@@ -0,0 +1,76 @@
+package org.finsible.backend.loan;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable installment plan of a loan. Installments are in due date order, their due dates are also kept as epoch days
+ * so "where is the loan today" is a binary search instead of a walk over hundreds of rows.
+ */
+public final class AmortizationSchedule {
+    public record Installment(int number, LocalDate dueDate, BigDecimal emi, BigDecimal interest, BigDecimal principal,
+                              BigDecimal prepayment, BigDecimal outstanding) {
+    }
+
+    private final BigDecimal principal;
+    private final List<Installment> installments;
+    private final long[] dueEpochDays;
+    private final BigDecimal totalInterest;
+    private final BigDecimal totalPayment;
+
+    AmortizationSchedule(BigDecimal principal, List<Installment> installments) {
+        this.principal = principal;
+        this.installments = List.copyOf(installments);
+        this.dueEpochDays = new long[installments.size()];
+        BigDecimal interest = BigDecimal.ZERO;
+        BigDecimal payment = BigDecimal.ZERO;
+        for (int i = 0; i < installments.size(); i++) {
+            Installment installment = installments.get(i);
+            dueEpochDays[i] = installment.dueDate().toEpochDay();
+            interest = interest.add(installment.interest());
+            payment = payment.add(installment.emi()).add(installment.prepayment());
+        }
+        this.totalInterest = interest;
+        this.totalPayment = payment;
+    }
+
+    public List<Installment> installments() {
+        return installments;
+    }
+
+    public BigDecimal totalInterest() {
+        return totalInterest;
+    }
+
+    public BigDecimal totalPayment() {
+        return totalPayment;
+    }
+
+    // index of the first installment due on or after the date, installments().size() when the loan is paid off by then
+    public int nextInstallmentIndex(LocalDate date) {
+        int index = Arrays.binarySearch(dueEpochDays, date.toEpochDay());
+        if (index < 0) {
+            return -index - 1;
+        }
+        // equal due dates cannot happen (one EMI per month), so the match is the installment due that day
+        return index;
+    }
+
+    // null when every installment is due before the date
+    public Installment nextInstallment(LocalDate date) {
+        int index = nextInstallmentIndex(date);
+        return index < installments.size() ? installments.get(index) : null;
+    }
+
+    // principal still owed on the date, after every installment due before it
+    public BigDecimal outstandingOn(LocalDate date) {
+        int index = nextInstallmentIndex(date);
+        return index == 0 ? principal : installments.get(index - 1).outstanding();
+    }
+
+    public int remainingInstallments(LocalDate date) {
+        return installments.size() - nextInstallmentIndex(date);
+    }
+}
@@ -0,0 +1,48 @@
+package org.finsible.backend.loan;
+
+import org.finsible.backend.entity.LoanDetail;
+import org.finsible.backend.repository.projection.AccountListingProjection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * The parameters a loan's schedule depends on. Two loans with equal terms have the same schedule, so the terms are the
+ * schedule cache key: editing any parameter makes a new key and the old schedule is never served again.
+ * Amounts are normalized (trailing zeros stripped) so 10.50 and 10.5000 from different sources are the same key.
+ *
+ * @param emiAmount the lender's EMI, null to use the standard annuity EMI
+ * @param emiDay    day of month the EMI is due, null for the day of the start date
+ */
+public record LoanTerms(BigDecimal principal, BigDecimal annualRatePercent, BigDecimal emiAmount, Integer emiDay,
+                        int tenureMonths, LocalDate startDate) {
+
+    public LoanTerms {
+        principal = normalize(principal);
+        annualRatePercent = annualRatePercent == null ? BigDecimal.ZERO : normalize(annualRatePercent);
+        emiAmount = emiAmount == null ? null : normalize(emiAmount);
+    }
+
+    // null when the loan misses what a schedule needs (principal, tenure and start date)
+    public static LoanTerms of(LoanDetail loanDetail) {
+        return of(loanDetail.getPrincipalAmount(), loanDetail.getInterestRate(), loanDetail.getEmiAmount(), loanDetail.getEmiDate(),
+                loanDetail.getTenureMonths(), loanDetail.getStartDate());
+    }
+
+    public static LoanTerms of(AccountListingProjection account) {
+        return of(account.getPrincipalAmount(), account.getInterestRate(), account.getEmiAmount(), account.getEmiDate(),
+                account.getTenureMonths(), account.getStartDate());
+    }
+
+    private static LoanTerms of(BigDecimal principal, BigDecimal interestRate, BigDecimal emiAmount, Integer emiDay,
+                                Integer tenureMonths, LocalDate startDate) {
+        if (principal == null || principal.signum() <= 0 || tenureMonths == null || tenureMonths <= 0 || startDate == null) {
+            return null;
+        }
+        return new LoanTerms(principal, interestRate, emiAmount, emiDay, tenureMonths, startDate);
+    }
+
+    private static BigDecimal normalize(BigDecimal amount) {
+        return amount.signum() == 0 ? BigDecimal.ZERO : amount.stripTrailingZeros();
+    }
+}
@@ -0,0 +1,8 @@
+package org.finsible.backend.loan;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// an extra principal payment, applied right after the last EMI due on or before its date
+public record Prepayment(LocalDate date, BigDecimal amount) {
+}
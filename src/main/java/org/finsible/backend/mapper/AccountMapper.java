@@ -7,6 +7,8 @@ import org.finsible.backend.dto.response.AccountResponseDTO;
 import org.finsible.backend.entity.Account;
 import org.finsible.backend.entity.CreditCardDetail;
 import org.finsible.backend.entity.DebitCardDetail;
+import org.finsible.backend.entity.LoanDetail;
+import org.finsible.backend.repository.projection.AccountListingProjection;
 import org.mapstruct.*;
 
 @Mapper(componentModel = "spring")
@@ -23,12 +25,16 @@ public interface AccountMapper {
     @Mapping(source = "account.currency.code", target = "currencyCode")
     AccountResponseDTO toAccountResponseDTO(Account account);
 
+    AccountResponseDTO toAccountResponseDTO(AccountListingProjection accountListingProjection);
+
     @Mapping(source = "autoPayFromAccount.id", target = "autoPayFromAccountId")
     void creditCardAccountResponse(CreditCardDetail creditCardDetail, @MappingTarget AccountResponseDTO accountResponseDTO);
 
     @Mapping(source = "linkedBankAccount.id", target = "linkedBankAccountId")
     void debitCardAccountResponse(DebitCardDetail debitCardDetail, @MappingTarget AccountResponseDTO accountResponseDTO);
 
+    void loanAccountResponse(LoanDetail loanDetail, @MappingTarget AccountResponseDTO accountResponseDTO);
+
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     void updateAccountFromDto(AccountRequestDTO dto, @MappingTarget Account account);
 
@@ -41,6 +47,9 @@ public interface AccountMapper {
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     void updateAccountFromDto(CreditCardAccountRequestDTO dto, @MappingTarget Account account);
 
+    // limit and available credit are not copied: a limit change is applied as a delta, see AccountService.updateCreditCardAccount
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "creditLimit", ignore = true)
+    @Mapping(target = "availableCredit", ignore = true)
     void updateCreditCardDetailFromDto(CreditCardAccountRequestDTO dto, @MappingTarget CreditCardDetail creditCardDetail);
 }
@@ -0,0 +1,10 @@
+package org.finsible.backend.mapper;
+
+import org.finsible.backend.dto.response.CreditCardStatementResponseDTO;
+import org.finsible.backend.entity.CreditCardStatement;
+import org.mapstruct.Mapper;
+
+@Mapper(componentModel = "spring")
+public interface CreditCardStatementMapper {
+    CreditCardStatementResponseDTO toCreditCardStatementResponseDTO(CreditCardStatement statement);
+}
@@ -0,0 +1,26 @@
+package org.finsible.backend.mapper;
+
+import org.finsible.backend.dto.request.TransactionRequestDTO;
+import org.finsible.backend.dto.response.TransactionResponseDTO;
+import org.finsible.backend.entity.Transaction;
+import org.mapstruct.*;
+
+@Mapper(componentModel = "spring")
+public interface TransactionMapper {
+    @Mapping(target = "category", ignore = true)
+    @Mapping(target = "account", ignore = true)
+    @Mapping(source = "transactionDate", target = "createdAt")
+    Transaction toTransaction(TransactionRequestDTO transactionRequestDTO);
+
+    @Mapping(source = "category.id", target = "categoryId")
+    @Mapping(source = "account.id", target = "accountId")
+    @Mapping(source = "createdAt", target = "transactionDate")
+    TransactionResponseDTO toTransactionResponseDTO(Transaction transaction);
+
+    // relations and the transaction date are handled by the service
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "category", ignore = true)
+    @Mapping(target = "account", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    void updateTransactionFromDto(TransactionRequestDTO transactionRequestDTO, @MappingTarget Transaction transaction);
+}
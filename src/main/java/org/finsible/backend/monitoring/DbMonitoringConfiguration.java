@@ -0,0 +1,42 @@
+package org.finsible.backend.monitoring;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Wraps the application DataSource in a datasource-proxy that feeds RequestQueryStats and the slow query log.
+ * app.db-monitoring.enabled=false leaves the pool unwrapped.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.db-monitoring.enabled", havingValue = "true", matchIfMissing = true)
+public class DbMonitoringConfiguration {
+    // static, bean post processors are created before everything else and must not pull this configuration in early
+    @Bean
+    public static BeanPostProcessor dataSourceProxyPostProcessor(Environment environment) {
+        Binder binder = Binder.get(environment);
+        long slowQueryMillis = binder.bind("app.db-monitoring.slow-query-threshold", Duration.class).orElse(Duration.ofMillis(500)).toMillis();
+        double explainSampleRate = binder.bind("app.db-monitoring.explain-sample-rate", Double.class).orElse(0.1);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean.getClass().getName().startsWith("net.ttddyy.dsproxy")) {
+                    return bean;
+                }
+                // the explain runs on the raw pool so it is neither counted nor logged itself
+                SlowQueryLog slowQueryLog = new SlowQueryLog(dataSource, slowQueryMillis, explainSampleRate);
+                return ProxyDataSourceBuilder.create(dataSource)
+                        .name(beanName)
+                        .listener(new QueryStatsListener(slowQueryLog))
+                        .build();
+            }
+        };
+    }
+}
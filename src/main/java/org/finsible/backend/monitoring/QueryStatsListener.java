@@ -0,0 +1,36 @@
+package org.finsible.backend.monitoring;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+
+// called by the datasource proxy after every statement (or batch) sent to the database
+public class QueryStatsListener implements QueryExecutionListener {
+    private final SlowQueryLog slowQueryLog;
+
+    public QueryStatsListener(SlowQueryLog slowQueryLog) {
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        RequestQueryStats stats = RequestQueryStats.current();
+        if (stats != null) {
+            // a batch is one round trip, its time is charged to its first statement
+            long elapsedMillis = execInfo.getElapsedTime();
+            for (QueryInfo query : queryInfoList) {
+                stats.record(query.getQuery(), elapsedMillis);
+                elapsedMillis = 0;
+            }
+        }
+        if (slowQueryLog.isSlow(execInfo.getElapsedTime())) {
+            slowQueryLog.record(execInfo, queryInfoList);
+        }
+    }
+}
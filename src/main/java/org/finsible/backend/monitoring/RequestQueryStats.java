@@ -0,0 +1,75 @@
+package org.finsible.backend.monitoring;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Database work done by the current HTTP request: statements sent, time spent in them, and how often each distinct SQL
+ * text ran (the same text many times in one request is the N+1 signature). Written by the request thread and by the
+ * worker threads it fans out to (see attach), so updates are synchronized.
+ * The stats stay readable after the request ends so the access log line written afterwards can include them; they are
+ * replaced when the thread starts its next request.
+ */
+public final class RequestQueryStats {
+    private static final ThreadLocal<RequestQueryStats> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, Integer> executionsBySql = new HashMap<>();
+    private int statements;
+    private long elapsedMillis;
+    private boolean open = true;
+
+    private RequestQueryStats() {
+    }
+
+    public static RequestQueryStats begin() {
+        RequestQueryStats stats = new RequestQueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    // null outside HTTP requests (scheduled jobs, startup)
+    public static RequestQueryStats current() {
+        return CURRENT.get();
+    }
+
+    // lets a worker thread running part of the request count its statements into the request's stats
+    public static void attach(RequestQueryStats stats) {
+        CURRENT.set(stats);
+    }
+
+    public static void detach() {
+        CURRENT.remove();
+    }
+
+    synchronized void record(String sql, long elapsedMillis) {
+        if (!open) {
+            return;
+        }
+        statements++;
+        this.elapsedMillis += elapsedMillis;
+        executionsBySql.merge(sql, 1, Integer::sum);
+    }
+
+    public synchronized void end() {
+        open = false;
+    }
+
+    public synchronized int statements() {
+        return statements;
+    }
+
+    public synchronized long elapsedMillis() {
+        return elapsedMillis;
+    }
+
+    // SQL texts that ran at least `threshold` times, most repeated first
+    public synchronized Map<String, Integer> repeatedStatements(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        executionsBySql.entrySet().stream()
+                .filter(entry -> entry.getValue() >= threshold)
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .forEach(entry -> repeated.put(entry.getKey(), entry.getValue()));
+        return repeated;
+    }
+}
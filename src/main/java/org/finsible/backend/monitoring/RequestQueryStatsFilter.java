@@ -0,0 +1,64 @@
+package org.finsible.backend.monitoring;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Collects RequestQueryStats for every request and flags statements repeated often enough to look like N+1 loading.
+ * With app.db-monitoring.response-headers (dev) the counts are also sent back as X-Db-* headers; the response is buffered
+ * for that, since headers can only be added before the body is committed.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "app.db-monitoring.enabled", havingValue = "true", matchIfMissing = true)
+public class RequestQueryStatsFilter extends OncePerRequestFilter {
+    public static final String QUERY_COUNT_HEADER = "X-Db-Query-Count";
+    public static final String QUERY_TIME_HEADER = "X-Db-Time-Ms";
+    public static final String REPEATED_STATEMENTS_HEADER = "X-Db-Repeated-Statements";
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestQueryStatsFilter.class);
+    private final int repeatedStatementThreshold;
+    private final boolean responseHeaders;
+
+    public RequestQueryStatsFilter(@Value("${app.db-monitoring.repeated-statement-threshold:5}") int repeatedStatementThreshold,
+                                   @Value("${app.db-monitoring.response-headers:false}") boolean responseHeaders) {
+        this.repeatedStatementThreshold = repeatedStatementThreshold;
+        this.responseHeaders = responseHeaders;
+    }
+
+    @Override
+    protected void doFilterInternal(@NotNull HttpServletRequest request, @NotNull HttpServletResponse response, @NotNull FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestQueryStats stats = RequestQueryStats.begin();
+        ContentCachingResponseWrapper bufferedResponse = responseHeaders ? new ContentCachingResponseWrapper(response) : null;
+        try {
+            filterChain.doFilter(request, bufferedResponse != null ? bufferedResponse : response);
+        } finally {
+            stats.end();
+            Map<String, Integer> repeated = stats.repeatedStatements(repeatedStatementThreshold);
+            repeated.forEach((sql, executions) -> logger.warn("Likely N+1: statement ran {} times in {} {}: {}", executions,
+                    request.getMethod(), request.getRequestURI(), sql));
+            if (bufferedResponse != null) {
+                bufferedResponse.setHeader(QUERY_COUNT_HEADER, String.valueOf(stats.statements()));
+                bufferedResponse.setHeader(QUERY_TIME_HEADER, String.valueOf(stats.elapsedMillis()));
+                bufferedResponse.setHeader(REPEATED_STATEMENTS_HEADER, String.valueOf(repeated.size()));
+                bufferedResponse.copyBodyToResponse();
+            }
+        }
+    }
+}
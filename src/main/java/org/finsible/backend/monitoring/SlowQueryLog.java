@@ -0,0 +1,108 @@
+package org.finsible.backend.monitoring;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs statements slower than the threshold with their bound parameters. A sample of slow SELECTs is also explained:
+ * EXPLAIN (plan only, nothing is executed) runs on a background thread against the unproxied data source with the same
+ * parameters replayed, so the request is not slowed down further and the explain is not counted as request work.
+ */
+public class SlowQueryLog implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(SlowQueryLog.class);
+    private static final int MAX_LOGGED_PARAMETER_SETS = 5;
+
+    private final DataSource dataSource;
+    private final long thresholdMillis;
+    private final double explainSampleRate;
+    // one explain at a time, the rest of a burst of slow queries is not explained
+    private final ThreadPoolExecutor explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(16), runnable -> {
+                Thread thread = new Thread(runnable, "slow-query-explain");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.DiscardPolicy());
+
+    public SlowQueryLog(DataSource dataSource, long thresholdMillis, double explainSampleRate) {
+        this.dataSource = dataSource;
+        this.thresholdMillis = thresholdMillis;
+        this.explainSampleRate = explainSampleRate;
+    }
+
+    public boolean isSlow(long elapsedMillis) {
+        return elapsedMillis >= thresholdMillis;
+    }
+
+    public void record(ExecutionInfo execInfo, List<QueryInfo> queries) {
+        for (QueryInfo query : queries) {
+            logger.warn("Slow query: {} ms{} {} parameters={}", execInfo.getElapsedTime(),
+                    execInfo.isBatch() ? " (batch of " + execInfo.getBatchSize() + ")" : "", query.getQuery(), describeParameters(query));
+            if (!execInfo.isBatch() && isSelect(query.getQuery()) && ThreadLocalRandom.current().nextDouble() < explainSampleRate) {
+                List<ParameterSetOperation> parameters = query.getParametersList().isEmpty() ? List.of() : List.copyOf(query.getParametersList().getFirst());
+                explainExecutor.execute(() -> explain(query.getQuery(), parameters));
+            }
+        }
+    }
+
+    private void explain(String sql, List<ParameterSetOperation> parameters) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setReadOnly(true);
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                for (ParameterSetOperation parameter : parameters) {
+                    parameter.getMethod().invoke(statement, parameter.getArgs());
+                }
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        plan.append('\n').append(rows.getString(1));
+                    }
+                }
+                logger.warn("Plan of slow query {}:{}", sql, plan);
+            }
+        } catch (Exception e) {
+            logger.debug("Could not explain slow query {}: {}", sql, e.getMessage());
+        }
+    }
+
+    private static boolean isSelect(String sql) {
+        String start = sql.stripLeading();
+        return start.regionMatches(true, 0, "select", 0, 6) || start.regionMatches(true, 0, "with", 0, 4);
+    }
+
+    // values in parameter index order, per parameter set (batches log only the first few sets)
+    private static List<List<Object>> describeParameters(QueryInfo query) {
+        List<List<Object>> sets = new ArrayList<>();
+        for (List<ParameterSetOperation> operations : query.getParametersList()) {
+            if (sets.size() == MAX_LOGGED_PARAMETER_SETS) {
+                break;
+            }
+            SortedMap<Integer, Object> values = new TreeMap<>();
+            for (ParameterSetOperation operation : operations) {
+                Object[] args = operation.getArgs();
+                if (args.length > 0 && args[0] instanceof Integer index) {
+                    values.put(index, operation.getMethod().getName().equals("setNull") ? null : args.length > 1 ? args[1] : null);
+                }
+            }
+            sets.add(new ArrayList<>(values.values()));
+        }
+        return sets;
+    }
+
+    @Override
+    public void close() {
+        explainExecutor.shutdownNow();
+    }
+}
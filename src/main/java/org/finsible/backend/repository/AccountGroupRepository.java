@@ -3,6 +3,8 @@ package org.finsible.backend.repository;
 import org.finsible.backend.entity.AccountGroup;
 import org.finsible.backend.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
@@ -17,4 +19,9 @@ public interface AccountGroupRepository extends JpaRepository<AccountGroup, Long
     List<AccountGroup> findByIsSystemDefaultTrue();
 
     AccountGroup findAccountGroupByIdAndCreatedBy(Long id, User createdBy);
+
+    // delta sync: system default and user groups written at or after the watermark
+    @Query(value = "SELECT * FROM account_groups WHERE (user_id = :userId OR user_id IS NULL) AND change_seq >= :since ORDER BY display_order, id",
+            nativeQuery = true)
+    List<AccountGroup> findVisibleChangedSince(@Param("userId") String userId, @Param("since") long since);
 }
@@ -2,11 +2,57 @@ package org.finsible.backend.repository;
 
 import org.finsible.backend.entity.Account;
 import org.finsible.backend.entity.User;
+import org.finsible.backend.repository.projection.AccountListingProjection;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.List;
 
 public interface AccountRepository extends JpaRepository<Account, Long> {
+    String ACCOUNT_LISTING_SELECT = """
+            SELECT a.id AS "id", a.name AS "name", a.description AS "description", a.icon AS "icon",
+                   CASE WHEN dc.account_id IS NOT NULL THEN lb.balance ELSE a.balance END AS "balance",
+                   a.account_group_id AS "accountGroupId", a.currency_code AS "currencyCode",
+                   a.is_active AS "isActive", a.is_system_default AS "isSystemDefault",
+                   cc.credit_limit AS "creditLimit", cc.available_credit AS "availableCredit",
+                   cc.billing_date AS "billingDate", cc.due_date AS "dueDate",
+                   cc.auto_pay_enabled AS "autoPayEnabled", cc.auto_pay_from_account_id AS "autoPayFromAccountId",
+                   dc.linked_bank_account_id AS "linkedBankAccountId",
+                   ld.loan_type AS "loanType", ld.principal_amount AS "principalAmount", ld.interest_rate AS "interestRate",
+                   ld.emi_amount AS "emiAmount", ld.emi_date AS "emiDate", ld.tenure_months AS "tenureMonths",
+                   ld.start_date AS "startDate"
+            FROM accounts a
+            LEFT JOIN credit_card_details cc ON cc.account_id = a.id
+            LEFT JOIN debit_card_details dc ON dc.account_id = a.id
+            LEFT JOIN accounts lb ON lb.id = dc.linked_bank_account_id
+            LEFT JOIN loan_details ld ON ld.account_id = a.id
+            """;
+
     List<Account> findAccountsByUser_Id(String userId);
 
     Account findByIdAndUser(Long id, User user);
+
+    boolean existsByIdAndUser_Id(Long id, String userId);
+
+    // takes the row lock balance postings take first, so a change made under it is ordered with them without deadlocking
+    @Query(value = "SELECT id FROM accounts WHERE id = :accountId FOR UPDATE", nativeQuery = true)
+    Long lockForBalanceChange(@Param("accountId") Long accountId);
+
+    @Query("SELECT a.id FROM Account a WHERE a.user.id = :userId")
+    List<Long> findIdsByUserId(@Param("userId") String userId);
+
+    // all accounts of a user with their detail tables in a single round trip
+    @Query(value = ACCOUNT_LISTING_SELECT + "WHERE a.user_id = :userId ORDER BY a.id", nativeQuery = true)
+    List<AccountListingProjection> findAccountListingByUserId(@Param("userId") String userId);
+
+    // accounts whose row, detail row or linked bank account (debit card balance) changed at or after the watermark,
+    // plus every loan when asked: their next-EMI fields move with the date alone
+    @Query(value = ACCOUNT_LISTING_SELECT + """
+            WHERE a.user_id = :userId
+              AND (a.change_seq >= :since OR cc.change_seq >= :since OR dc.change_seq >= :since OR lb.change_seq >= :since
+                   OR ld.change_seq >= :since OR (:includeLoans AND ld.account_id IS NOT NULL))
+            ORDER BY a.id
+            """, nativeQuery = true)
+    List<AccountListingProjection> findAccountListingChangedSince(@Param("userId") String userId, @Param("since") long since,
+                                                                  @Param("includeLoans") boolean includeLoans);
 }
@@ -2,7 +2,10 @@ package org.finsible.backend.repository;
 
 import org.finsible.backend.entity.Category;
 import org.finsible.backend.entity.User;
+import org.finsible.backend.repository.projection.CategoryTreeProjection;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,5 +14,24 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
 
     List<Category> findCategoriesByTypeAndCreatedBy(Category.CategoryType type, User createdBy);
 
+    List<Category> findCategoriesByTypeAndCreatedBy_Id(Category.CategoryType type, String createdById);
+
     Optional<Category> findByIdAndCreatedBy_Id(Long id, String createdById);
+
+    // default categories can be used by everyone, user categories only by their owner
+    @Query("SELECT COUNT(c) > 0 FROM Category c WHERE c.id = :id AND (c.createdBy IS NULL OR c.createdBy.id = :userId)")
+    boolean isUsableBy(@Param("id") Long id, @Param("userId") String userId);
+
+    @Query("SELECT c.id FROM Category c WHERE c.createdBy IS NULL OR c.createdBy.id = :userId")
+    List<Long> findIdsUsableBy(@Param("userId") String userId);
+
+    // delta sync: default and user categories written at or after the watermark
+    @Query(value = "SELECT * FROM categories WHERE (user_id = :userId OR user_id IS NULL) AND change_seq >= :since ORDER BY id", nativeQuery = true)
+    List<Category> findUsableChangedSince(@Param("userId") String userId, @Param("since") long since);
+
+    // default and user categories in one query, in id order (siblings keep it in the tree)
+    @Query("SELECT c.id AS id, c.name AS name, c.icon AS icon, c.type AS type, c.parentCategory.id AS parentCategoryId, c.createdBy.id AS ownerId " +
+            "FROM Category c WHERE c.createdBy IS NULL OR c.createdBy.id = :userId " +
+            "ORDER BY c.id")
+    List<CategoryTreeProjection> findCategoryTreeRows(@Param("userId") String userId);
 }
@@ -2,6 +2,15 @@ package org.finsible.backend.repository;
 
 import org.finsible.backend.entity.CreditCardDetail;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
 
 public interface CreditCardDetailRepository extends JpaRepository<CreditCardDetail, Long> {
+    @Modifying
+    @Query(value = "UPDATE credit_card_details SET credit_limit = :creditLimit, updated_at = now() WHERE account_id = :accountId",
+            nativeQuery = true)
+    int updateCreditLimit(@Param("accountId") Long accountId, @Param("creditLimit") BigDecimal creditLimit);
 }
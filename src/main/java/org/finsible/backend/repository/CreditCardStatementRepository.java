@@ -0,0 +1,10 @@
+package org.finsible.backend.repository;
+
+import org.finsible.backend.entity.CreditCardStatement;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface CreditCardStatementRepository extends JpaRepository<CreditCardStatement, Long> {
+    List<CreditCardStatement> findTop24ByAccountIdOrderByStatementDateDesc(Long accountId);
+}
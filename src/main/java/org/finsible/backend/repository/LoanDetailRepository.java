@@ -3,5 +3,8 @@ package org.finsible.backend.repository;
 import org.finsible.backend.entity.LoanDetail;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Optional;
+
 public interface LoanDetailRepository extends JpaRepository<LoanDetail, Long> {
+    Optional<LoanDetail> findByAccountIdAndAccount_User_Id(Long accountId, String userId);
 }
@@ -0,0 +1,12 @@
+package org.finsible.backend.repository;
+
+import org.finsible.backend.entity.MonthlyCategorySpend;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface MonthlyCategorySpendRepository extends JpaRepository<MonthlyCategorySpend, MonthlyCategorySpend.Key> {
+    // primary key range scan: (user_id, month, ...)
+    List<MonthlyCategorySpend> findByUserIdAndMonthBetweenOrderByMonthAscCategoryIdAsc(String userId, LocalDate from, LocalDate to);
+}
@@ -0,0 +1,11 @@
+package org.finsible.backend.repository;
+
+import org.finsible.backend.entity.Transaction;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+import java.util.Optional;
+
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, JpaSpecificationExecutor<Transaction> {
+    Optional<Transaction> findByIdAndPaidBy_Id(Long id, String paidById);
+}
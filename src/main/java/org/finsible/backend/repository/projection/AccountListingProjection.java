@@ -0,0 +1,37 @@
+package org.finsible.backend.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// one row per account with its credit card, debit card and loan details joined in
+public interface AccountListingProjection {
+    Long getId();
+    String getName();
+    String getDescription();
+    String getIcon();
+    BigDecimal getBalance(); // for debit cards this is the linked bank account balance
+    Long getAccountGroupId();
+    String getCurrencyCode();
+    Boolean getIsActive();
+    Boolean getIsSystemDefault();
+
+    // credit card details
+    BigDecimal getCreditLimit();
+    BigDecimal getAvailableCredit();
+    Integer getBillingDate();
+    Integer getDueDate();
+    Boolean getAutoPayEnabled();
+    Long getAutoPayFromAccountId();
+
+    // debit card details
+    Long getLinkedBankAccountId();
+
+    // loan details
+    String getLoanType();
+    BigDecimal getPrincipalAmount();
+    BigDecimal getInterestRate();
+    BigDecimal getEmiAmount();
+    Integer getEmiDate();
+    Integer getTenureMonths();
+    LocalDate getStartDate();
+}
@@ -0,0 +1,13 @@
+package org.finsible.backend.repository.projection;
+
+import org.finsible.backend.entity.Category;
+
+// flat category row used to build the category tree without loading Category entities
+public interface CategoryTreeProjection {
+    Long getId();
+    String getName();
+    String getIcon();
+    Category.CategoryType getType();
+    Long getParentCategoryId();
+    String getOwnerId(); // null for default categories
+}
@@ -0,0 +1,53 @@
+package org.finsible.backend.repository.specification;
+
+import org.finsible.backend.entity.Transaction;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+
+// building blocks for the transaction listing, a null argument means "no filter"
+public final class TransactionSpecifications {
+    private TransactionSpecifications() {
+    }
+
+    public static Specification<Transaction> paidBy(String userId) {
+        return (root, query, cb) -> cb.equal(root.get("paidBy").get("id"), userId);
+    }
+
+    public static Specification<Transaction> inAccount(Long accountId) {
+        return accountId == null ? null : (root, query, cb) -> cb.equal(root.get("account").get("id"), accountId);
+    }
+
+    public static Specification<Transaction> inCategory(Long categoryId) {
+        return categoryId == null ? null : (root, query, cb) -> cb.equal(root.get("category").get("id"), categoryId);
+    }
+
+    public static Specification<Transaction> ofType(Transaction.TransactionType type) {
+        return type == null ? null : (root, query, cb) -> cb.equal(root.get("type"), type);
+    }
+
+    public static Specification<Transaction> inSpace(Long spaceId) {
+        return spaceId == null ? null : (root, query, cb) -> cb.equal(root.get("spaceId"), spaceId);
+    }
+
+    public static Specification<Transaction> createdFrom(Instant from) {
+        return from == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("createdAt"), from);
+    }
+
+    public static Specification<Transaction> createdBefore(Instant to) {
+        return to == null ? null : (root, query, cb) -> cb.lessThan(root.get("createdAt"), to);
+    }
+
+    // keyset condition for a (createdAt DESC, id DESC) listing: rows strictly after the last row of the previous page.
+    // The OR alone is no index range bound, the redundant createdAt <= c is what lets the scan start at the page.
+    public static Specification<Transaction> after(Instant createdAt, Long id) {
+        if (createdAt == null || id == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.and(
+                cb.lessThanOrEqualTo(root.get("createdAt"), createdAt),
+                cb.or(
+                        cb.lessThan(root.get("createdAt"), createdAt),
+                        cb.and(cb.equal(root.get("createdAt"), createdAt), cb.lessThan(root.get("id"), id))));
+    }
+}
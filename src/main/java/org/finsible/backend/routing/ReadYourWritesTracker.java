@@ -0,0 +1,66 @@
+package org.finsible.backend.routing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Users who wrote within the read-your-writes window. Their read-only transactions go to the primary, so a replica
+ * that has not replayed the write yet cannot hand them back their old data (or old data under a new ETag).
+ * Writes are recorded after commit on this node, and from the updated_at of the user's data version row when it is
+ * re-read, which is how writes made through another node are noticed.
+ */
+@Component
+public class ReadYourWritesTracker {
+    // above this many entries the expired ones are swept on the next write
+    private static final int SWEEP_THRESHOLD = 10000;
+
+    private final boolean enabled;
+    private final long windowMillis;
+    private final Map<String, Long> pinnedUntilMillis = new ConcurrentHashMap<>();
+
+    public ReadYourWritesTracker(@Value("${app.datasource.replicas.enabled:false}") boolean enabled,
+                                 @Value("${app.datasource.replicas.read-your-writes-window:PT5S}") Duration window) {
+        this.enabled = enabled;
+        this.windowMillis = window.toMillis();
+    }
+
+    public void recordWrite(String userId, Instant writtenAt) {
+        if (!enabled || userId == null) {
+            return;
+        }
+        long until = writtenAt.toEpochMilli() + windowMillis;
+        long now = System.currentTimeMillis();
+        if (until <= now) {
+            return;
+        }
+        pinnedUntilMillis.merge(userId, until, Math::max);
+        if (pinnedUntilMillis.size() > SWEEP_THRESHOLD) {
+            pinnedUntilMillis.values().removeIf(pinned -> pinned <= now);
+        }
+    }
+
+    public boolean isPinned(String userId) {
+        Long until = pinnedUntilMillis.get(userId);
+        if (until == null) {
+            return false;
+        }
+        if (until > System.currentTimeMillis()) {
+            return true;
+        }
+        pinnedUntilMillis.remove(userId, until);
+        return false;
+    }
+
+    // the user of the current request (the JWT filter sets the user id as principal), jobs run without one
+    public boolean isCurrentUserPinned() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && isPinned(authentication.getName());
+    }
+}
@@ -0,0 +1,100 @@
+package org.finsible.backend.routing;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to replicas. The application DataSource is a LazyConnectionDataSourceProxy: it fetches
+ * the real connection on the first statement, after the transaction manager has marked it read-only, and takes it from
+ * the replica side for read-only transactions and from the primary pool for everything else (writes, Flyway, plain
+ * JdbcTemplate calls outside a transaction).
+ * The pools are not DataSource beans of their own, so the JDBC monitoring proxy wraps only the routed DataSource and
+ * every statement is counted once, whichever server runs it.
+ * app.datasource.replicas.enabled=false (the default) keeps the single auto-configured pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replicas.enabled", havingValue = "true")
+public class ReplicaRoutingConfiguration {
+
+    public record RoutingPools(HikariDataSource primary, ReplicaRoutingDataSource readOnly) implements AutoCloseable {
+        @Override
+        public void close() {
+            readOnly.close();
+            primary.close();
+        }
+    }
+
+    @Bean(destroyMethod = "close")
+    public RoutingPools routingPools(DataSourceProperties properties, Environment environment, ReadYourWritesTracker readYourWritesTracker,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${app.datasource.replicas.urls:}") List<String> replicaUrls,
+                                     @Value("${app.datasource.replicas.username:}") String replicaUsername,
+                                     @Value("${app.datasource.replicas.password:}") String replicaPassword,
+                                     @Value("${app.datasource.replicas.pool-size:10}") int replicaPoolSize,
+                                     @Value("${app.datasource.replicas.connection-timeout:PT1S}") Duration replicaConnectionTimeout,
+                                     @Value("${app.datasource.replicas.max-lag:PT2S}") Duration maxLag,
+                                     @Value("${app.datasource.replicas.lag-check-interval:PT1S}") Duration lagCheckInterval) {
+        // same settings as the auto-configured pool would get
+        HikariConfig primaryConfig = new HikariConfig();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primaryConfig));
+        primaryConfig.setJdbcUrl(properties.determineUrl());
+        primaryConfig.setUsername(properties.determineUsername());
+        primaryConfig.setPassword(properties.determinePassword());
+        primaryConfig.setDriverClassName(properties.determineDriverClassName());
+        primaryConfig.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : replicaUrls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            String name = "replica-" + (replicas.size() + 1);
+            HikariConfig replicaConfig = new HikariConfig();
+            primaryConfig.copyStateTo(replicaConfig);
+            replicaConfig.setPoolName(name);
+            replicaConfig.setJdbcUrl(url.trim());
+            if (!replicaUsername.isBlank()) {
+                replicaConfig.setUsername(replicaUsername);
+                replicaConfig.setPassword(replicaPassword);
+            }
+            replicaConfig.setReadOnly(true);
+            replicaConfig.setMaximumPoolSize(replicaPoolSize);
+            // a replica that is down must neither stop the application from starting nor hold requests for long
+            replicaConfig.setConnectionTimeout(replicaConnectionTimeout.toMillis());
+            replicaConfig.setInitializationFailTimeout(-1);
+            replicas.put(name, new HikariDataSource(replicaConfig));
+        }
+
+        primaryConfig.setPoolName("primary");
+        HikariDataSource primary = new HikariDataSource(primaryConfig);
+        ReplicaRoutingDataSource readOnly = new ReplicaRoutingDataSource(primary, replicas, readYourWritesTracker, maxLag, meterRegistry);
+        readOnly.start(lagCheckInterval);
+        return new RoutingPools(primary, readOnly);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(RoutingPools routingPools) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routingPools.primary());
+        dataSource.setReadOnlyDataSource(routingPools.readOnly());
+        return dataSource;
+    }
+}
@@ -0,0 +1,184 @@
+package org.finsible.backend.routing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Connections for read-only transactions: round robin over the replicas whose replay lag is within max-lag, the primary
+ * when the current user is inside their read-your-writes window, no replica is usable or the chosen one cannot hand
+ * out a connection. Lag is measured by a background check; a replica that failed to connect stays out until the next
+ * check succeeds.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    // a replica that has replayed everything it received is current even when the primary has been idle for a while, as long
+    // as its WAL receiver is streaming: a disconnected one receives nothing, so replaying all of it proves nothing (NULL, the
+    // replica counts as lagging; the checking role needs pg_read_all_stats to see the status).
+    // A server that is not in recovery (a plain local instance standing in for a replica) has no lag.
+    private static final String LAG_SQL = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() THEN 0
+                WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming') THEN NULL
+                WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+            END::bigint
+            """;
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private final Counter connections;
+        private volatile boolean usable;
+        private volatile long lagMillis = -1;
+
+        private Replica(String name, DataSource dataSource, Counter connections) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.connections = connections;
+        }
+    }
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final long maxLagMillis;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter pinnedToPrimary;
+    private final Counter fallbackToPrimary;
+    private final ScheduledExecutorService lagChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "replica-lag-check");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, ReadYourWritesTracker readYourWritesTracker,
+                                    Duration maxLag, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.maxLagMillis = maxLag.toMillis();
+        this.pinnedToPrimary = routedConnections(meterRegistry, "primary", "read-your-writes");
+        this.fallbackToPrimary = routedConnections(meterRegistry, "primary", "fallback");
+        replicas.forEach((name, dataSource) -> {
+            Replica replica = new Replica(name, dataSource, routedConnections(meterRegistry, name, "replica"));
+            Gauge.builder("db.replica.lag", replica, r -> r.lagMillis / 1000.0)
+                    .baseUnit("seconds")
+                    .tag("replica", name)
+                    .register(meterRegistry);
+            Gauge.builder("db.replica.usable", replica, r -> r.usable ? 1 : 0)
+                    .tag("replica", name)
+                    .register(meterRegistry);
+            this.replicas.add(replica);
+        });
+    }
+
+    private static Counter routedConnections(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("db.routing.connections")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    // checks once before returning, so replicas are used from the first request on
+    public void start(Duration lagCheckInterval) {
+        checkLag();
+        long intervalMillis = lagCheckInterval.toMillis();
+        lagChecker.scheduleWithFixedDelay(this::checkLag, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (readYourWritesTracker.isCurrentUserPinned()) {
+            pinnedToPrimary.increment();
+            return primary.getConnection();
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (!replica.usable) {
+                continue;
+            }
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                replica.connections.increment();
+                return connection;
+            } catch (SQLException e) {
+                replica.usable = false;
+                logger.warn("Replica {} failed to hand out a connection, taking it out until the next lag check: {}", replica.name, e.getMessage());
+            }
+        }
+        fallbackToPrimary.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica connections use the configured credentials");
+    }
+
+    void checkLag() {
+        for (Replica replica : replicas) {
+            boolean usable;
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(LAG_SQL)) {
+                resultSet.next();
+                long lagMillis = resultSet.getLong(1);
+                if (resultSet.wasNull()) {
+                    if (replica.usable) {
+                        logger.warn("Replica {} is not streaming WAL from the primary", replica.name);
+                    }
+                    replica.lagMillis = -1;
+                    usable = false;
+                } else {
+                    replica.lagMillis = lagMillis;
+                    usable = lagMillis <= maxLagMillis;
+                }
+            } catch (SQLException | RuntimeException e) {
+                replica.lagMillis = -1;
+                usable = false;
+                if (replica.usable) {
+                    logger.warn("Lag check on replica {} failed: {}", replica.name, e.getMessage());
+                }
+            }
+            if (usable != replica.usable) {
+                logger.info("Replica {} is {} (lag {} ms, max {} ms)", replica.name, usable ? "in use" : "out of use",
+                        replica.lagMillis, maxLagMillis);
+            }
+            replica.usable = usable;
+        }
+    }
+
+    @Override
+    public void close() {
+        lagChecker.shutdownNow();
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    logger.warn("Failed to close replica {}: {}", replica.name, e.getMessage());
+                }
+            }
+        }
+    }
+}
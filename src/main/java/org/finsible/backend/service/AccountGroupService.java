@@ -23,11 +23,16 @@ public class AccountGroupService {
     private final AccountGroupRepository accountGroupRepository;
     private final AccountGroupMapper accountGroupMapper;
     private final UserRepository userRepository;
+    private final UserDataVersionService userDataVersionService;
+    private final SyncTombstoneService syncTombstoneService;
 
-    public AccountGroupService(AccountGroupRepository accountGroupRepository, AccountGroupMapper accountGroupMapper, UserRepository userRepository) {
+    public AccountGroupService(AccountGroupRepository accountGroupRepository, AccountGroupMapper accountGroupMapper, UserRepository userRepository,
+                               UserDataVersionService userDataVersionService, SyncTombstoneService syncTombstoneService) {
         this.accountGroupRepository = accountGroupRepository;
         this.accountGroupMapper = accountGroupMapper;
         this.userRepository = userRepository;
+        this.userDataVersionService = userDataVersionService;
+        this.syncTombstoneService = syncTombstoneService;
     }
 
     @Transactional(readOnly = true)
@@ -37,6 +42,14 @@ public class AccountGroupService {
         return accountGroups.stream().map(accountGroupMapper::toAccountGroupResponseDTO).toList();
     }
 
+    // delta sync: system default and user groups written at or after the watermark
+    @Transactional(readOnly = true)
+    public List<AccountGroupResponseDTO> getAccountGroupsChangedSince(String userId, long since) {
+        List<AccountGroup> accountGroups = accountGroupRepository.findVisibleChangedSince(userId, since);
+        logger.info("Found {} accountGroups changed since {} for user {}", accountGroups.size(), since, userId);
+        return accountGroups.stream().map(accountGroupMapper::toAccountGroupResponseDTO).toList();
+    }
+
     @Transactional
     public AccountGroupResponseDTO createAccountGroup(String userId, AccountGroupRequestDTO accountGroupRequestDTO) {
         User currentUser = userRepository.findById(userId).orElse(null);
@@ -46,6 +59,7 @@ public class AccountGroupService {
         AccountGroup accountGroup = accountGroupMapper.toAccountGroup(accountGroupRequestDTO);
         accountGroup.setCreatedBy(currentUser);
         accountGroupRepository.save(accountGroup);
+        userDataVersionService.bump(userId);
         logger.info("Account group created with id: {} for user with id: {}", accountGroup.getId(), userId);
         return accountGroupMapper.toAccountGroupResponseDTO(accountGroup);
     }
@@ -67,6 +81,7 @@ public class AccountGroupService {
         }
         accountGroupMapper.updateAccountGroupFromDto(accountGroupRequestDTO, existingAccountGroup);
         accountGroupRepository.save(existingAccountGroup);
+        userDataVersionService.bump(userId);
         logger.info("Account group with id: {} updated by user with id: {}", accountGroupId, userId);
         return accountGroupMapper.toAccountGroupResponseDTO(existingAccountGroup);
     }
@@ -87,6 +102,8 @@ public class AccountGroupService {
             throw new BadRequestException("Cannot delete system default account group");
         }
         accountGroupRepository.delete(accountGroup);
+        syncTombstoneService.recordDeletion(userId, SyncTombstoneService.EntityType.ACCOUNT_GROUP, accountGroupId);
+        userDataVersionService.bump(userId);
         logger.info("Account group with id: {} deleted by user with id: {}", accountGroupId, userId);
     }
 }
@@ -9,10 +9,13 @@ import org.finsible.backend.dto.request.CreditCardAccountRequestDTO;
 import org.finsible.backend.dto.request.DebitCardAccountRequestDTO;
 import org.finsible.backend.dto.response.AccountResponseDTO;
 import org.finsible.backend.entity.*;
+import org.finsible.backend.loan.LoanTerms;
 import org.finsible.backend.mapper.AccountMapper;
 import org.finsible.backend.repository.*;
+import org.finsible.backend.repository.projection.AccountListingProjection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
@@ -27,26 +30,38 @@ public class AccountService {
     private final AccountRepository accountRepository;
     private final UserRepository userRepository;
     private final AccountGroupRepository accountGroupRepository;
-    private final SupportedCurrencyRepository currencyRepository;
+    private final CurrencyService currencyService;
     private final CreditCardDetailRepository creditCardDetailRepository;
     private final DebitCardDetailsRepository debitCardDetailRepository;
     private final LoanDetailRepository loanDetailRepository;
+    private final LoanService loanService;
+    private final UserDataVersionService userDataVersionService;
+    private final SyncTombstoneService syncTombstoneService;
+    private final BalancePostingService balancePostingService;
     private final AccountMapper accountMapper;
+    private final boolean singleQueryListing;
 
     private static final Logger logger = LoggerFactory.getLogger(AccountService.class);
 
     public AccountService(AccountRepository accountRepository, UserRepository userRepository, AccountGroupRepository accountGroupRepository,
-                          AccountMapper accountMapper, SupportedCurrencyRepository currencyRepository,
+                          AccountMapper accountMapper, CurrencyService currencyService,
                           CreditCardDetailRepository creditCardDetailRepository, DebitCardDetailsRepository debitCardDetailRepository,
-                          LoanDetailRepository loanDetailRepository) {
-        this.currencyRepository = currencyRepository;
+                          LoanDetailRepository loanDetailRepository, LoanService loanService, UserDataVersionService userDataVersionService,
+                          SyncTombstoneService syncTombstoneService, BalancePostingService balancePostingService,
+                          @Value("${app.accounts.listing.single-query:true}") boolean singleQueryListing) {
+        this.currencyService = currencyService;
         this.accountRepository = accountRepository;
         this.userRepository = userRepository;
         this.accountGroupRepository = accountGroupRepository;
         this.creditCardDetailRepository = creditCardDetailRepository;
         this.debitCardDetailRepository = debitCardDetailRepository;
         this.loanDetailRepository = loanDetailRepository;
+        this.loanService = loanService;
+        this.userDataVersionService = userDataVersionService;
+        this.syncTombstoneService = syncTombstoneService;
+        this.balancePostingService = balancePostingService;
         this.accountMapper = accountMapper;
+        this.singleQueryListing = singleQueryListing;
     }
 
     @Transactional
@@ -57,7 +72,7 @@ public class AccountService {
         AccountGroup accountGroup = accountGroupRepository.findAccountGroupById(accountGroupId);
         if(accountGroup == null) throw new EntityNotFoundException("Account group not found");
 
-        SupportedCurrency currency = currencyRepository.findByCode(accountRequestDTO.getCurrencyCode());
+        SupportedCurrency currency = currencyService.getCurrency(accountRequestDTO.getCurrencyCode());
         if(currency == null) currency = user.getDefaultCurrency();
 
         Account account = accountMapper.toAccount(accountRequestDTO);
@@ -67,6 +82,7 @@ public class AccountService {
         account.setCurrency(currency);
 
         accountRepository.save(account);  // If this fails, transaction auto-rolls back
+        userDataVersionService.bump(userId);
 
         logger.info("Created account with id {}", account.getId());
 
@@ -75,6 +91,38 @@ public class AccountService {
 
     @Transactional(readOnly = true)
     public List<AccountResponseDTO> getAccounts(String userId) {
+        return singleQueryListing ? getAccountsWithDetailJoins(userId) : getAccountsWithDetailLookups(userId);
+    }
+
+    // one native query joining the detail tables, debit card balances come from the linked bank account
+    @Transactional(readOnly = true)
+    public List<AccountResponseDTO> getAccountsWithDetailJoins(String userId) {
+        List<AccountListingProjection> accounts = accountRepository.findAccountListingByUserId(userId);
+        logger.info("Found {} accounts for user {}", accounts.size(), userId);
+        return toListingResponse(accounts);
+    }
+
+    // delta sync: accounts changed at or after the watermark, see AccountRepository.findAccountListingChangedSince
+    @Transactional(readOnly = true)
+    public List<AccountResponseDTO> getAccountsChangedSince(String userId, long since, boolean includeLoans) {
+        List<AccountListingProjection> accounts = accountRepository.findAccountListingChangedSince(userId, since, includeLoans);
+        logger.info("Found {} accounts changed since {} for user {}", accounts.size(), since, userId);
+        return toListingResponse(accounts);
+    }
+
+    private List<AccountResponseDTO> toListingResponse(List<AccountListingProjection> accounts) {
+        return accounts.stream().map(account -> {
+            AccountResponseDTO responseDTO = accountMapper.toAccountResponseDTO(account);
+            if (account.getPrincipalAmount() != null) {
+                loanService.addScheduleSummary(LoanTerms.of(account), responseDTO);
+            }
+            return responseDTO;
+        }).toList();
+    }
+
+    // previous read path, kept as a fallback: loads the account entities and then each detail table by id
+    @Transactional(readOnly = true)
+    public List<AccountResponseDTO> getAccountsWithDetailLookups(String userId) {
         List<Account> accounts = accountRepository.findAccountsByUser_Id(userId);
         logger.info("Found {} accounts for user {}", accounts.size(), userId);
 
@@ -134,8 +182,8 @@ public class AccountService {
         } else if (AppConstants.DEBIT_CARD_ACCOUNT_TYPE.equals(accountGroupName) && debitCardDetail != null) {
             accountMapper.debitCardAccountResponse(debitCardDetail, responseDTO);
         } else if (AppConstants.LOAN_ACCOUNT_TYPE.equals(accountGroupName) && loanDetail != null) {
-            // TODO: implement loan type of accounts
-            //accountMapper.LoanAccountResponse(loanDetail, responseDTO);
+            accountMapper.loanAccountResponse(loanDetail, responseDTO);
+            loanService.addScheduleSummary(LoanTerms.of(loanDetail), responseDTO);
         }
         return responseDTO;
     }
@@ -152,6 +200,8 @@ public class AccountService {
             throw new BadRequestException("Cannot delete system default account");
         }
         accountRepository.deleteById(accountId);
+        syncTombstoneService.recordDeletion(userId, SyncTombstoneService.EntityType.ACCOUNT, accountId);
+        userDataVersionService.bump(userId);
         logger.info("Deleted account with id {}", accountId);
     }
 
@@ -162,12 +212,13 @@ public class AccountService {
         if(account == null) throw new EntityNotFoundException("Account not found");
         accountMapper.updateAccountFromDto(accountRequestDTO, account);
         if (accountRequestDTO.getCurrencyCode() != null) {
-            SupportedCurrency currency = currencyRepository.findByCode(accountRequestDTO.getCurrencyCode());
+            SupportedCurrency currency = currencyService.getCurrency(accountRequestDTO.getCurrencyCode());
             if (currency != null) {
                 account.setCurrency(currency);
             }
         }
         accountRepository.save(account);
+        userDataVersionService.bump(userId);
         return accountMapper.toAccountResponseDTO(account);
     }
 
@@ -179,7 +230,7 @@ public class AccountService {
         AccountGroup accountGroup = accountGroupRepository.findAccountGroupByName(AppConstants.CREDIT_CARD_ACCOUNT_TYPE);
         if(accountGroup == null) throw new EntityNotFoundException("Credit card account group not found"); // normally should not happen
 
-        SupportedCurrency currency = currencyRepository.findByCode(creditCardAccountRequestDTO.getCurrencyCode());
+        SupportedCurrency currency = currencyService.getCurrency(creditCardAccountRequestDTO.getCurrencyCode());
         if (currency == null) currency = user.getDefaultCurrency();
 
         if(creditCardAccountRequestDTO.getAvailableCredit() == null){
@@ -222,6 +273,7 @@ public class AccountService {
         }
 
         creditCardDetailRepository.save(creditCardDetail);
+        userDataVersionService.bump(userId);
         logger.info("Created credit-card account details with id {}", account.getId());
 
         AccountResponseDTO responseDTO = accountMapper.toAccountResponseDTO(account);
@@ -237,6 +289,11 @@ public class AccountService {
                 .orElseThrow(() -> new UserNotFoundException("User not found with id: " + userId));
         Account account = accountRepository.findByIdAndUser(accountId, user);
         if (account == null) throw new EntityNotFoundException("Credit card account not found");
+        if (creditCardAccountRequestDTO.getCreditLimit() != null) {
+            // a limit change moves the available credit, take the lock balance postings take before anything is written
+            // (and before the card is loaded, so its limit is current)
+            accountRepository.lockForBalanceChange(accountId);
+        }
         CreditCardDetail creditCardDetail = creditCardDetailRepository.findById(accountId)
                 .orElseThrow(() -> new EntityNotFoundException("Credit card details not found for account id: " + accountId));
 
@@ -255,13 +312,15 @@ public class AccountService {
 
         accountMapper.updateAccountFromDto(creditCardAccountRequestDTO, account);
         accountMapper.updateCreditCardDetailFromDto(creditCardAccountRequestDTO, creditCardDetail);
+        BigDecimal newCreditLimit = creditCardAccountRequestDTO.getCreditLimit();
+        boolean creditLimitChanged = newCreditLimit != null && newCreditLimit.compareTo(creditCardDetail.getCreditLimit()) != 0;
 
         AccountResponseDTO responseDTO = accountMapper.toAccountResponseDTO(account);
         // populate credit card specific fields
         accountMapper.creditCardAccountResponse(creditCardDetail, responseDTO);
 
         // to avoid unnecessary database writes
-        if(existingAccountResponseDTO.equals(responseDTO)){
+        if(!creditLimitChanged && existingAccountResponseDTO.equals(responseDTO)){
             return existingAccountResponseDTO;
         }
 
@@ -270,11 +329,29 @@ public class AccountService {
 
         // update credit card details
         creditCardDetailRepository.save(creditCardDetail);
+        if (creditLimitChanged) {
+            changeCreditLimit(creditCardDetail, newCreditLimit);
+            accountMapper.creditCardAccountResponse(creditCardDetail, responseDTO);
+        }
+        userDataVersionService.bump(userId);
         logger.info("Updated credit card account details with id {}", creditCardDetail.getAccountId());
 
         return responseDTO;
     }
 
+    // the available credit (and the card's balance with it) moves by the change of the limit, posted as a delta like any other
+    // balance change so postings made by other transactions are kept. Runs under the account row lock taken before the card
+    // was loaded, which also serializes concurrent limit changes.
+    private void changeCreditLimit(CreditCardDetail creditCardDetail, BigDecimal newCreditLimit) {
+        Long accountId = creditCardDetail.getAccountId();
+        BigDecimal delta = newCreditLimit.subtract(creditCardDetail.getCreditLimit());
+        creditCardDetailRepository.updateCreditLimit(accountId, newCreditLimit);
+        balancePostingService.post(accountId, delta);
+        logger.info("Changed credit limit of card {} from {} to {}", accountId, creditCardDetail.getCreditLimit(), newCreditLimit);
+        creditCardDetail.setCreditLimit(newCreditLimit);
+        creditCardDetail.setAvailableCredit(creditCardDetail.getAvailableCredit().add(delta));
+    }
+
     @Transactional
     public AccountResponseDTO createDebitCardAccount(String userId, DebitCardAccountRequestDTO debitCardAccountRequestDTO) throws BadRequestException {
         User user = userRepository.findById(userId)
@@ -283,7 +360,7 @@ public class AccountService {
         AccountGroup accountGroup = accountGroupRepository.findAccountGroupByName(AppConstants.DEBIT_CARD_ACCOUNT_TYPE);
         if(accountGroup == null) throw new EntityNotFoundException("Debit card account group not found"); // normally should not happen
 
-        SupportedCurrency currency = currencyRepository.findByCode(debitCardAccountRequestDTO.getCurrencyCode());
+        SupportedCurrency currency = currencyService.getCurrency(debitCardAccountRequestDTO.getCurrencyCode());
         if (currency == null) currency = user.getDefaultCurrency();
 
         if(debitCardAccountRequestDTO.getIsActive() == null){
@@ -306,6 +383,7 @@ public class AccountService {
         debitCardDetail.setAccount(debitCardAccount);
         debitCardDetail.setLinkedBankAccount(linkedBankAccount);
         debitCardDetailRepository.save(debitCardDetail);
+        userDataVersionService.bump(userId);
 
         logger.info("Created debit-card account details with id {}", debitCardAccount.getId());
 
@@ -352,6 +430,7 @@ public class AccountService {
 
         // update debit card details
         debitCardDetailRepository.save(debitCardDetail);
+        userDataVersionService.bump(userId);
         logger.info("Updated debit card account details with id {}", debitCardDetail.getAccountId());
 
         return responseDTO;
@@ -1,10 +1,7 @@
 package org.finsible.backend.service;
 
 import com.google.api.client.googleapis.auth.oauth2.*;
-import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
-import com.google.api.client.http.javanet.NetHttpTransport;
-import com.google.api.client.json.JsonFactory;
-import com.google.api.client.json.gson.GsonFactory;
+import io.micrometer.core.annotation.Timed;
 import org.finsible.backend.AppConstants;
 import org.finsible.backend.CustomExceptionHandler.InvalidTokenException;
 import org.finsible.backend.CustomExceptionHandler.UserNotFoundException;
@@ -24,6 +21,7 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 @Service
 public class AuthService {
@@ -34,12 +32,15 @@ public class AuthService {
     private final LanguageService languageService;
     private final CurrencyService currencyService;
     private final UserMapper userMapper;
+    private final GoogleTokenVerifierRegistry googleTokenVerifierRegistry;
+    private final UserDataVersionService userDataVersionService;
     private static final Logger logger = LoggerFactory.getLogger(AuthService.class);
     private final String CLIENT_SECRET;
 
     public AuthService(UserRepository userRepository, AccountRepository accountRepository, AccountGroupRepository accountGroupRepository,
                        AdminRepository adminRepository, UserMapper userMapper, LanguageService languageService,
-                       CurrencyService currencyService, @Value("${app.google.client.secret}") String clientSecret) {
+                       CurrencyService currencyService, GoogleTokenVerifierRegistry googleTokenVerifierRegistry,
+                       UserDataVersionService userDataVersionService, @Value("${app.google.client.secret}") String clientSecret) {
         this.userRepository = userRepository;
         this.accountRepository = accountRepository;
         this.accountGroupRepository = accountGroupRepository;
@@ -47,6 +48,8 @@ public class AuthService {
         this.userMapper = userMapper;
         this.languageService = languageService;
         this.currencyService = currencyService;
+        this.googleTokenVerifierRegistry = googleTokenVerifierRegistry;
+        this.userDataVersionService = userDataVersionService;
         this.CLIENT_SECRET = clientSecret;
     }
 
@@ -54,15 +57,10 @@ public class AuthService {
         return JwtService.generateToken(userId, roles);
     }
 
+    @Timed(value = "auth.google.sign-in", extraTags = {"flow", "id-token"}, histogram = true)
     public UserResponseDTO googleSignIn(UserAuthenticationRequestDTO authRequest, String deviceType) throws GeneralSecurityException, IOException {
-        JsonFactory jsonFactory = GsonFactory.getDefaultInstance();
-        GoogleIdTokenVerifier verifier = new GoogleIdTokenVerifier
-                .Builder(GoogleNetHttpTransport.newTrustedTransport(), jsonFactory)
-                // Specify the CLIENT_ID of the app that accesses the backend:
-                .setAudience(Collections.singletonList(authRequest.getClientId()))
-                // Or, if multiple clients access the backend:
-                //.setAudience(Arrays.asList(CLIENT_ID_1, CLIENT_ID_2, CLIENT_ID_3))
-                .build();
+        // verifiers are cached per CLIENT_ID of the app that accesses the backend
+        GoogleIdTokenVerifier verifier = googleTokenVerifierRegistry.getVerifier(authRequest.getClientId());
 
         GoogleIdToken idToken = verifier.verify(authRequest.getToken());
 
@@ -106,6 +104,12 @@ public class AuthService {
                     .build();
             accountRepository.save(cashAccount);
         } else {
+            // the bootstrap user section is tagged with the data version
+            if (!Objects.equals(user.getName(), name) || !Objects.equals(user.getPicture(), picture)
+                    || !Objects.equals(user.getDefaultCurrency().getCode(), defaultCurrency.getCode())
+                    || !Objects.equals(user.getDefaultLanguage().getCode(), defaultLanguage.getCode())) {
+                userDataVersionService.bump(userId);
+            }
             user.setName(name);
             user.setPicture(picture);
             user.setDefaultCurrency(defaultCurrency);
@@ -125,15 +129,14 @@ public class AuthService {
         return userResponseDTO;
     }
 
+    @Timed(value = "auth.google.sign-in", extraTags = {"flow", "authorization-code"}, histogram = true)
     public UserResponseDTO googleSignInWithCode(UserAuthenticationRequestDTO authRequest, String deviceType) throws IOException, GeneralSecurityException {
-        GoogleTokenResponse tokenResponse = new GoogleAuthorizationCodeTokenRequest(
-                new NetHttpTransport(),
-                GsonFactory.getDefaultInstance(),
+        GoogleTokenResponse tokenResponse = googleTokenVerifierRegistry.exchangeAuthorizationCode(
                 authRequest.getClientId(),
                 CLIENT_SECRET,
                 authRequest.getCode(),
                 AppConstants.REDIRECT_URI // Redirect URI
-        ).execute();
+        );
 
         String idToken = tokenResponse.getIdToken();
         authRequest.setToken(idToken);
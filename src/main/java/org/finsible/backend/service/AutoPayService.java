@@ -0,0 +1,281 @@
+package org.finsible.backend.service;
+
+import org.finsible.backend.monitoring.RequestQueryStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Executes credit card auto-pay. Due statements of cards with auto-pay enabled become auto_pay_payments work items, which
+ * workers on every app node claim in batches with FOR UPDATE SKIP LOCKED: nodes never wait on each other's rows, so
+ * throughput grows with the number of nodes.
+ *
+ * A payment is paid at most once: the transfer transaction, both balance postings and the PROCESSING -> SUCCEEDED
+ * transition commit together, and that transition only matches the claim token of the worker that claimed the row.
+ * Only what is still due is paid: credits booked to the card after the statement closed, a payment by hand among them,
+ * reduce the transfer, and a statement paid off that way succeeds without one.
+ * Rows left in PROCESSING by a crashed node are claimed again once the claim is older than the stale timeout.
+ */
+@Service
+public class AutoPayService {
+    public static final String PENDING = "PENDING";
+    public static final String PROCESSING = "PROCESSING";
+    public static final String SUCCEEDED = "SUCCEEDED";
+    public static final String FAILED = "FAILED";
+
+    private static final Logger logger = LoggerFactory.getLogger(AutoPayService.class);
+    private static final String CREATE_DUE_PAYMENTS_SQL = """
+            INSERT INTO auto_pay_payments (statement_id, card_account_id, from_account_id, user_id, amount, currency_code, due_date,
+                                           status, created_at, updated_at)
+            SELECT s.id, s.account_id, cd.auto_pay_from_account_id, a.user_id, s.amount_due, s.currency_code, s.due_date,
+                   'PENDING', now(), now()
+            FROM credit_card_statements s
+            JOIN credit_card_details cd ON cd.account_id = s.account_id
+            JOIN accounts a ON a.id = s.account_id
+            WHERE s.due_date <= ? AND s.due_date > ? AND s.amount_due > 0
+              AND cd.auto_pay_enabled AND cd.auto_pay_from_account_id IS NOT NULL AND a.is_active
+            ON CONFLICT (statement_id) DO NOTHING
+            """;
+    // parameters: claim token, due date, stale claim cutoff, batch size
+    private static final String CLAIM_SQL = """
+            UPDATE auto_pay_payments p
+            SET status = 'PROCESSING', claim_token = ?, claimed_at = now(), attempts = p.attempts + 1, updated_at = now()
+            WHERE p.id IN (
+                SELECT id FROM auto_pay_payments
+                WHERE due_date <= ?
+                  AND (status = 'PENDING' OR (status = 'PROCESSING' AND claimed_at < ?))
+                ORDER BY due_date, id
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING p.id, p.card_account_id, p.from_account_id, p.user_id, p.amount, p.currency_code, p.statement_id, p.attempts
+            """;
+    // the guarded transition: locks the row and proves this worker still owns the claim
+    static final String COMPLETE_SQL = """
+            UPDATE auto_pay_payments
+            SET status = ?, processed_at = now(), failure_reason = ?, updated_at = now()
+            WHERE id = ? AND status = 'PROCESSING' AND claim_token = ?
+            """;
+    private static final String RELEASE_SQL = """
+            UPDATE auto_pay_payments
+            SET status = CASE WHEN attempts >= ? THEN 'FAILED' ELSE 'PENDING' END,
+                claim_token = NULL, failure_reason = ?, updated_at = now()
+            WHERE id = ? AND status = 'PROCESSING' AND claim_token = ?
+            """;
+    // the amount actually paid, which is below the statement's amount due when the card was paid down since
+    private static final String RECORD_PAYMENT_SQL = "UPDATE auto_pay_payments SET transaction_id = ?, amount = ? WHERE id = ?";
+    // both accounts must still belong to the user, the source must be an active account and the card must still want auto-pay;
+    // the card row stays locked until the payment commits, so credits booked to the card meanwhile wait for it
+    private static final String PAYABLE_SQL = """
+            SELECT card.id FROM credit_card_details cd
+            JOIN accounts card ON card.id = cd.account_id
+            JOIN accounts source ON source.id = ?
+            WHERE cd.account_id = ? AND cd.auto_pay_enabled AND card.user_id = ? AND source.user_id = ? AND source.is_active
+            FOR UPDATE OF card
+            """;
+    // The statement's amount due less the credits booked to the card since the statement closed (card payments made by hand,
+    // refunds). Auto-pay transfers are left out, each of them paid a statement of its own.
+    private static final String STILL_DUE_SQL = """
+            SELECT s.amount_due - COALESCE((
+                SELECT SUM(t.total_amount)
+                FROM transactions t
+                WHERE t.account_id = s.account_id AND t.type IN ('INCOME', 'TRANSFER')
+                  AND t.created_at >= CAST(s.statement_date AS timestamp) AT TIME ZONE 'UTC'
+                  AND NOT EXISTS (SELECT 1 FROM auto_pay_payments p WHERE p.card_account_id = s.account_id AND p.transaction_id = t.id)
+            ), 0)
+            FROM credit_card_statements s
+            WHERE s.id = ?
+            """;
+    private static final String INSERT_TRANSFER_SQL = """
+            INSERT INTO transactions (type, total_amount, user_share, is_split, paid_by_id, account_id, description, currency_code,
+                                      created_at, updated_at, created_by, updated_by)
+            VALUES ('TRANSFER', ?, ?, false, ?, ?, ?, ?, now(), now(), ?, ?)
+            RETURNING id
+            """;
+
+    private record ClaimedPayment(long id, long cardAccountId, long fromAccountId, String userId, BigDecimal amount,
+                                  String currencyCode, long statementId, int attempts, String claimToken) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BalancePostingService balancePostingService;
+    private final UserDataVersionService userDataVersionService;
+    private final String nodeId;
+    private final int batchSize;
+    private final int parallelism;
+    private final int maxAttempts;
+    private final Duration staleClaimTimeout;
+
+    public AutoPayService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, BalancePostingService balancePostingService,
+                          UserDataVersionService userDataVersionService,
+                          @Value("${app.node-id:${HOSTNAME:local}}") String nodeId,
+                          @Value("${app.auto-pay.batch-size:100}") int batchSize,
+                          @Value("${app.auto-pay.parallelism:4}") int parallelism,
+                          @Value("${app.auto-pay.max-attempts:3}") int maxAttempts,
+                          @Value("${app.auto-pay.stale-claim-timeout:PT10M}") Duration staleClaimTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.balancePostingService = balancePostingService;
+        this.userDataVersionService = userDataVersionService;
+        this.nodeId = nodeId;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.maxAttempts = maxAttempts;
+        this.staleClaimTimeout = staleClaimTimeout;
+    }
+
+    /**
+     * Creates work items for statements due up to the given date (looking back a month, so a missed day is picked up).
+     * Safe to run on every node, a statement gets at most one payment.
+     */
+    public int createDuePayments(LocalDate dueDate) {
+        int created = jdbcTemplate.update(CREATE_DUE_PAYMENTS_SQL, Date.valueOf(dueDate), Date.valueOf(dueDate.minusMonths(1)));
+        logger.info("Created {} auto-pay payments due by {}", created, dueDate);
+        return created;
+    }
+
+    @Scheduled(cron = "${app.auto-pay.create-cron:0 30 0 * * *}", zone = "UTC")
+    public void createTodaysPayments() {
+        createDuePayments(LocalDate.now(ZoneOffset.UTC));
+    }
+
+    // every node polls; batches are claimed until nothing due is left
+    @Scheduled(fixedDelayString = "${app.auto-pay.poll-interval:PT1M}")
+    public void processDuePayments() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        long paid = 0;
+        List<ClaimedPayment> batch;
+        do {
+            batch = claim(today);
+            paid += processBatch(batch);
+        } while (batch.size() == batchSize);
+        if (paid > 0) {
+            logger.info("Node {} paid {} auto-pay payments", nodeId, paid);
+        }
+    }
+
+    // the claim is its own short transaction, the locks are released as soon as the rows are marked PROCESSING
+    private List<ClaimedPayment> claim(LocalDate dueDate) {
+        String claimToken = nodeId + ":" + UUID.randomUUID();
+        Timestamp staleBefore = new Timestamp(System.currentTimeMillis() - staleClaimTimeout.toMillis());
+        List<ClaimedPayment> claimed = transactionTemplate.execute(status -> jdbcTemplate.query(CLAIM_SQL,
+                (rs, rowNum) -> new ClaimedPayment(rs.getLong("id"), rs.getLong("card_account_id"), rs.getLong("from_account_id"),
+                        rs.getString("user_id"), rs.getBigDecimal("amount"), rs.getString("currency_code"),
+                        rs.getLong("statement_id"), rs.getInt("attempts"), claimToken),
+                claimToken, Date.valueOf(dueDate), staleBefore, batchSize));
+        if (claimed == null || claimed.isEmpty()) {
+            return List.of();
+        }
+        logger.debug("Node {} claimed {} auto-pay payments with token {}", nodeId, claimed.size(), claimToken);
+        return claimed;
+    }
+
+    // payments of a batch are independent, they run on virtual threads with at most `parallelism` holding a connection
+    private int processBatch(List<ClaimedPayment> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        Semaphore connections = new Semaphore(parallelism);
+        List<Future<Boolean>> results = new ArrayList<>(batch.size());
+        // statements of the workers count towards the caller's query stats, when it keeps any
+        RequestQueryStats queryStats = RequestQueryStats.current();
+        int paid = 0;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (ClaimedPayment payment : batch) {
+                results.add(executor.submit(() -> {
+                    connections.acquire();
+                    RequestQueryStats.attach(queryStats);
+                    try {
+                        return process(payment);
+                    } finally {
+                        RequestQueryStats.detach();
+                        connections.release();
+                    }
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                if (Boolean.TRUE.equals(result.get())) {
+                    paid++;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Auto-pay processing interrupted", e);
+        } catch (ExecutionException e) {
+            // process() handles its own failures, this is a bug rather than a failed payment
+            throw new IllegalStateException("Auto-pay processing failed: " + e.getCause().getMessage(), e.getCause());
+        }
+        return paid;
+    }
+
+    // true when this call paid the payment
+    private boolean process(ClaimedPayment payment) {
+        try {
+            Boolean paid = transactionTemplate.execute(status -> pay(payment));
+            return Boolean.TRUE.equals(paid);
+        } catch (RuntimeException e) {
+            // nothing of the payment was committed, hand it back for another attempt (or give up after maxAttempts)
+            logger.warn("Auto-pay payment {} failed on attempt {}: {}", payment.id(), payment.attempts(), e.getMessage());
+            jdbcTemplate.update(RELEASE_SQL, maxAttempts, e.getMessage(), payment.id(), payment.claimToken());
+            return false;
+        }
+    }
+
+    private boolean pay(ClaimedPayment payment) {
+        boolean payable = !jdbcTemplate.queryForList(PAYABLE_SQL, Long.class, payment.fromAccountId(), payment.cardAccountId(),
+                payment.userId(), payment.userId()).isEmpty();
+        String outcome = payable ? SUCCEEDED : FAILED;
+        String reason = payable ? null : "Auto-pay was disabled or the source account is no longer usable";
+        if (jdbcTemplate.update(COMPLETE_SQL, outcome, reason, payment.id(), payment.claimToken()) == 0) {
+            // another worker took the claim over (ours went stale), it decides the outcome
+            logger.warn("Lost the claim on auto-pay payment {}, skipping it", payment.id());
+            return false;
+        }
+        if (outcome.equals(FAILED)) {
+            logger.info("Auto-pay payment {} for card {} failed: {}", payment.id(), payment.cardAccountId(), reason);
+            return false;
+        }
+
+        BigDecimal stillDue = jdbcTemplate.queryForObject(STILL_DUE_SQL, BigDecimal.class, payment.statementId());
+        BigDecimal amount = stillDue == null ? payment.amount() : stillDue.min(payment.amount());
+        if (amount.signum() <= 0) {
+            // the card was paid off by other means, nothing is transferred
+            jdbcTemplate.update(RECORD_PAYMENT_SQL, null, BigDecimal.ZERO, payment.id());
+            logger.info("Auto-pay payment {} for card {} skipped, statement {} is already paid", payment.id(), payment.cardAccountId(),
+                    payment.statementId());
+            return false;
+        }
+
+        Long transactionId = jdbcTemplate.queryForObject(INSERT_TRANSFER_SQL, Long.class, amount, amount,
+                payment.userId(), payment.cardAccountId(), "Credit card auto-pay for statement " + payment.statementId(),
+                payment.currencyCode(), payment.userId(), payment.userId());
+        jdbcTemplate.update(RECORD_PAYMENT_SQL, transactionId, amount, payment.id());
+        // the two legs of the transfer, the card's available credit grows with its balance
+        balancePostingService.post(payment.fromAccountId(), amount.negate());
+        balancePostingService.post(payment.cardAccountId(), amount);
+        userDataVersionService.bump(payment.userId());
+        logger.info("Auto-pay payment {} paid {} {} from account {} to card {}", payment.id(), amount, payment.currencyCode(),
+                payment.fromAccountId(), payment.cardAccountId());
+        return true;
+    }
+}
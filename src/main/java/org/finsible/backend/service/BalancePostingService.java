@@ -0,0 +1,113 @@
+package org.finsible.backend.service;
+
+import org.finsible.backend.entity.Transaction;
+import org.finsible.backend.utility.TransactionScopedBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The only writer of account balances. Deltas are applied with "balance = balance + ?" so concurrent postings never lose
+ * an update and never read the row first. Inside a transaction, deltas for the same account are summed and written as one
+ * JDBC batch just before commit, so a request touching an account several times updates its row once.
+ * A credit card's available credit moves together with its balance in the same statement, and postings against a debit
+ * card go to the linked bank account (debit cards have no balance of their own). The batch resolves every posted account
+ * to the row it updates first and writes in that row's id order.
+ * Transfers recorded through the transactions API do not move balances: a transfer row names only one account. Auto-pay,
+ * the one place that moves money between two known accounts, posts both legs itself.
+ */
+@Service
+public class BalancePostingService {
+    private static final Logger logger = LoggerFactory.getLogger(BalancePostingService.class);
+    // the account whose row a posting updates: the linked bank account for a debit card, the account itself otherwise
+    private static final String TARGETS_SQL = """
+            SELECT a.id AS account_id, COALESCE(d.linked_bank_account_id, a.id) AS target_id
+            FROM accounts a
+            LEFT JOIN debit_card_details d ON d.account_id = a.id
+            WHERE a.id IN (:accountIds)
+            """;
+    // parameters: target id, delta, delta, target id
+    private static final String POST_DELTA_SQL = """
+            WITH updated AS (
+                UPDATE accounts SET balance = COALESCE(balance, 0) + ?, updated_at = now()
+                WHERE id = ?
+                RETURNING id
+            )
+            UPDATE credit_card_details SET available_credit = available_credit + ?, updated_at = now()
+            WHERE account_id = ? AND EXISTS (SELECT 1 FROM updated)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionScopedBuffer<Long, BigDecimal> pendingDeltas =
+            new TransactionScopedBuffer<>(HashMap::new, BigDecimal::add, this::apply);
+
+    public BalancePostingService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    // effect of a transaction on the balance of the account it is booked against
+    public static BigDecimal signedAmount(Transaction.TransactionType type, BigDecimal amount) {
+        if (type == null || amount == null) {
+            return BigDecimal.ZERO;
+        }
+        return switch (type) {
+            case INCOME -> amount;
+            case EXPENSE -> amount.negate();
+            // no counter account to post the other leg to, see the class comment
+            case TRANSFER -> BigDecimal.ZERO;
+        };
+    }
+
+    public void post(Long accountId, BigDecimal delta) {
+        if (accountId == null || delta == null || delta.signum() == 0) {
+            return;
+        }
+        pendingDeltas.add(accountId, delta);
+    }
+
+    public void postAll(Map<Long, BigDecimal> deltas) {
+        deltas.forEach(this::post);
+    }
+
+    private void apply(Map<Long, BigDecimal> deltas) {
+        if (deltas.values().stream().allMatch(delta -> delta.signum() == 0)) {
+            return;
+        }
+        Map<Long, BigDecimal> byTarget = byTargetAccount(deltas);
+        List<Object[]> batch = new ArrayList<>(byTarget.size());
+        byTarget.forEach((targetId, delta) -> {
+            if (delta.signum() != 0) {
+                batch.add(new Object[]{delta, targetId, delta, targetId});
+            }
+        });
+        if (batch.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(POST_DELTA_SQL, batch);
+        logger.debug("Posted balance deltas for {} accounts", batch.size());
+    }
+
+    // Deltas merged and sorted by the row they update, so concurrent transactions lock account rows in the same order and
+    // cannot deadlock each other; sorting by the posted account id would not hold once a debit card stands for its bank.
+    private Map<Long, BigDecimal> byTargetAccount(Map<Long, BigDecimal> deltas) {
+        Map<Long, Long> targets = new HashMap<>(deltas.size());
+        namedParameterJdbcTemplate.query(TARGETS_SQL, Map.of("accountIds", deltas.keySet()),
+                (RowCallbackHandler) resultSet -> targets.put(resultSet.getLong("account_id"), resultSet.getLong("target_id")));
+        Map<Long, BigDecimal> byTarget = new TreeMap<>();
+        // an account that is gone posts to itself and updates nothing, like before
+        deltas.forEach((accountId, delta) -> byTarget.merge(targets.getOrDefault(accountId, accountId), delta, BigDecimal::add));
+        return byTarget;
+    }
+}
@@ -0,0 +1,252 @@
+package org.finsible.backend.service;
+
+import org.finsible.backend.cache.PreEncodedResponseCache;
+import org.finsible.backend.cache.ReferenceDataSnapshot;
+import org.finsible.backend.dto.response.AccountGroupResponseDTO;
+import org.finsible.backend.dto.response.AccountResponseDTO;
+import org.finsible.backend.dto.response.BootstrapResponseDTO;
+import org.finsible.backend.dto.response.BootstrapSectionDTO;
+import org.finsible.backend.dto.response.CategoryResponseDTO;
+import org.finsible.backend.dto.response.CurrencyResponseDTO;
+import org.finsible.backend.dto.response.LanguageResponseDTO;
+import org.finsible.backend.dto.response.UserResponseDTO;
+import org.finsible.backend.entity.SupportedCurrency;
+import org.finsible.backend.entity.SupportedLanguage;
+import org.finsible.backend.mapper.CurrencyMapper;
+import org.finsible.backend.mapper.LanguageMapper;
+import org.finsible.backend.monitoring.RequestQueryStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Everything the clients load on launch, in one response. The database sections (user, accounts, account groups,
+ * categories) run at the same time on virtual threads, each in its own read-only transaction, so the response takes as
+ * long as the slowest section instead of the sum. Currencies and languages come from memory.
+ * Each section holds one of a fixed number of permits shared by all launches, which caps the pool connections
+ * bootstraps take at once; a launch that finds too few permits free loads its sections one after the other on a single
+ * connection instead. The whole response has one deadline (app.bootstrap.timeout), whichever way it is loaded.
+ * Each section carries the ETag of its own list endpoint (the user section the user's data version); a section whose
+ * ETag the client sends back is not loaded.
+ */
+@Service
+public class BootstrapService {
+    private static final Logger logger = LoggerFactory.getLogger(BootstrapService.class);
+
+    private record SectionTags(String user, String accounts, String accountGroups, String categories) {
+    }
+
+    private final AuthService authService;
+    private final AccountService accountService;
+    private final AccountGroupService accountGroupService;
+    private final CategoryService categoryService;
+    private final CurrencyService currencyService;
+    private final LanguageService languageService;
+    private final CurrencyMapper currencyMapper;
+    private final LanguageMapper languageMapper;
+    private final UserDataVersionService userDataVersionService;
+    private final PreEncodedResponseCache preEncodedResponseCache;
+    private final PlatformTransactionManager transactionManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Semaphore sectionPermits;
+    private final Duration timeout;
+
+    public BootstrapService(AuthService authService, AccountService accountService, AccountGroupService accountGroupService,
+                            CategoryService categoryService, CurrencyService currencyService, LanguageService languageService,
+                            CurrencyMapper currencyMapper, LanguageMapper languageMapper, UserDataVersionService userDataVersionService,
+                            PreEncodedResponseCache preEncodedResponseCache, PlatformTransactionManager transactionManager,
+                            @Value("${app.bootstrap.timeout:PT10S}") Duration timeout,
+                            @Value("${app.bootstrap.max-parallel-sections:8}") int maxParallelSections) {
+        this.authService = authService;
+        this.accountService = accountService;
+        this.accountGroupService = accountGroupService;
+        this.categoryService = categoryService;
+        this.currencyService = currencyService;
+        this.languageService = languageService;
+        this.currencyMapper = currencyMapper;
+        this.languageMapper = languageMapper;
+        this.userDataVersionService = userDataVersionService;
+        this.preEncodedResponseCache = preEncodedResponseCache;
+        this.transactionManager = transactionManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.sectionPermits = new Semaphore(maxParallelSections);
+        this.timeout = timeout;
+    }
+
+    public BootstrapResponseDTO getBootstrap(String userId, Collection<String> knownETags) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        Set<String> known = knownETags == null ? Set.of()
+                : knownETags.stream().map(BootstrapService::unquote).collect(Collectors.toUnmodifiableSet());
+        // versions are read before the data, like on the list endpoints
+        SectionTags tags = new SectionTags(userDataVersionService.userETag(userId), userDataVersionService.accountsETag(userId),
+                userDataVersionService.accountGroupsETag(userId),
+                userDataVersionService.categoriesETag(userId, categoryService.getDefaultCategoriesVersion()));
+
+        Supplier<UserResponseDTO> user = known.contains(tags.user()) ? null : () -> authService.getUser(userId);
+        Supplier<List<AccountResponseDTO>> accounts = known.contains(tags.accounts()) ? null : () -> accountService.getAccounts(userId);
+        Supplier<List<AccountGroupResponseDTO>> accountGroups = known.contains(tags.accountGroups()) ? null
+                : () -> accountGroupService.getAccountGroups(userId);
+        Supplier<List<CategoryResponseDTO>> categories = known.contains(tags.categories()) ? null
+                : () -> categoryService.getAllCategories(userId);
+        int sections = (user == null ? 0 : 1) + (accounts == null ? 0 : 1) + (accountGroups == null ? 0 : 1) + (categories == null ? 0 : 1);
+
+        long started = System.nanoTime();
+        BootstrapResponseDTO response;
+        boolean parallel = sectionPermits.tryAcquire(sections);
+        if (parallel) {
+            response = loadInParallel(tags, known, deadline, user, accounts, accountGroups, categories);
+        } else {
+            response = oneConnectionTransaction(deadline).execute(status -> response(tags, known,
+                    load(user), load(accounts), load(accountGroups), load(categories)));
+        }
+        logger.info("Bootstrap for user {} assembled in {} ms ({})", userId, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started),
+                parallel ? "parallel" : "one connection");
+        return response;
+    }
+
+    // the permits of every section are held already, each submitted section gives its own back
+    private BootstrapResponseDTO loadInParallel(SectionTags tags, Set<String> known, long deadline, Supplier<UserResponseDTO> user,
+                                                Supplier<List<AccountResponseDTO>> accounts,
+                                                Supplier<List<AccountGroupResponseDTO>> accountGroups,
+                                                Supplier<List<CategoryResponseDTO>> categories) {
+        RequestQueryStats queryStats = RequestQueryStats.current();
+        List<Runnable> cancellations = new ArrayList<>(4);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            Future<UserResponseDTO> userSection = submit(executor, cancellations, queryStats, user);
+            Future<List<AccountResponseDTO>> accountsSection = submit(executor, cancellations, queryStats, accounts);
+            Future<List<AccountGroupResponseDTO>> accountGroupsSection = submit(executor, cancellations, queryStats, accountGroups);
+            Future<List<CategoryResponseDTO>> categoriesSection = submit(executor, cancellations, queryStats, categories);
+            return response(tags, known, await(userSection, deadline), await(accountsSection, deadline),
+                    await(accountGroupsSection, deadline), await(categoriesSection, deadline));
+        } finally {
+            // after a failure or the deadline nothing is left running for a response that is not coming;
+            // closing the executor instead would wait for every section
+            cancellations.forEach(Runnable::run);
+            executor.shutdownNow();
+        }
+    }
+
+    private <T> Future<T> submit(ExecutorService executor, List<Runnable> cancellations, RequestQueryStats queryStats, Supplier<T> section) {
+        if (section == null) {
+            return null;
+        }
+        // the caller's authentication goes along, replica routing reads the user from it
+        SecurityContext securityContext = SecurityContextHolder.getContext();
+        // the permit goes back exactly once: from the task when it ran, from the cancellation when the task never started
+        AtomicBoolean started = new AtomicBoolean();
+        Future<T> future = executor.submit(() -> {
+            if (!started.compareAndSet(false, true)) {
+                return null;
+            }
+            RequestQueryStats.attach(queryStats);
+            SecurityContextHolder.setContext(securityContext);
+            try {
+                return readOnlyTransaction.execute(status -> section.get());
+            } finally {
+                SecurityContextHolder.clearContext();
+                RequestQueryStats.detach();
+                sectionPermits.release();
+            }
+        });
+        cancellations.add(() -> {
+            future.cancel(true);
+            if (started.compareAndSet(false, true)) {
+                sectionPermits.release();
+            }
+        });
+        return future;
+    }
+
+    // a failed section fails the whole response with the section's own exception, so it maps to the usual error body
+    private <T> T await(Future<T> section, long deadline) {
+        if (section == null) {
+            return null;
+        }
+        try {
+            return section.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Bootstrap section failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Bootstrap timed out after " + timeout.toMillis() + " ms", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Bootstrap interrupted", e);
+        }
+    }
+
+    // what is left of the deadline becomes the transaction timeout, which the statements of the sections run under
+    private TransactionTemplate oneConnectionTransaction(long deadline) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager, readOnlyTransaction);
+        long remainingSeconds = Math.ceilDiv(deadline - System.nanoTime(), TimeUnit.SECONDS.toNanos(1));
+        transaction.setTimeout((int) Math.max(remainingSeconds, 1));
+        return transaction;
+    }
+
+    private static <T> T load(Supplier<T> section) {
+        return section == null ? null : section.get();
+    }
+
+    private BootstrapResponseDTO response(SectionTags tags, Set<String> known, UserResponseDTO user, List<AccountResponseDTO> accounts,
+                                          List<AccountGroupResponseDTO> accountGroups, List<CategoryResponseDTO> categories) {
+        return new BootstrapResponseDTO(
+                section(tags.user(), user),
+                section(tags.accounts(), accounts),
+                section(tags.accountGroups(), accountGroups),
+                section(tags.categories(), categories),
+                currencySection(known),
+                languageSection(known));
+    }
+
+    // skipped sections (data == null) are the ones the client already holds; tags are quoted like in the ETag header
+    private static <T> BootstrapSectionDTO<T> section(String etag, T data) {
+        return new BootstrapSectionDTO<>("\"" + etag + "\"", data == null, data);
+    }
+
+    private static String unquote(String etag) {
+        String tag = etag.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        return tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"") ? tag.substring(1, tag.length() - 1) : tag;
+    }
+
+    private BootstrapSectionDTO<List<CurrencyResponseDTO>> currencySection(Set<String> known) {
+        ReferenceDataSnapshot<SupportedCurrency> snapshot = currencyService.getSnapshot();
+        List<CurrencyResponseDTO> currencies = snapshot.all().stream().map(currencyMapper::toCurrencyResponseDTO).toList();
+        String etag = preEncodedResponseCache.etag(PreEncodedResponseCache.CURRENCIES, snapshot.version(), () -> currencies);
+        return section(etag, known.contains(etag) ? null : currencies);
+    }
+
+    private BootstrapSectionDTO<List<LanguageResponseDTO>> languageSection(Set<String> known) {
+        ReferenceDataSnapshot<SupportedLanguage> snapshot = languageService.getSnapshot();
+        List<LanguageResponseDTO> languages = snapshot.all().stream().map(languageMapper::toLanguageResponseDTO).toList();
+        String etag = preEncodedResponseCache.etag(PreEncodedResponseCache.LANGUAGES, snapshot.version(), () -> languages);
+        return section(etag, known.contains(etag) ? null : languages);
+    }
+}
@@ -3,19 +3,35 @@ package org.finsible.backend.service;
 import org.apache.coyote.BadRequestException;
 import org.finsible.backend.CustomExceptionHandler.EntityNotFoundException;
 import org.finsible.backend.CustomExceptionHandler.UserNotFoundException;
+import org.finsible.backend.cache.CacheInvalidationBus;
+import org.finsible.backend.cache.CacheInvalidationBus.EntityType;
 import org.finsible.backend.dto.request.CategoryRequestDTO;
 import org.finsible.backend.dto.response.CategoryResponseDTO;
+import org.finsible.backend.dto.response.CategoryTreeNodeDTO;
 import org.finsible.backend.mapper.CategoryMapper;
 import org.finsible.backend.repository.CategoryRepository;
 import org.finsible.backend.repository.UserRepository;
+import org.finsible.backend.repository.projection.CategoryTreeProjection;
 import org.finsible.backend.entity.Category;
 import org.finsible.backend.entity.User;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 @Service
 public class CategoryService {
@@ -23,59 +39,149 @@ public class CategoryService {
     private final UserRepository userRepository;
     private final CategoryRepository categoryRepository;
     private final CategoryMapper categoryMapper;
+    private final UserDataVersionService userDataVersionService;
+    private final SyncTombstoneService syncTombstoneService;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final TransactionTemplate primaryTransaction;
     private static final Logger logger = LoggerFactory.getLogger(CategoryService.class);
 
-    public CategoryService(UserRepository userRepository, CategoryRepository categoryRepository, CategoryMapper categoryMapper) {
+    private record DefaultCategoryView(long version, List<CategoryResponseDTO> all, Map<Category.CategoryType, List<CategoryResponseDTO>> byType) {}
+    // default categories are shared by every user, so they are kept pre-mapped in memory and rebuilt only after an admin change
+    // starts from the boot time so versions handed out in ETags before a restart are never reused after it
+    private final AtomicLong defaultCategoriesVersion = new AtomicLong(System.currentTimeMillis());
+    private volatile DefaultCategoryView defaultCategoryView;
+    private final LongAdder defaultCategoryHits = new LongAdder();
+    private final LongAdder defaultCategoryMisses = new LongAdder();
+
+    public CategoryService(UserRepository userRepository, CategoryRepository categoryRepository, CategoryMapper categoryMapper,
+                           UserDataVersionService userDataVersionService, SyncTombstoneService syncTombstoneService,
+                           CacheInvalidationBus cacheInvalidationBus, PlatformTransactionManager transactionManager) {
         this.userRepository = userRepository;
         this.categoryRepository = categoryRepository;
         this.categoryMapper = categoryMapper;
+        this.userDataVersionService = userDataVersionService;
+        this.syncTombstoneService = syncTombstoneService;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        // the view is rebuilt from the primary: callers are read-only transactions, which would read a replica
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.primaryTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // an admin change made through another node, or missed while not listening
+        cacheInvalidationBus.subscribe(EntityType.DEFAULT_CATEGORIES, invalidation -> defaultCategoriesVersion.incrementAndGet());
+        cacheInvalidationBus.onFlush(defaultCategoriesVersion::incrementAndGet);
     }
 
     @Transactional(readOnly = true)
     public List<CategoryResponseDTO> getAllCategories(String userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("User not found with id: " + userId));
-
-        // if user has not edited categories, then we return default categories
-        List<Category> categories = getDefaultCategories();
-
-        if(!user.isCategoriesEdited()) {
-            logger.info("Getting default categories for user with id: {}", userId);
-            return categories.stream().map(categoryMapper::toCategoryResponseDTO).toList();
-        }
-
-        logger.info("Getting default and user-specific categories for user with id: {}", userId);
-        categories.addAll(categoryRepository.findCategoriesByCreatedBy_Id(userId));
-        return categories.stream().map(categoryMapper::toCategoryResponseDTO).toList();
+        // default categories come from memory, only the user's own categories are queried
+        List<CategoryResponseDTO> categories = new ArrayList<>(getDefaultCategoryView().all());
+        categories.addAll(categoryRepository.findCategoriesByCreatedBy_Id(userId).stream()
+                .map(categoryMapper::toCategoryResponseDTO).toList());
+        logger.info("Getting {} default and user-specific categories for user with id: {}", categories.size(), userId);
+        return categories;
     }
 
     @Transactional(readOnly = true)
     public List<CategoryResponseDTO> getCategoriesByType(String userId, Category.CategoryType type) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("User not found with id: " + userId));
+        List<CategoryResponseDTO> categoriesByType = new ArrayList<>(getDefaultCategoryView().byType().getOrDefault(type, List.of()));
+        categoriesByType.addAll(categoryRepository.findCategoriesByTypeAndCreatedBy_Id(type, userId).stream()
+                .map(categoryMapper::toCategoryResponseDTO).toList());
+        logger.info("Getting {} default and user-specific categories of type {} for user with id: {}", categoriesByType.size(), type, userId);
+        return categoriesByType;
+    }
 
-        List<Category> categoriesByType = categoryRepository.findCategoriesByTypeAndCreatedBy(type, null);
+    // delta sync: default and user categories written at or after the watermark
+    @Transactional(readOnly = true)
+    public List<CategoryResponseDTO> getCategoriesChangedSince(String userId, long since) {
+        List<Category> categories = categoryRepository.findUsableChangedSince(userId, since);
+        logger.info("Found {} categories changed since {} for user with id: {}", categories.size(), since, userId);
+        return categories.stream().map(categoryMapper::toCategoryResponseDTO).toList();
+    }
 
-        if(!user.isCategoriesEdited()) {
-            logger.info("Getting default categories of type {} for user with id: {}", type, userId);
-            return categoriesByType.stream().map(categoryMapper::toCategoryResponseDTO).toList();
+    @Transactional(readOnly = true)
+    public List<CategoryTreeNodeDTO> getCategoryTree(String userId) {
+        List<CategoryTreeProjection> rows = categoryRepository.findCategoryTreeRows(userId);
+        Map<Long, CategoryTreeNodeDTO> nodesById = new HashMap<>(rows.size() * 2);
+        List<CategoryTreeNodeDTO> rootCategories = new ArrayList<>();
+
+        // every node is indexed before any is attached: a category can be made a sub-category after getting sub-categories of
+        // its own, so no row order reliably puts every parent before its children
+        for (CategoryTreeProjection row : rows) {
+            nodesById.put(row.getId(), new CategoryTreeNodeDTO(row.getId(), row.getName(), row.getIcon(), row.getType(),
+                    row.getOwnerId() == null, new ArrayList<>()));
         }
-
-        logger.info("Getting default and user-specific categories of type {} for user with id: {}", type, userId);
-        categoriesByType.addAll(categoryRepository.findCategoriesByTypeAndCreatedBy(type, user));
-        return categoriesByType.stream().map(categoryMapper::toCategoryResponseDTO).toList();
+        for (CategoryTreeProjection row : rows) {
+            CategoryTreeNodeDTO node = nodesById.get(row.getId());
+            CategoryTreeNodeDTO parent = row.getParentCategoryId() == null ? null : nodesById.get(row.getParentCategoryId());
+            if (parent == null) {
+                rootCategories.add(node);
+            } else {
+                parent.getSubCategories().add(node);
+            }
+        }
+        logger.info("Built category tree with {} categories and {} root categories for user with id: {}", rows.size(), rootCategories.size(), userId);
+        return rootCategories;
     }
 
     public List<Category> getDefaultCategories() {
         return categoryRepository.findCategoriesByCreatedBy_Id(null);
     }
 
+    public long getDefaultCategoriesVersion() {
+        return defaultCategoriesVersion.get();
+    }
+
+    public long getDefaultCategoryCacheHits() {
+        return defaultCategoryHits.sum();
+    }
+
+    public long getDefaultCategoryCacheMisses() {
+        return defaultCategoryMisses.sum();
+    }
+
+    // rebuilds the pre-mapped default categories when an admin change has bumped the version since they were cached
+    private DefaultCategoryView getDefaultCategoryView() {
+        long version = defaultCategoriesVersion.get();
+        DefaultCategoryView cached = defaultCategoryView;
+        if (cached != null && cached.version() == version) {
+            defaultCategoryHits.increment();
+            return cached;
+        }
+        defaultCategoryMisses.increment();
+        // a lagging replica could still miss the change that bumped the version, and the stale view would be kept until the next bump
+        List<CategoryResponseDTO> all = primaryTransaction.execute(status ->
+                getDefaultCategories().stream().map(categoryMapper::toCategoryResponseDTO).toList());
+        Map<Category.CategoryType, List<CategoryResponseDTO>> byType = new EnumMap<>(Category.CategoryType.class);
+        for (Category.CategoryType type : Category.CategoryType.values()) {
+            byType.put(type, all.stream().filter(category -> category.getType() == type).toList());
+        }
+        DefaultCategoryView rebuilt = new DefaultCategoryView(version, all, Collections.unmodifiableMap(byType));
+        defaultCategoryView = rebuilt;
+        logger.info("Cached {} default categories at version {}", all.size(), version);
+        return rebuilt;
+    }
+
+    // readers must not see the new version before the change is visible to them, so bump only once the transaction commits
+    private void bumpDefaultCategoriesVersion() {
+        cacheInvalidationBus.publish(EntityType.DEFAULT_CATEGORIES, null, null);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            defaultCategoriesVersion.incrementAndGet();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                defaultCategoriesVersion.incrementAndGet();
+            }
+        });
+    }
+
     @Transactional
     public CategoryResponseDTO createDefaultCategory(CategoryRequestDTO category) throws BadRequestException {
         Category defaultCategory = categoryMapper.toCategory(category);
         defaultCategory.setCreatedBy(null);
         validateParentCategory(null, category, defaultCategory);
         categoryRepository.save(defaultCategory);
+        bumpDefaultCategoriesVersion();
         logger.info("Created new default category with id: {}", defaultCategory.getId());
         return categoryMapper.toCategoryResponseDTO(defaultCategory);
     }
@@ -88,6 +194,7 @@ public class CategoryService {
         categoryMapper.updateCategoryFromDTO(categoryRequestDTO, existingDefaultCategory);
         validateParentCategory(null, categoryRequestDTO, existingDefaultCategory);
         categoryRepository.save(existingDefaultCategory);
+        bumpDefaultCategoriesVersion();
         logger.info("Updated default category with categoryId: {}", categoryId);
         return categoryMapper.toCategoryResponseDTO(existingDefaultCategory);
     }
@@ -98,6 +205,8 @@ public class CategoryService {
                 .orElseThrow(() -> new EntityNotFoundException("Category does not exist with id: " + categoryId));
 
         categoryRepository.deleteById(categoryId);
+        syncTombstoneService.recordDeletion(null, SyncTombstoneService.EntityType.CATEGORY, categoryId);
+        bumpDefaultCategoriesVersion();
         logger.info("Deleted default category with id: {}", categoryId);
     }
 
@@ -117,6 +226,7 @@ public class CategoryService {
 
         category.setCreatedBy(user);
         categoryRepository.save(category);
+        userDataVersionService.bump(userId);
         logger.info("Created new category with id: {} for user: {}", category.getId(), userId);
         return categoryMapper.toCategoryResponseDTO(category);
     }
@@ -181,6 +291,7 @@ public class CategoryService {
         validateParentCategory(userId, categoryRequestDTO, existingCategory);
 
         categoryRepository.save(existingCategory);
+        userDataVersionService.bump(userId);
         logger.info("Updated category with categoryId: {}", categoryId);
         return categoryMapper.toCategoryResponseDTO(existingCategory);
     }
@@ -194,6 +305,8 @@ public class CategoryService {
         // todo: check if category is used in any transaction or other checks, if yes, prevent deletion or show warning
         // todo: handle sub-categories/ parent existence if any
         categoryRepository.deleteById(categoryId);
+        syncTombstoneService.recordDeletion(userId, SyncTombstoneService.EntityType.CATEGORY, categoryId);
+        userDataVersionService.bump(userId);
         logger.info("Deleted category with id: {}", categoryId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,193 @@
+package org.finsible.backend.service;
+
+import org.finsible.backend.CustomExceptionHandler.EntityNotFoundException;
+import org.finsible.backend.dto.response.CreditCardStatementResponseDTO;
+import org.finsible.backend.mapper.CreditCardStatementMapper;
+import org.finsible.backend.repository.AccountRepository;
+import org.finsible.backend.repository.CreditCardStatementRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Daily statement cycle for credit cards. A card is billed on its billing day, clamped to the last day of shorter months
+ * (a card billed on the 31st closes on Feb 28/29, Apr 30, ...). Its statement covers the transactions posted to it from the
+ * previous statement date up to, not including, the statement date. Income and incoming transfers (card payments, auto-pay
+ * among them) are credits; whatever the previous statement left unpaid is carried into the amount due.
+ *
+ * Cards are processed in account id ranges, each range is one INSERT ... SELECT in its own short autocommit transaction.
+ * Ranges run on virtual threads with a semaphore capping how many hold a connection at once. Statements are unique per
+ * card and date, so a failed or repeated run is simply run again.
+ */
+@Service
+public class CreditCardStatementService {
+    private static final Logger logger = LoggerFactory.getLogger(CreditCardStatementService.class);
+    private static final String BILLED_ID_RANGE_SQL = """
+            SELECT MIN(account_id) AS first_id, MAX(account_id) AS last_id
+            FROM credit_card_details
+            WHERE billing_date BETWEEN :firstBillingDay AND :lastBillingDay
+            """;
+    // date + integer is a date in PostgreSQL, so clamping a day into a month is month start + LEAST(day, days in month) - 1
+    private static final String INSERT_STATEMENTS_SQL = """
+            INSERT INTO credit_card_statements (account_id, statement_date, period_start, due_date, total_charges, total_credits,
+                                                amount_due, transaction_count, currency_code, created_at)
+            SELECT cd.account_id, :statementDate, dates.period_start, dates.due_date, cycle.charges, cycle.credits,
+                   GREATEST(COALESCE(previous.amount_due, 0) + cycle.charges - cycle.credits, 0), cycle.transaction_count,
+                   a.currency_code, now()
+            FROM credit_card_details cd
+            JOIN accounts a ON a.id = cd.account_id
+            CROSS JOIN LATERAL (
+                SELECT CAST(:previousMonth AS date) + LEAST(cd.billing_date, :previousMonthDays) - 1 AS period_start,
+                       CASE WHEN LEAST(cd.due_date, :thisMonthDays) > :statementDay
+                            THEN CAST(:thisMonth AS date) + LEAST(cd.due_date, :thisMonthDays) - 1
+                            ELSE CAST(:nextMonth AS date) + LEAST(cd.due_date, :nextMonthDays) - 1
+                       END AS due_date
+            ) dates
+            CROSS JOIN LATERAL (
+                -- a transfer row names the account receiving the money (auto-pay writes the card), on a card it is a payment
+                SELECT COALESCE(SUM(CASE WHEN t.type = 'EXPENSE' THEN t.total_amount END), 0) AS charges,
+                       COALESCE(SUM(CASE WHEN t.type IN ('INCOME', 'TRANSFER') THEN t.total_amount END), 0) AS credits,
+                       COUNT(*) AS transaction_count
+                FROM transactions t
+                WHERE t.account_id = cd.account_id
+                  AND t.created_at >= CAST(dates.period_start AS timestamp) AT TIME ZONE 'UTC'
+                  AND t.created_at < :cycleEnd
+            ) cycle
+            -- the payments of this cycle are among its credits, so the previous due less them is what is still unpaid
+            LEFT JOIN LATERAL (
+                SELECT s.amount_due
+                FROM credit_card_statements s
+                WHERE s.account_id = cd.account_id AND s.statement_date < :statementDate
+                ORDER BY s.statement_date DESC
+                LIMIT 1
+            ) previous ON true
+            WHERE cd.billing_date BETWEEN :firstBillingDay AND :lastBillingDay
+              AND cd.account_id >= :fromId AND cd.account_id < :toId
+              AND a.is_active
+            ON CONFLICT (account_id, statement_date) DO NOTHING
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final CreditCardStatementRepository statementRepository;
+    private final AccountRepository accountRepository;
+    private final CreditCardStatementMapper statementMapper;
+    private final long chunkSize;
+    private final int parallelism;
+
+    public CreditCardStatementService(NamedParameterJdbcTemplate jdbcTemplate, CreditCardStatementRepository statementRepository,
+                                      AccountRepository accountRepository, CreditCardStatementMapper statementMapper,
+                                      @Value("${app.statements.chunk-size:5000}") long chunkSize,
+                                      @Value("${app.statements.parallelism:4}") int parallelism) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.statementRepository = statementRepository;
+        this.accountRepository = accountRepository;
+        this.statementMapper = statementMapper;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+    }
+
+    @Scheduled(cron = "${app.statements.cron:0 10 0 * * *}", zone = "UTC")
+    public void generateTodaysStatements() {
+        generateStatements(LocalDate.now(ZoneOffset.UTC));
+    }
+
+    // returns the number of statements written, cards that already have a statement for the date are skipped
+    public long generateStatements(LocalDate statementDate) {
+        long started = System.currentTimeMillis();
+        MapSqlParameterSource cycle = cycleParameters(statementDate);
+        Map<String, Object> idRange = jdbcTemplate.queryForMap(BILLED_ID_RANGE_SQL, cycle);
+        if (idRange.get("first_id") == null) {
+            logger.info("No credit cards are billed on {}", statementDate);
+            return 0;
+        }
+        long firstId = ((Number) idRange.get("first_id")).longValue();
+        long lastId = ((Number) idRange.get("last_id")).longValue();
+
+        Semaphore connections = new Semaphore(parallelism);
+        List<Future<Integer>> chunks = new ArrayList<>();
+        long written = 0;
+        int failed = 0;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long fromId = firstId; fromId <= lastId; fromId += chunkSize) {
+                MapSqlParameterSource chunk = new MapSqlParameterSource(cycle.getValues())
+                        .addValue("fromId", fromId)
+                        .addValue("toId", fromId + chunkSize);
+                chunks.add(executor.submit(() -> {
+                    connections.acquire();
+                    try {
+                        return jdbcTemplate.update(INSERT_STATEMENTS_SQL, chunk);
+                    } finally {
+                        connections.release();
+                    }
+                }));
+            }
+            for (Future<Integer> chunk : chunks) {
+                try {
+                    written += chunk.get();
+                } catch (ExecutionException e) {
+                    failed++;
+                    logger.error("Statement chunk for {} failed: {}", statementDate, e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Statement generation interrupted", e);
+        }
+        logger.info("Generated {} credit card statements for {} in {} chunks ({} failed), {} ms", written, statementDate,
+                chunks.size(), failed, System.currentTimeMillis() - started);
+        if (failed > 0) {
+            throw new IllegalStateException(failed + " of " + chunks.size() + " statement chunks failed for " + statementDate);
+        }
+        return written;
+    }
+
+    @Transactional(readOnly = true)
+    public List<CreditCardStatementResponseDTO> getStatements(String userId, Long accountId) {
+        if (!accountRepository.existsByIdAndUser_Id(accountId, userId)) {
+            throw new EntityNotFoundException("Account not found with id: " + accountId);
+        }
+        return statementRepository.findTop24ByAccountIdOrderByStatementDateDesc(accountId).stream()
+                .map(statementMapper::toCreditCardStatementResponseDTO)
+                .toList();
+    }
+
+    private static MapSqlParameterSource cycleParameters(LocalDate statementDate) {
+        YearMonth thisMonth = YearMonth.from(statementDate);
+        YearMonth previousMonth = thisMonth.minusMonths(1);
+        YearMonth nextMonth = thisMonth.plusMonths(1);
+        int statementDay = statementDate.getDayOfMonth();
+        // on the last day of a month every card billed on that day or later closes as well
+        int lastBillingDay = statementDay == thisMonth.lengthOfMonth() ? 31 : statementDay;
+        return new MapSqlParameterSource()
+                .addValue("statementDate", Date.valueOf(statementDate))
+                .addValue("statementDay", statementDay)
+                .addValue("firstBillingDay", statementDay)
+                .addValue("lastBillingDay", lastBillingDay)
+                .addValue("previousMonth", Date.valueOf(previousMonth.atDay(1)))
+                .addValue("previousMonthDays", previousMonth.lengthOfMonth())
+                .addValue("thisMonth", Date.valueOf(thisMonth.atDay(1)))
+                .addValue("thisMonthDays", thisMonth.lengthOfMonth())
+                .addValue("nextMonth", Date.valueOf(nextMonth.atDay(1)))
+                .addValue("nextMonthDays", nextMonth.lengthOfMonth())
+                .addValue("cycleEnd", Timestamp.from(statementDate.atStartOfDay(ZoneOffset.UTC).toInstant()));
+    }
+}
@@ -1,7 +1,11 @@
 package org.finsible.backend.service;
 
+import jakarta.annotation.PostConstruct;
 import org.finsible.backend.AppConstants;
 import org.finsible.backend.CustomExceptionHandler.EntityNotFoundException;
+import org.finsible.backend.cache.CacheInvalidationBus;
+import org.finsible.backend.cache.CacheInvalidationBus.EntityType;
+import org.finsible.backend.cache.ReferenceDataSnapshot;
 import org.finsible.backend.dto.request.CurrencyRequestDTO;
 import org.finsible.backend.dto.response.CurrencyResponseDTO;
 import org.finsible.backend.entity.SupportedCurrency;
@@ -10,31 +14,62 @@ import org.finsible.backend.repository.SupportedCurrencyRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 public class CurrencyService {
     private final SupportedCurrencyRepository currencyRepository;
     private final CurrencyMapper currencyMapper;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final TransactionTemplate transactionTemplate;
     private static final Logger logger = LoggerFactory.getLogger(CurrencyService.class);
+    // supported currencies rarely change, all reads are served from this snapshot and only admin writes replace it
+    private final AtomicReference<ReferenceDataSnapshot<SupportedCurrency>> snapshot =
+            new AtomicReference<>(ReferenceDataSnapshot.empty(SupportedCurrency::getCode));
 
-    public CurrencyService(SupportedCurrencyRepository currencyRepository, CurrencyMapper currencyMapper) {
+    public CurrencyService(SupportedCurrencyRepository currencyRepository, CurrencyMapper currencyMapper, CacheInvalidationBus cacheInvalidationBus,
+                           TransactionTemplate transactionTemplate) {
         this.currencyMapper = currencyMapper;
         this.currencyRepository = currencyRepository;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.transactionTemplate = transactionTemplate;
+        // changed through another node, or missed while not listening: the table is small, reload all of it
+        cacheInvalidationBus.subscribe(EntityType.CURRENCY, invalidation -> reloadSnapshot());
+        cacheInvalidationBus.onFlush(this::reloadSnapshot);
+    }
+
+    @PostConstruct
+    public void reloadSnapshot() {
+        // a read-write transaction reads the primary: a replica may not have the change yet
+        List<SupportedCurrency> currencies = transactionTemplate.execute(status -> currencyRepository.findAll());
+        snapshot.updateAndGet(current -> ReferenceDataSnapshot.of(currencies, SupportedCurrency::getCode, current.version() + 1));
+        logger.info("Loaded {} supported currencies into memory", currencies.size());
+    }
+
+    public ReferenceDataSnapshot<SupportedCurrency> getSnapshot() {
+        return snapshot.get();
     }
 
     public List<CurrencyResponseDTO> getAllSupportedCurrencies() {
-        List<SupportedCurrency> currencies = currencyRepository.findAll();
+        List<SupportedCurrency> currencies = snapshot.get().all();
         logger.info("Retrieved {} supported currencies", currencies.size());
 
         return currencies.stream().map(currencyMapper::toCurrencyResponseDTO)
                 .toList();
     }
 
+    // returns null when the code is not supported
+    public SupportedCurrency getCurrency(String code) {
+        return snapshot.get().get(code);
+    }
+
     public SupportedCurrency getCurrencyOrDefault(String code) {
-        SupportedCurrency currency = currencyRepository.findByCode(code);
+        ReferenceDataSnapshot<SupportedCurrency> currencies = snapshot.get();
+        SupportedCurrency currency = currencies.get(code);
         if (currency == null) {
-            currency = currencyRepository.findByCode(AppConstants.DEFAULT_CURRENCY_CODE);
+            currency = currencies.get(AppConstants.DEFAULT_CURRENCY_CODE);
             logger.warn("Requested default currency not found. Falling back to {}", currency.getName());
         } else {
             logger.info("Default currency set to {}", currency.getName());
@@ -45,6 +80,8 @@ public class CurrencyService {
     public CurrencyResponseDTO createSupportedCurrency(CurrencyRequestDTO currencyDTO) {
         SupportedCurrency currency = currencyMapper.toSupportedCurrency(currencyDTO);
         currencyRepository.save(currency);
+        snapshot.updateAndGet(current -> current.withRow(currency));
+        cacheInvalidationBus.publish(EntityType.CURRENCY, currency.getCode(), null);
         logger.info("Created new supported currency: {}", currency.getName());
         return currencyMapper.toCurrencyResponseDTO(currency);
     }
@@ -53,6 +90,8 @@ public class CurrencyService {
         SupportedCurrency currency = currencyRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Supported currency not found"));
         currencyRepository.delete(currency);
+        snapshot.updateAndGet(current -> current.withoutRow(currency.getCode()));
+        cacheInvalidationBus.publish(EntityType.CURRENCY, currency.getCode(), null);
         logger.info("Deleted currency with code {}", currency.getCode());
     }
 }
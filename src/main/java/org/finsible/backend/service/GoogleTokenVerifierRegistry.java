@@ -0,0 +1,114 @@
+package org.finsible.backend.service;
+
+import com.google.api.client.googleapis.auth.oauth2.GoogleAuthorizationCodeTokenRequest;
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
+import com.google.api.client.googleapis.auth.oauth2.GooglePublicKeysManager;
+import com.google.api.client.googleapis.auth.oauth2.GoogleTokenResponse;
+import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.gson.GsonFactory;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Long-lived Google sign-in infrastructure: one shared http transport, one public keys manager
+ * refreshed in the background, and one id-token verifier per audience (client id).
+ * The certificate and token endpoints are configurable so tests and load runs can point them at a local stand-in server.
+ */
+@Component
+public class GoogleTokenVerifierRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(GoogleTokenVerifierRegistry.class);
+    // GooglePublicKeysManager refreshes synchronously 5 minutes before expiry, so we refresh ahead of that
+    private static final long REFRESH_AHEAD_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    private static final long MIN_REFRESH_DELAY_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final long RETRY_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    // client ids come from the request body, so cap how many verifiers we keep
+    private static final int MAX_CACHED_AUDIENCES = 32;
+
+    private final HttpTransport transport;
+    private final JsonFactory jsonFactory = GsonFactory.getDefaultInstance();
+    private final GooglePublicKeysManager publicKeysManager;
+    private final String tokenServerUrl;
+    private final Map<String, GoogleIdTokenVerifier> verifiers = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService keyRefresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "google-public-keys-refresher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public GoogleTokenVerifierRegistry(@Value("${app.google.certs-url:https://www.googleapis.com/oauth2/v1/certs}") String certsUrl,
+                                       @Value("${app.google.token-server-url:https://oauth2.googleapis.com/token}") String tokenServerUrl)
+            throws GeneralSecurityException, IOException {
+        this.transport = GoogleNetHttpTransport.newTrustedTransport();
+        this.tokenServerUrl = tokenServerUrl;
+        this.publicKeysManager = new GooglePublicKeysManager.Builder(transport, jsonFactory)
+                .setPublicCertsEncodedUrl(certsUrl)
+                .build();
+        // warm the keys in the background so the first sign-in does not pay for the certificate fetch
+        keyRefresher.execute(this::refreshPublicKeys);
+    }
+
+    public GoogleIdTokenVerifier getVerifier(String audience) {
+        GoogleIdTokenVerifier verifier = verifiers.get(audience);
+        if (verifier != null) {
+            return verifier;
+        }
+        if (verifiers.size() >= MAX_CACHED_AUDIENCES) {
+            logger.warn("Verifier cache is full, building an uncached verifier for audience {}", audience);
+            return buildVerifier(audience);
+        }
+        return verifiers.computeIfAbsent(audience, this::buildVerifier);
+    }
+
+    public int cachedVerifierCount() {
+        return verifiers.size();
+    }
+
+    public GoogleTokenResponse exchangeAuthorizationCode(String clientId, String clientSecret, String code, String redirectUri) throws IOException {
+        return new GoogleAuthorizationCodeTokenRequest(transport, jsonFactory, tokenServerUrl, clientId, clientSecret, code, redirectUri)
+                .execute();
+    }
+
+    private GoogleIdTokenVerifier buildVerifier(String audience) {
+        // all verifiers share the same keys manager, so keys are fetched once for every audience
+        return new GoogleIdTokenVerifier.Builder(publicKeysManager)
+                .setAudience(Collections.singletonList(audience))
+                .build();
+    }
+
+    private void refreshPublicKeys() {
+        long nextRefreshInMillis;
+        try {
+            publicKeysManager.refresh();
+            long expiresInMillis = publicKeysManager.getExpirationTimeMilliseconds() - System.currentTimeMillis();
+            nextRefreshInMillis = Math.max(expiresInMillis - REFRESH_AHEAD_MILLIS, MIN_REFRESH_DELAY_MILLIS);
+            logger.info("Refreshed {} Google public keys, next refresh in {} s", publicKeysManager.getPublicKeys().size(),
+                    TimeUnit.MILLISECONDS.toSeconds(nextRefreshInMillis));
+        } catch (GeneralSecurityException | IOException | RuntimeException e) {
+            // sign-ins still work, the keys manager fetches on demand when its keys are missing or expired
+            logger.warn("Failed to refresh Google public keys: {}", e.getMessage());
+            nextRefreshInMillis = RETRY_DELAY_MILLIS;
+        }
+        if (!keyRefresher.isShutdown()) {
+            keyRefresher.schedule(this::refreshPublicKeys, nextRefreshInMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        keyRefresher.shutdownNow();
+    }
+}
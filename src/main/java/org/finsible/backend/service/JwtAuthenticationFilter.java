@@ -1,40 +1,62 @@
 package org.finsible.backend.service;
 
 import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.finsible.backend.CustomExceptionHandler.UserNotFoundException;
-import org.finsible.backend.repository.UserRepository;
+import org.finsible.backend.cache.UserExistenceCache;
+import org.finsible.backend.cache.VerifiedTokenCache;
 import org.finsible.backend.utility.CookieHandler;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
-    private final UserRepository userRepository;
     private final CookieHandler cookieHandler;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final UserExistenceCache userExistenceCache;
+    // time spent authenticating a request (not the rest of the chain), by how the request was authenticated
+    private final Timer anonymousTimer;
+    private final Timer cachedTimer;
+    private final Timer verifiedTimer;
+    private final Timer rejectedTimer;
 
-
-    public JwtAuthenticationFilter(UserRepository userRepository, CookieHandler cookieHandler) {
-        this.userRepository = userRepository;
+    public JwtAuthenticationFilter(CookieHandler cookieHandler, VerifiedTokenCache verifiedTokenCache, UserExistenceCache userExistenceCache,
+                                   MeterRegistry meterRegistry) {
         this.cookieHandler = cookieHandler;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.userExistenceCache = userExistenceCache;
+        this.anonymousTimer = authTimer(meterRegistry, "anonymous");
+        this.cachedTimer = authTimer(meterRegistry, "cached");
+        this.verifiedTimer = authTimer(meterRegistry, "verified");
+        this.rejectedTimer = authTimer(meterRegistry, "rejected");
+    }
+
+    private static Timer authTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("auth.filter")
+                .description("JWT authentication of a request")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, @NotNull HttpServletResponse response, @NotNull FilterChain filterChain) throws ServletException, IOException {
+        long started = System.nanoTime();
         String authorizationHeader = request.getHeader("Authorization");
         String jwtFromCookie = cookieHandler.extractJwtToken(request);
 
@@ -48,34 +70,41 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         if (token == null) {
+            anonymousTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
             filterChain.doFilter(request, response);
             return;
         }
 
         try {
-            Claims claims = JwtService.validateToken(token);
-            logger.info("Jwt token validation successful: User {} authenticated", claims.getSubject());
-            String userId = claims.getSubject();
-            // check in db if user exists
-            userRepository.findById(userId).orElseThrow(() -> new UserNotFoundException("User not found"));
+            // hot path: a token seen before is served from memory without re-verifying it or touching the db
+            VerifiedTokenCache.VerifiedToken verifiedToken = verifiedTokenCache.get(token);
+            Timer outcomeTimer = cachedTimer;
+            if (verifiedToken == null) {
+                outcomeTimer = verifiedTimer;
+                Claims claims = JwtService.validateToken(token);
+                logger.info("Jwt token validation successful: User {} authenticated", claims.getSubject());
+                verifiedToken = verifiedTokenCache.put(token, claims);
+            }
+            String userId = verifiedToken.userId();
+            // check if user exists
+            if (!userExistenceCache.exists(userId)) {
+                throw new UserNotFoundException("User not found");
+            }
             request.setAttribute("userId", userId);
 
             // Store user authentication in SecurityContextHolder
-            List<String> roles = claims.get("roles", List.class);
-            List<SimpleGrantedAuthority> authorities = roles != null
-                ? roles.stream().map(role -> new SimpleGrantedAuthority("ROLE_" + role)).toList()
-                : List.of(new SimpleGrantedAuthority("ROLE_USER"));
-
             UsernamePasswordAuthenticationToken authentication =
-                new UsernamePasswordAuthenticationToken(userId, null, authorities);
+                new UsernamePasswordAuthenticationToken(userId, null, verifiedToken.authorities());
 
             //ensures Spring Security recognizes the user and grants access.
             SecurityContextHolder.getContext().setAuthentication(authentication);
+            outcomeTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
         } catch (RuntimeException e) {
             logger.error("{} {}", e.getMessage(), getClass());
             cookieHandler.clearAuthenticationCookies(response);
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
             response.getWriter().write("Invalid request");
+            rejectedTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
             return;
         }
 
@@ -1,6 +1,7 @@
 package org.finsible.backend.service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.SignatureException;
@@ -21,8 +22,11 @@ public class JwtService {
     private static final long jwtExpiration= Long.parseLong(System.getenv("JWT_EXPIRATION"));
     private static final Logger logger = LoggerFactory.getLogger(JwtService.class);
 
+    // key and parser are immutable and thread-safe, so build them once instead of on every request
+    private static final Key signingKey = new SecretKeySpec(secretKey.getBytes(), SignatureAlgorithm.HS256.getJcaName()); //return "HmacSHA256
+    private static final JwtParser parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+
     public static String generateToken(String userId, List<String> roles) {
-        Key key = new SecretKeySpec(secretKey.getBytes(), SignatureAlgorithm.HS256.getJcaName()); //return "HmacSHA256
         logger.info("Generating token for user {}", userId);
         Map<String, Object> claims = new HashMap<>();
         claims.put("roles", roles);
@@ -31,18 +35,13 @@ public class JwtService {
                 .setSubject(userId)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(key)
+                .signWith(signingKey)
                 .compact();
     }
 
     public static Claims validateToken(String token) {
         try {
-            Key key = new SecretKeySpec(secretKey.getBytes(), "HmacSHA256");
-            return Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            return parser.parseClaimsJws(token).getBody();
         } catch (SignatureException e) {
             logger.error("Invalid JWT signature");
             throw new RuntimeException("Invalid JWT signature");
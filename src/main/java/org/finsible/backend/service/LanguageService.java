@@ -1,7 +1,11 @@
 package org.finsible.backend.service;
 
+import jakarta.annotation.PostConstruct;
 import org.finsible.backend.AppConstants;
 import org.finsible.backend.CustomExceptionHandler.EntityNotFoundException;
+import org.finsible.backend.cache.CacheInvalidationBus;
+import org.finsible.backend.cache.CacheInvalidationBus.EntityType;
+import org.finsible.backend.cache.ReferenceDataSnapshot;
 import org.finsible.backend.dto.request.LanguageRequestDTO;
 import org.finsible.backend.dto.response.LanguageResponseDTO;
 import org.finsible.backend.entity.SupportedLanguage;
@@ -10,22 +14,47 @@ import org.finsible.backend.repository.SupportedLanguageRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 public class LanguageService {
     private final Logger logger = LoggerFactory.getLogger(LanguageService.class);
     private final SupportedLanguageRepository languageRepository;
     private final LanguageMapper languageMapper;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final TransactionTemplate transactionTemplate;
+    // supported languages rarely change, all reads are served from this snapshot and only admin writes replace it
+    private final AtomicReference<ReferenceDataSnapshot<SupportedLanguage>> snapshot =
+            new AtomicReference<>(ReferenceDataSnapshot.empty(SupportedLanguage::getCode));
 
-    public LanguageService(SupportedLanguageRepository languageRepository, LanguageMapper languageMapper) {
+    public LanguageService(SupportedLanguageRepository languageRepository, LanguageMapper languageMapper, CacheInvalidationBus cacheInvalidationBus,
+                           TransactionTemplate transactionTemplate) {
         this.languageMapper = languageMapper;
         this.languageRepository = languageRepository;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.transactionTemplate = transactionTemplate;
+        // changed through another node, or missed while not listening: the table is small, reload all of it
+        cacheInvalidationBus.subscribe(EntityType.LANGUAGE, invalidation -> reloadSnapshot());
+        cacheInvalidationBus.onFlush(this::reloadSnapshot);
+    }
+
+    @PostConstruct
+    public void reloadSnapshot() {
+        // a read-write transaction reads the primary: a replica may not have the change yet
+        List<SupportedLanguage> languages = transactionTemplate.execute(status -> languageRepository.findAll());
+        snapshot.updateAndGet(current -> ReferenceDataSnapshot.of(languages, SupportedLanguage::getCode, current.version() + 1));
+        logger.info("Loaded {} supported languages into memory", languages.size());
+    }
+
+    public ReferenceDataSnapshot<SupportedLanguage> getSnapshot() {
+        return snapshot.get();
     }
 
     public List<LanguageResponseDTO> getAllSupportedLanguages() {
-        List<SupportedLanguage> languages = languageRepository.findAll();
+        List<SupportedLanguage> languages = snapshot.get().all();
         logger.info("Retrieved {} supported languages", languages.size());
 
         return languages.stream()
@@ -34,9 +63,10 @@ public class LanguageService {
     }
 
     public SupportedLanguage getLanguageOrDefault(String code) {
-        SupportedLanguage language = languageRepository.findByCode(code);
+        ReferenceDataSnapshot<SupportedLanguage> languages = snapshot.get();
+        SupportedLanguage language = languages.get(code);
         if (language == null) {
-            language = languageRepository.findByCode(AppConstants.DEFAULT_LANGUAGE_CODE);
+            language = languages.get(AppConstants.DEFAULT_LANGUAGE_CODE);
             logger.warn("Requested default language not found. Falling back to {}", language.getName());
         } else {
             logger.info("Default language set to {}", language.getName());
@@ -48,6 +78,8 @@ public class LanguageService {
         SupportedLanguage supportedLanguage = languageMapper.toSupportedLanguage(languageRequestDTO);
         // any validation?
         languageRepository.save(supportedLanguage);
+        snapshot.updateAndGet(current -> current.withRow(supportedLanguage));
+        cacheInvalidationBus.publish(EntityType.LANGUAGE, supportedLanguage.getCode(), null);
         logger.info("Created supported language: {}", supportedLanguage.getName());
         return languageMapper.toLanguageResponseDTO(supportedLanguage);
     }
@@ -56,6 +88,8 @@ public class LanguageService {
         SupportedLanguage supportedLanguage = languageRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Supported language not found"));
         languageRepository.delete(supportedLanguage);
+        snapshot.updateAndGet(current -> current.withoutRow(supportedLanguage.getCode()));
+        cacheInvalidationBus.publish(EntityType.LANGUAGE, supportedLanguage.getCode(), null);
         logger.info("Deleted language with code {}", supportedLanguage.getCode());
     }
 }
@@ -0,0 +1,110 @@
+package org.finsible.backend.service;
+
+import org.apache.coyote.BadRequestException;
+import org.finsible.backend.CustomExceptionHandler.EntityNotFoundException;
+import org.finsible.backend.cache.LoanScheduleCache;
+import org.finsible.backend.dto.request.LoanPrepaymentRequestDTO;
+import org.finsible.backend.dto.response.AccountResponseDTO;
+import org.finsible.backend.dto.response.LoanInstallmentResponseDTO;
+import org.finsible.backend.dto.response.LoanScheduleResponseDTO;
+import org.finsible.backend.dto.response.LoanWhatIfResponseDTO;
+import org.finsible.backend.entity.LoanDetail;
+import org.finsible.backend.loan.AmortizationCalculator;
+import org.finsible.backend.loan.AmortizationSchedule;
+import org.finsible.backend.loan.LoanTerms;
+import org.finsible.backend.loan.Prepayment;
+import org.finsible.backend.repository.LoanDetailRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+@Service
+public class LoanService {
+    private static final Logger logger = LoggerFactory.getLogger(LoanService.class);
+    private final LoanDetailRepository loanDetailRepository;
+    private final LoanScheduleCache loanScheduleCache;
+
+    public LoanService(LoanDetailRepository loanDetailRepository, LoanScheduleCache loanScheduleCache) {
+        this.loanDetailRepository = loanDetailRepository;
+        this.loanScheduleCache = loanScheduleCache;
+    }
+
+    @Transactional(readOnly = true)
+    public LoanScheduleResponseDTO getSchedule(String userId, Long accountId) throws BadRequestException {
+        LoanTerms terms = termsOf(findLoan(userId, accountId));
+        return toScheduleResponse(accountId, terms, cachedSchedule(terms));
+    }
+
+    // what-if schedules depend on the request, so they are computed every time and never cached
+    @Transactional(readOnly = true)
+    public LoanWhatIfResponseDTO getPrepaymentWhatIf(String userId, Long accountId, LoanPrepaymentRequestDTO request) throws BadRequestException {
+        LoanTerms terms = termsOf(findLoan(userId, accountId));
+        AmortizationSchedule current = cachedSchedule(terms);
+        List<Prepayment> prepayments = request.getPrepayments().stream()
+                .map(prepayment -> new Prepayment(prepayment.getDate(), prepayment.getAmount()))
+                .toList();
+        AmortizationCalculator.PrepaymentMode mode = request.getMode() != null ? request.getMode() : AmortizationCalculator.PrepaymentMode.REDUCE_TENURE;
+        AmortizationSchedule withPrepayments = AmortizationCalculator.schedule(terms, prepayments, mode);
+        logger.info("Computed a {} prepayment what-if for loan {}", mode, accountId);
+        return new LoanWhatIfResponseDTO(toScheduleResponse(accountId, terms, withPrepayments),
+                current.totalInterest().subtract(withPrepayments.totalInterest()),
+                current.installments().size() - withPrepayments.installments().size());
+    }
+
+    // fills the next EMI and outstanding principal of a loan account; loans without usable terms are left as they are
+    public void addScheduleSummary(LoanTerms terms, AccountResponseDTO accountResponseDTO) {
+        if (terms == null) {
+            return;
+        }
+        AmortizationSchedule schedule;
+        try {
+            schedule = loanScheduleCache.get(terms);
+        } catch (IllegalArgumentException e) {
+            logger.warn("No schedule for loan {}: {}", accountResponseDTO.getId(), e.getMessage());
+            return;
+        }
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        AmortizationSchedule.Installment next = schedule.nextInstallment(today);
+        if (next != null) {
+            accountResponseDTO.setNextEmiDate(next.dueDate());
+            accountResponseDTO.setNextEmiAmount(next.emi());
+        }
+        accountResponseDTO.setOutstandingPrincipal(schedule.outstandingOn(today));
+        accountResponseDTO.setRemainingInstallments(schedule.remainingInstallments(today));
+    }
+
+    private LoanDetail findLoan(String userId, Long accountId) {
+        return loanDetailRepository.findByAccountIdAndAccount_User_Id(accountId, userId)
+                .orElseThrow(() -> new EntityNotFoundException("Loan account not found with id: " + accountId));
+    }
+
+    private static LoanTerms termsOf(LoanDetail loanDetail) throws BadRequestException {
+        LoanTerms terms = LoanTerms.of(loanDetail);
+        if (terms == null) {
+            throw new BadRequestException("Loan needs a principal amount, tenure and start date for a schedule");
+        }
+        return terms;
+    }
+
+    private AmortizationSchedule cachedSchedule(LoanTerms terms) throws BadRequestException {
+        try {
+            return loanScheduleCache.get(terms);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+    }
+
+    private static LoanScheduleResponseDTO toScheduleResponse(Long accountId, LoanTerms terms, AmortizationSchedule schedule) {
+        List<LoanInstallmentResponseDTO> installments = schedule.installments().stream()
+                .map(installment -> new LoanInstallmentResponseDTO(installment.number(), installment.dueDate(), installment.emi(),
+                        installment.interest(), installment.principal(), installment.prepayment(), installment.outstanding()))
+                .toList();
+        LocalDate endDate = installments.isEmpty() ? null : installments.getLast().getDueDate();
+        return new LoanScheduleResponseDTO(accountId, terms.principal(), schedule.totalInterest(), schedule.totalPayment(), endDate, installments);
+    }
+}
@@ -0,0 +1,175 @@
+package org.finsible.backend.service;
+
+import org.finsible.backend.entity.MonthlyCategorySpend;
+import org.finsible.backend.entity.Transaction;
+import org.finsible.backend.monitoring.RequestQueryStats;
+import org.finsible.backend.utility.TransactionScopedBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Keeps monthly_category_spend in step with the transactions table. Every transaction write adds (or takes back) its
+ * contribution, merged per rollup row for the current database transaction and upserted just before commit, so the rollup
+ * is never visible out of sync with the transactions it summarizes.
+ */
+@Service
+public class MonthlySpendRollupService {
+    private static final Logger logger = LoggerFactory.getLogger(MonthlySpendRollupService.class);
+    private static final String UPSERT_SQL = """
+            INSERT INTO monthly_category_spend (user_id, month, category_id, currency_code, spent, received, transaction_count)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (user_id, month, category_id, currency_code) DO UPDATE
+            SET spent = monthly_category_spend.spent + EXCLUDED.spent,
+                received = monthly_category_spend.received + EXCLUDED.received,
+                transaction_count = monthly_category_spend.transaction_count + EXCLUDED.transaction_count
+            """;
+    // users are split into partitions by a hash of their id, each partition is rebuilt in its own transaction
+    private static final String PARTITION_FILTER = "(hashtext(%s) & 2147483647) %% ? = ?";
+    private static final String DELETE_PARTITION_SQL = "DELETE FROM monthly_category_spend WHERE " + PARTITION_FILTER.formatted("user_id");
+    private static final String REBUILD_PARTITION_SQL = """
+            INSERT INTO monthly_category_spend (user_id, month, category_id, currency_code, spent, received, transaction_count)
+            SELECT paid_by_id,
+                   date_trunc('month', created_at AT TIME ZONE 'UTC')::date,
+                   COALESCE(category_id, 0),
+                   currency_code,
+                   SUM(CASE WHEN type = 'EXPENSE' THEN COALESCE(user_share, total_amount, 0) ELSE 0 END),
+                   SUM(CASE WHEN type = 'INCOME' THEN COALESCE(user_share, total_amount, 0) ELSE 0 END),
+                   COUNT(*)
+            FROM transactions
+            WHERE paid_by_id IS NOT NULL AND type IN ('EXPENSE', 'INCOME') AND %s
+            GROUP BY 1, 2, 3, 4
+            """.formatted(PARTITION_FILTER.formatted("paid_by_id"));
+
+    private record RollupKey(String userId, LocalDate month, long categoryId, String currencyCode) {
+    }
+
+    private record RollupDelta(BigDecimal spent, BigDecimal received, long transactionCount) {
+        RollupDelta plus(RollupDelta other) {
+            return new RollupDelta(spent.add(other.spent), received.add(other.received), transactionCount + other.transactionCount);
+        }
+    }
+
+    // fixed key order, so concurrent transactions upsert shared rows in the same order
+    private static final Comparator<RollupKey> KEY_ORDER = Comparator.comparing(RollupKey::userId)
+            .thenComparing(RollupKey::month)
+            .thenComparingLong(RollupKey::categoryId)
+            .thenComparing(RollupKey::currencyCode);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int rebuildPartitions;
+    private final TransactionScopedBuffer<RollupKey, RollupDelta> pendingDeltas =
+            new TransactionScopedBuffer<>(() -> new TreeMap<>(KEY_ORDER), RollupDelta::plus, this::apply);
+
+    public MonthlySpendRollupService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                     @Value("${app.reports.rollup-rebuild.partitions:4}") int rebuildPartitions) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.rebuildPartitions = rebuildPartitions;
+    }
+
+    public static LocalDate monthOf(Instant instant) {
+        return instant.atZone(ZoneOffset.UTC).toLocalDate().withDayOfMonth(1);
+    }
+
+    public void record(Transaction transaction) {
+        add(transaction, 1);
+    }
+
+    public void reverse(Transaction transaction) {
+        add(transaction, -1);
+    }
+
+    private void add(Transaction transaction, int sign) {
+        String userId = transaction.getPaidBy() == null ? null : transaction.getPaidBy().getId();
+        Long categoryId = transaction.getCategory() == null ? null : transaction.getCategory().getId();
+        BigDecimal amount = transaction.getUserShare() != null ? transaction.getUserShare() : transaction.getTotalAmount();
+        add(userId, transaction.getCreatedAt(), categoryId, transaction.getCurrencyCode(), transaction.getType(), amount, sign);
+    }
+
+    // sign is +1 for a new contribution and -1 to take back an old one
+    public void add(String userId, Instant createdAt, Long categoryId, String currencyCode, Transaction.TransactionType type,
+                    BigDecimal amount, int sign) {
+        if (userId == null || createdAt == null || type == Transaction.TransactionType.TRANSFER) {
+            return;
+        }
+        BigDecimal signedAmount = amount == null ? BigDecimal.ZERO : (sign < 0 ? amount.negate() : amount);
+        RollupDelta delta = type == Transaction.TransactionType.EXPENSE
+                ? new RollupDelta(signedAmount, BigDecimal.ZERO, sign)
+                : new RollupDelta(BigDecimal.ZERO, signedAmount, sign);
+        RollupKey key = new RollupKey(userId, monthOf(createdAt), categoryId == null ? MonthlyCategorySpend.UNCATEGORIZED : categoryId, currencyCode);
+        pendingDeltas.add(key, delta);
+    }
+
+    private void apply(Map<RollupKey, RollupDelta> deltas) {
+        List<Object[]> batch = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) -> {
+            if (delta.transactionCount() != 0 || delta.spent().signum() != 0 || delta.received().signum() != 0) {
+                batch.add(new Object[]{key.userId(), Date.valueOf(key.month()), key.categoryId(), key.currencyCode(),
+                        delta.spent(), delta.received(), delta.transactionCount()});
+            }
+        });
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, batch);
+        }
+    }
+
+    /**
+     * Recomputes the whole rollup from the transactions table, partitions in parallel.
+     * Meant for repairs and backfills: a partition is replaced in one transaction, but writes committed while it is being
+     * recomputed can be counted twice or not at all, so run it when the write load is low.
+     */
+    public long rebuild() {
+        long started = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(rebuildPartitions);
+        // the partitions count towards the statements of the request that started the rebuild
+        RequestQueryStats queryStats = RequestQueryStats.current();
+        try {
+            List<Future<Integer>> partitions = new ArrayList<>(rebuildPartitions);
+            for (int partition = 0; partition < rebuildPartitions; partition++) {
+                int current = partition;
+                partitions.add(executor.submit(() -> {
+                    RequestQueryStats.attach(queryStats);
+                    try {
+                        return transactionTemplate.execute(status -> {
+                            jdbcTemplate.update(DELETE_PARTITION_SQL, rebuildPartitions, current);
+                            return jdbcTemplate.update(REBUILD_PARTITION_SQL, rebuildPartitions, current);
+                        });
+                    } finally {
+                        RequestQueryStats.detach();
+                    }
+                }));
+            }
+            long rows = 0;
+            for (Future<Integer> partition : partitions) {
+                Integer partitionRows = partition.get();
+                rows += partitionRows == null ? 0 : partitionRows;
+            }
+            logger.info("Rebuilt monthly spend rollup: {} rows in {} partitions, {} ms", rows, rebuildPartitions,
+                    System.currentTimeMillis() - started);
+            return rows;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Rollup rebuild interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Rollup rebuild failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
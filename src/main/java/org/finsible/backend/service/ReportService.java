@@ -0,0 +1,51 @@
+package org.finsible.backend.service;
+
+import org.apache.coyote.BadRequestException;
+import org.finsible.backend.dto.response.MonthlySpendResponseDTO;
+import org.finsible.backend.entity.MonthlyCategorySpend;
+import org.finsible.backend.repository.MonthlyCategorySpendRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+
+@Service
+public class ReportService {
+    public static final int DEFAULT_MONTHS = 12;
+    public static final int MAX_MONTHS = 120;
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportService.class);
+    private final MonthlyCategorySpendRepository monthlyCategorySpendRepository;
+
+    public ReportService(MonthlyCategorySpendRepository monthlyCategorySpendRepository) {
+        this.monthlyCategorySpendRepository = monthlyCategorySpendRepository;
+    }
+
+    // reads only the rollup: at most months x categories x currencies rows, however many transactions the user has
+    @Transactional(readOnly = true)
+    public List<MonthlySpendResponseDTO> getMonthlySpend(String userId, YearMonth from, YearMonth to) throws BadRequestException {
+        YearMonth last = to != null ? to : YearMonth.now(ZoneOffset.UTC);
+        YearMonth first = from != null ? from : last.minusMonths(DEFAULT_MONTHS - 1);
+        if (first.isAfter(last)) {
+            throw new BadRequestException("'from' must not be after 'to'");
+        }
+        // both ends count, so the last allowed month is MAX_MONTHS - 1 after the first
+        if (first.plusMonths(MAX_MONTHS - 1).isBefore(last)) {
+            throw new BadRequestException("A report can cover at most " + MAX_MONTHS + " months");
+        }
+
+        List<MonthlyCategorySpend> rows = monthlyCategorySpendRepository.findByUserIdAndMonthBetweenOrderByMonthAscCategoryIdAsc(
+                userId, first.atDay(1), last.atDay(1));
+        logger.info("Fetched {} monthly spend rows for user {} ({} to {})", rows.size(), userId, first, last);
+        return rows.stream()
+                .filter(row -> row.getTransactionCount() > 0) // rows whose transactions were all deleted
+                .map(row -> new MonthlySpendResponseDTO(YearMonth.from(row.getMonth()),
+                        row.getCategoryId() == MonthlyCategorySpend.UNCATEGORIZED ? null : row.getCategoryId(),
+                        row.getCurrencyCode(), row.getSpent(), row.getReceived(), row.getTransactionCount()))
+                .toList();
+    }
+}
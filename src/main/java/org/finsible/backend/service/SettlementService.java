@@ -0,0 +1,74 @@
+package org.finsible.backend.service;
+
+import org.finsible.backend.CustomExceptionHandler.EntityNotFoundException;
+import org.finsible.backend.dto.response.SettlementResponseDTO;
+import org.finsible.backend.settlement.DebtSimplificationEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class SettlementService {
+    // split_balances amounts are DECIMAL(19, 4), the engine works on longs of 1/10000 units
+    private static final int AMOUNT_SCALE = 4;
+    private static final String MEMBERSHIP_SQL = """
+            SELECT EXISTS (SELECT 1 FROM space_user_details WHERE space_id = ? AND user_id = ? AND is_active IS NOT FALSE)
+            """;
+    // a split_balances row means user1 owes user2 remaining_amount; each row is counted once for each side
+    private static final String NET_POSITIONS_SQL = """
+            SELECT side.email AS email, MAX(side.name) AS name, SUM(side.delta) AS position
+            FROM split_balances b
+            CROSS JOIN LATERAL (VALUES (b.user1_email, b.user1_name, -b.remaining_amount),
+                                       (b.user2_email, b.user2_name, b.remaining_amount)) AS side(email, name, delta)
+            WHERE b.space_id = ? AND b.is_fully_settled IS NOT TRUE AND b.remaining_amount <> 0
+            GROUP BY side.email
+            HAVING SUM(side.delta) <> 0
+            """;
+
+    private static final Logger logger = LoggerFactory.getLogger(SettlementService.class);
+    private final JdbcTemplate jdbcTemplate;
+
+    public SettlementService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // the database nets every member's open balances in one aggregate, only one row per member reaches the engine
+    @Transactional(readOnly = true)
+    public List<SettlementResponseDTO> getSettlements(String userId, Long spaceId) {
+        Boolean member = jdbcTemplate.queryForObject(MEMBERSHIP_SQL, Boolean.class, spaceId, userId);
+        if (!Boolean.TRUE.equals(member)) {
+            throw new EntityNotFoundException("Space not found with id: " + spaceId);
+        }
+
+        List<String> emails = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        List<Long> positionList = new ArrayList<>();
+        jdbcTemplate.query(NET_POSITIONS_SQL, rs -> {
+            emails.add(rs.getString("email"));
+            names.add(rs.getString("name"));
+            positionList.add(rs.getBigDecimal("position").movePointRight(AMOUNT_SCALE).longValueExact());
+        }, spaceId);
+
+        long[] positions = new long[positionList.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = positionList.get(i);
+        }
+        DebtSimplificationEngine.Settlements settlements = DebtSimplificationEngine.simplify(positions);
+
+        List<SettlementResponseDTO> transfers = new ArrayList<>(settlements.size());
+        for (int i = 0; i < settlements.size(); i++) {
+            int from = settlements.from()[i];
+            int to = settlements.to()[i];
+            transfers.add(new SettlementResponseDTO(emails.get(from), names.get(from), emails.get(to), names.get(to),
+                    BigDecimal.valueOf(settlements.amount()[i], AMOUNT_SCALE)));
+        }
+        logger.info("Computed {} settlement transfers for {} members with open balances in space {}", transfers.size(), positions.length, spaceId);
+        return transfers;
+    }
+}
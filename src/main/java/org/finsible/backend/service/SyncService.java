@@ -0,0 +1,94 @@
+package org.finsible.backend.service;
+
+import org.apache.coyote.BadRequestException;
+import org.finsible.backend.dto.response.AccountGroupResponseDTO;
+import org.finsible.backend.dto.response.AccountResponseDTO;
+import org.finsible.backend.dto.response.CategoryResponseDTO;
+import org.finsible.backend.dto.response.SyncResponseDTO;
+import org.finsible.backend.dto.response.SyncTombstoneDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Delta sync of accounts, account groups and categories. A watermark is "<snapshot xmin>.<issued at, epoch seconds>":
+ * rows are stamped with the id of the transaction that last wrote them (see V10 migration), and everything committed
+ * after the sync read its snapshot has an id at or above that snapshot's xmin. All reads share one repeatable-read
+ * snapshot, so the watermark and the rows agree.
+ */
+@Service
+public class SyncService {
+    private static final Logger logger = LoggerFactory.getLogger(SyncService.class);
+    private static final String SNAPSHOT_XMIN_SQL = "SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint";
+    private static final String TOMBSTONES_SQL = """
+            SELECT entity_type, entity_id FROM sync_tombstones
+            WHERE (user_id = ? OR user_id IS NULL) AND change_seq >= ?
+            ORDER BY id
+            """;
+
+    private record Watermark(long changeSeq, Instant issuedAt) {
+        static Watermark parse(String value) throws BadRequestException {
+            String[] parts = value.split("\\.");
+            try {
+                if (parts.length == 2) {
+                    return new Watermark(Long.parseLong(parts[0]), Instant.ofEpochSecond(Long.parseLong(parts[1])));
+                }
+            } catch (NumberFormatException e) {
+                // reported below
+            }
+            throw new BadRequestException("Invalid sync watermark: " + value);
+        }
+
+        String format() {
+            return changeSeq + "." + issuedAt.getEpochSecond();
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AccountService accountService;
+    private final AccountGroupService accountGroupService;
+    private final CategoryService categoryService;
+    private final SyncTombstoneService syncTombstoneService;
+
+    public SyncService(JdbcTemplate jdbcTemplate, AccountService accountService, AccountGroupService accountGroupService,
+                       CategoryService categoryService, SyncTombstoneService syncTombstoneService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.accountService = accountService;
+        this.accountGroupService = accountGroupService;
+        this.categoryService = categoryService;
+        this.syncTombstoneService = syncTombstoneService;
+    }
+
+    // since == null, or a watermark older than the tombstone retention, gets a full sync
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public SyncResponseDTO sync(String userId, String since) throws BadRequestException {
+        Watermark previous = since == null || since.isBlank() ? null : Watermark.parse(since);
+        Instant now = Instant.now();
+        // first statement of the transaction, so this is the snapshot every read below uses
+        Long snapshotXmin = jdbcTemplate.queryForObject(SNAPSHOT_XMIN_SQL, Long.class);
+        Watermark next = new Watermark(snapshotXmin == null ? 0 : snapshotXmin, now);
+
+        boolean full = previous == null || previous.issuedAt().isBefore(now.minus(syncTombstoneService.getRetention()));
+        long changedSince = full ? 0 : previous.changeSeq();
+        // loan next-EMI fields move with the date, so loans are resent once a day
+        boolean includeLoans = full || LocalDate.ofInstant(previous.issuedAt(), ZoneOffset.UTC).isBefore(LocalDate.ofInstant(now, ZoneOffset.UTC));
+
+        List<AccountResponseDTO> accounts = accountService.getAccountsChangedSince(userId, changedSince, includeLoans);
+        List<AccountGroupResponseDTO> accountGroups = accountGroupService.getAccountGroupsChangedSince(userId, changedSince);
+        List<CategoryResponseDTO> categories = categoryService.getCategoriesChangedSince(userId, changedSince);
+        List<SyncTombstoneDTO> deleted = full ? List.of() : jdbcTemplate.query(TOMBSTONES_SQL,
+                (rs, rowNum) -> new SyncTombstoneDTO(rs.getString("entity_type"), rs.getLong("entity_id")), userId, changedSince);
+
+        logger.info("Sync for user {} since {} ({}): {} accounts, {} account groups, {} categories, {} deleted", userId, since,
+                full ? "full" : "delta", accounts.size(), accountGroups.size(), categories.size(), deleted.size());
+        return new SyncResponseDTO(next.format(), full, accounts, accountGroups, categories, deleted);
+    }
+}
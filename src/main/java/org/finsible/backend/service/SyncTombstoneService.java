@@ -0,0 +1,47 @@
+package org.finsible.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+
+// deletes are recorded in the deleting transaction, so a tombstone exists exactly when the delete committed
+@Service
+public class SyncTombstoneService {
+    private static final Logger logger = LoggerFactory.getLogger(SyncTombstoneService.class);
+    private static final String INSERT_SQL = "INSERT INTO sync_tombstones (user_id, entity_type, entity_id) VALUES (?, ?, ?)";
+    private static final String PURGE_SQL = "DELETE FROM sync_tombstones WHERE deleted_at < ?";
+
+    public enum EntityType {
+        ACCOUNT, CATEGORY, ACCOUNT_GROUP
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration retention;
+
+    public SyncTombstoneService(JdbcTemplate jdbcTemplate, @Value("${app.sync.tombstone-retention:P90D}") Duration retention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.retention = retention;
+    }
+
+    // userId is null for shared rows (default categories)
+    public void recordDeletion(String userId, EntityType entityType, Long entityId) {
+        jdbcTemplate.update(INSERT_SQL, userId, entityType.name(), entityId);
+    }
+
+    public Duration getRetention() {
+        return retention;
+    }
+
+    @Scheduled(cron = "${app.sync.tombstone-purge-cron:0 30 3 * * *}", zone = "UTC")
+    public void purgeExpiredTombstones() {
+        int purged = jdbcTemplate.update(PURGE_SQL, Timestamp.from(Instant.now().minus(retention)));
+        logger.info("Purged {} sync tombstones older than {}", purged, retention);
+    }
+}
@@ -0,0 +1,191 @@
+package org.finsible.backend.service;
+
+import org.apache.coyote.BadRequestException;
+import org.finsible.backend.CustomExceptionHandler.UserNotFoundException;
+import org.finsible.backend.dto.response.ImportProgressResponseDTO;
+import org.finsible.backend.entity.User;
+import org.finsible.backend.importer.ImportProgressTracker;
+import org.finsible.backend.importer.ImportedTransaction;
+import org.finsible.backend.importer.InvalidImportRowException;
+import org.finsible.backend.importer.TransactionRowReader;
+import org.finsible.backend.repository.AccountRepository;
+import org.finsible.backend.repository.CategoryRepository;
+import org.finsible.backend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Bulk import of bank history. The request body is parsed row by row and valid rows are written with plain JDBC batch
+ * inserts (rewritten into multi-row inserts by the driver, see reWriteBatchedInserts), one committed transaction per chunk,
+ * so memory use does not depend on the file size and progress is visible while the upload is running.
+ * Ids come from the transactions_id_seq column default, the entity mapping is not involved.
+ */
+@Service
+public class TransactionImportService {
+    static final int CHUNK_SIZE = 1000;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final String INSERT_SQL = """
+            INSERT INTO transactions (type, total_amount, user_share, is_split, paid_by_id, category_id, account_id,
+                                      description, currency_code, created_at, updated_at, created_by, updated_by)
+            VALUES (?, ?, ?, false, ?, ?, ?, ?, ?, ?, now(), ?, ?)
+            """;
+    private static final int[] PARAMETER_TYPES = {
+            Types.VARCHAR, Types.NUMERIC, Types.NUMERIC, Types.VARCHAR, Types.BIGINT, Types.BIGINT, Types.VARCHAR,
+            Types.VARCHAR, Types.TIMESTAMP, Types.VARCHAR, Types.VARCHAR
+    };
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionImportService.class);
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserRepository userRepository;
+    private final AccountRepository accountRepository;
+    private final CategoryRepository categoryRepository;
+    private final CurrencyService currencyService;
+    private final ImportProgressTracker importProgressTracker;
+    private final BalancePostingService balancePostingService;
+    private final MonthlySpendRollupService monthlySpendRollupService;
+    private final UserDataVersionService userDataVersionService;
+
+    public TransactionImportService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, UserRepository userRepository,
+                                    AccountRepository accountRepository, CategoryRepository categoryRepository,
+                                    CurrencyService currencyService, ImportProgressTracker importProgressTracker,
+                                    BalancePostingService balancePostingService, MonthlySpendRollupService monthlySpendRollupService,
+                                    UserDataVersionService userDataVersionService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.userRepository = userRepository;
+        this.accountRepository = accountRepository;
+        this.categoryRepository = categoryRepository;
+        this.currencyService = currencyService;
+        this.importProgressTracker = importProgressTracker;
+        this.balancePostingService = balancePostingService;
+        this.monthlySpendRollupService = monthlySpendRollupService;
+        this.userDataVersionService = userDataVersionService;
+    }
+
+    // chunks already written stay committed when a later chunk fails, the returned counts say how far the import got
+    public ImportProgressResponseDTO importTransactions(String userId, TransactionRowReader.ImportFormat format, Long defaultAccountId,
+                                                        InputStream body) throws BadRequestException, IOException {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new UserNotFoundException("User not found with id: " + userId));
+        // the ids a row may reference, loaded once instead of checked per row
+        Set<Long> accountIds = new HashSet<>(accountRepository.findIdsByUserId(userId));
+        Set<Long> categoryIds = new HashSet<>(categoryRepository.findIdsUsableBy(userId));
+        if (defaultAccountId != null && !accountIds.contains(defaultAccountId)) {
+            throw new BadRequestException("Account not found with id: " + defaultAccountId);
+        }
+        String defaultCurrency = user.getDefaultCurrency().getCode();
+
+        ImportProgressTracker.ImportProgress progress = importProgressTracker.start(userId);
+        boolean succeeded = false;
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), READ_BUFFER_SIZE);
+            TransactionRowReader rows = TransactionRowReader.forFormat(format, reader, defaultAccountId);
+            List<ImportedTransaction> chunk = new ArrayList<>(CHUNK_SIZE);
+            while (true) {
+                ImportedTransaction row;
+                try {
+                    row = rows.next();
+                } catch (InvalidImportRowException e) {
+                    progress.rowRead();
+                    progress.rejected(e.getLineNumber(), e.getMessage());
+                    continue;
+                }
+                if (row == null) {
+                    break;
+                }
+                progress.rowRead();
+                String rejection = validate(row, accountIds, categoryIds);
+                if (rejection != null) {
+                    progress.rejected(row.lineNumber(), rejection);
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == CHUNK_SIZE) {
+                    writeChunk(userId, defaultCurrency, chunk);
+                    progress.imported(chunk.size());
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeChunk(userId, defaultCurrency, chunk);
+                progress.imported(chunk.size());
+            }
+            succeeded = true;
+        } catch (InvalidImportRowException e) {
+            // only thrown outside next() for an unusable header
+            throw new BadRequestException(e.getMessage());
+        } finally {
+            importProgressTracker.finish(progress, succeeded);
+            logger.info("Import for user {} finished ({}): {} rows read, {} imported, {} rejected", userId, progress.getStatus(),
+                    progress.getRowsRead(), progress.getRowsImported(), progress.getRowsRejected());
+        }
+        return toResponse(progress);
+    }
+
+    public ImportProgressResponseDTO getProgress(String userId) {
+        ImportProgressTracker.ImportProgress progress = importProgressTracker.get(userId);
+        return progress == null ? null : toResponse(progress);
+    }
+
+    private String validate(ImportedTransaction row, Set<Long> accountIds, Set<Long> categoryIds) {
+        if (row.accountId() != null && !accountIds.contains(row.accountId())) {
+            return "Account not found with id: " + row.accountId();
+        }
+        if (row.categoryId() != null && !categoryIds.contains(row.categoryId())) {
+            return "Category not found with id: " + row.categoryId();
+        }
+        if (row.currencyCode() != null && currencyService.getCurrency(row.currencyCode()) == null) {
+            return "Unsupported currency: " + row.currencyCode();
+        }
+        return null;
+    }
+
+    private static Object[] toParameters(String userId, ImportedTransaction row, String defaultCurrency) {
+        return new Object[]{
+                row.type().name(), row.amount(), row.amount(), userId, row.categoryId(), row.accountId(), row.description(),
+                currencyOf(row, defaultCurrency), Timestamp.from(row.date()), userId, userId
+        };
+    }
+
+    // balances and the monthly rollup move in the same transaction as the rows
+    private void writeChunk(String userId, String defaultCurrency, List<ImportedTransaction> chunk) {
+        List<Object[]> parameters = new ArrayList<>(chunk.size());
+        for (ImportedTransaction row : chunk) {
+            parameters.add(toParameters(userId, row, defaultCurrency));
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_SQL, parameters, PARAMETER_TYPES);
+            for (ImportedTransaction row : chunk) {
+                balancePostingService.post(row.accountId(), BalancePostingService.signedAmount(row.type(), row.amount()));
+                monthlySpendRollupService.add(userId, row.date(), row.categoryId(), currencyOf(row, defaultCurrency), row.type(),
+                        row.amount(), 1);
+            }
+            userDataVersionService.bump(userId);
+        });
+    }
+
+    private static String currencyOf(ImportedTransaction row, String defaultCurrency) {
+        return row.currencyCode() != null ? row.currencyCode() : defaultCurrency;
+    }
+
+    private static ImportProgressResponseDTO toResponse(ImportProgressTracker.ImportProgress progress) {
+        return new ImportProgressResponseDTO(progress.getStatus().name(), progress.getRowsRead(), progress.getRowsImported(),
+                progress.getRowsRejected(), progress.getErrors(), progress.getStartedAt(), progress.getFinishedAt());
+    }
+}
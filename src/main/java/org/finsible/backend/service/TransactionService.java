@@ -0,0 +1,205 @@
+package org.finsible.backend.service;
+
+import org.apache.coyote.BadRequestException;
+import org.finsible.backend.CustomExceptionHandler.EntityNotFoundException;
+import org.finsible.backend.CustomExceptionHandler.UserNotFoundException;
+import org.finsible.backend.dto.request.TransactionRequestDTO;
+import org.finsible.backend.dto.response.TransactionPageResponseDTO;
+import org.finsible.backend.dto.response.TransactionResponseDTO;
+import org.finsible.backend.entity.SupportedCurrency;
+import org.finsible.backend.entity.Transaction;
+import org.finsible.backend.entity.User;
+import org.finsible.backend.mapper.TransactionMapper;
+import org.finsible.backend.repository.AccountRepository;
+import org.finsible.backend.repository.CategoryRepository;
+import org.finsible.backend.repository.TransactionRepository;
+import org.finsible.backend.repository.UserRepository;
+import org.finsible.backend.utility.KeysetCursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.finsible.backend.repository.specification.TransactionSpecifications.*;
+
+@Service
+public class TransactionService {
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+    // matches the (paid_by_id, ..., created_at DESC, id DESC) indexes, id breaks ties between rows with the same timestamp
+    private static final Sort LISTING_ORDER = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionService.class);
+    private final TransactionRepository transactionRepository;
+    private final UserRepository userRepository;
+    private final AccountRepository accountRepository;
+    private final CategoryRepository categoryRepository;
+    private final CurrencyService currencyService;
+    private final TransactionMapper transactionMapper;
+    private final BalancePostingService balancePostingService;
+    private final MonthlySpendRollupService monthlySpendRollupService;
+    private final UserDataVersionService userDataVersionService;
+
+    public TransactionService(TransactionRepository transactionRepository, UserRepository userRepository, AccountRepository accountRepository,
+                              CategoryRepository categoryRepository, CurrencyService currencyService, TransactionMapper transactionMapper,
+                              BalancePostingService balancePostingService, MonthlySpendRollupService monthlySpendRollupService,
+                              UserDataVersionService userDataVersionService) {
+        this.transactionRepository = transactionRepository;
+        this.userRepository = userRepository;
+        this.accountRepository = accountRepository;
+        this.categoryRepository = categoryRepository;
+        this.currencyService = currencyService;
+        this.transactionMapper = transactionMapper;
+        this.balancePostingService = balancePostingService;
+        this.monthlySpendRollupService = monthlySpendRollupService;
+        this.userDataVersionService = userDataVersionService;
+    }
+
+    public record TransactionFilter(Long accountId, Long categoryId, Transaction.TransactionType type, Long spaceId, Instant from, Instant to) {
+    }
+
+    /**
+     * One page of the user's transactions, newest first.
+     * Keyset pagination: the cursor carries the (createdAt, id) of the last row of the previous page, so every page is an index
+     * range scan of the same cost no matter how deep the client has scrolled.
+     */
+    @Transactional(readOnly = true)
+    public TransactionPageResponseDTO getTransactions(String userId, TransactionFilter filter, String cursor, Integer size) throws BadRequestException {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : size;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (filter.from() != null && filter.to() != null && !filter.from().isBefore(filter.to())) {
+            throw new BadRequestException("'from' must be before 'to'");
+        }
+        KeysetCursor after = KeysetCursor.decode(cursor);
+
+        Specification<Transaction> specification = Specification.where(paidBy(userId))
+                .and(inAccount(filter.accountId()))
+                .and(inCategory(filter.categoryId()))
+                .and(ofType(filter.type()))
+                .and(inSpace(filter.spaceId()))
+                .and(createdFrom(filter.from()))
+                .and(createdBefore(filter.to()))
+                .and(after == null ? null : after(after.createdAt(), after.id()));
+
+        // one extra row tells us whether there is a next page without a count query
+        List<Transaction> rows = transactionRepository.findBy(specification,
+                query -> query.sortBy(LISTING_ORDER).limit(pageSize + 1).all());
+
+        boolean hasMore = rows.size() > pageSize;
+        List<Transaction> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            Transaction last = page.getLast();
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        logger.info("Fetched {} transactions for user {}, hasMore: {}", page.size(), userId, hasMore);
+        return new TransactionPageResponseDTO(page.stream().map(transactionMapper::toTransactionResponseDTO).toList(), nextCursor, hasMore);
+    }
+
+    @Transactional(readOnly = true)
+    public TransactionResponseDTO getTransaction(String userId, Long transactionId) {
+        return transactionMapper.toTransactionResponseDTO(findOwnedTransaction(userId, transactionId));
+    }
+
+    @Transactional
+    public TransactionResponseDTO createTransaction(String userId, TransactionRequestDTO transactionRequestDTO) throws BadRequestException {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new UserNotFoundException("User not found with id: " + userId));
+
+        Transaction transaction = transactionMapper.toTransaction(transactionRequestDTO);
+        transaction.setPaidBy(user);
+        SupportedCurrency currency = currencyService.getCurrency(transactionRequestDTO.getCurrencyCode());
+        transaction.setCurrencyCode(currency != null ? currency.getCode() : user.getDefaultCurrency().getCode());
+        if (transaction.getIsSplit() == null) {
+            transaction.setIsSplit(false);
+        }
+        if (transaction.getUserShare() == null) {
+            transaction.setUserShare(transaction.getTotalAmount());
+        }
+        applyRelations(userId, transactionRequestDTO, transaction);
+
+        transactionRepository.save(transaction);
+        postToAccount(transaction, false);
+        monthlySpendRollupService.record(transaction);
+        logger.info("Created transaction with id {} for user {}", transaction.getId(), userId);
+        return transactionMapper.toTransactionResponseDTO(transaction);
+    }
+
+    @Transactional
+    public TransactionResponseDTO updateTransaction(String userId, Long transactionId, TransactionRequestDTO transactionRequestDTO) throws BadRequestException {
+        Transaction transaction = findOwnedTransaction(userId, transactionId);
+        // take the old amount off, the updated one is posted below
+        postToAccount(transaction, true);
+        monthlySpendRollupService.reverse(transaction);
+        transactionMapper.updateTransactionFromDto(transactionRequestDTO, transaction);
+        if (transactionRequestDTO.getCurrencyCode() != null) {
+            SupportedCurrency currency = currencyService.getCurrency(transactionRequestDTO.getCurrencyCode());
+            if (currency == null) throw new BadRequestException("Unsupported currency: " + transactionRequestDTO.getCurrencyCode());
+            transaction.setCurrencyCode(currency.getCode());
+        }
+        if (transactionRequestDTO.getTransactionDate() != null) {
+            transaction.setCreatedAt(transactionRequestDTO.getTransactionDate());
+        }
+        // an unsplit transaction is all the user's own share, keep it in step with an edited amount (the monthly rollup sums shares)
+        if (!Boolean.TRUE.equals(transaction.getIsSplit()) && transactionRequestDTO.getUserShare() == null) {
+            transaction.setUserShare(transaction.getTotalAmount());
+        }
+        applyRelations(userId, transactionRequestDTO, transaction);
+
+        transactionRepository.save(transaction);
+        postToAccount(transaction, false);
+        monthlySpendRollupService.record(transaction);
+        logger.info("Updated transaction with id {} for user {}", transactionId, userId);
+        return transactionMapper.toTransactionResponseDTO(transaction);
+    }
+
+    @Transactional
+    public void deleteTransaction(String userId, Long transactionId) {
+        Transaction transaction = findOwnedTransaction(userId, transactionId);
+        transactionRepository.delete(transaction);
+        postToAccount(transaction, true);
+        monthlySpendRollupService.reverse(transaction);
+        logger.info("Deleted transaction with id {} for user {}", transactionId, userId);
+    }
+
+    private void postToAccount(Transaction transaction, boolean reverse) {
+        if (transaction.getAccount() == null) {
+            return;
+        }
+        BigDecimal delta = BalancePostingService.signedAmount(transaction.getType(), transaction.getTotalAmount());
+        balancePostingService.post(transaction.getAccount().getId(), reverse ? delta.negate() : delta);
+        // account balances are part of the accounts listing
+        userDataVersionService.bump(transaction.getPaidBy().getId());
+    }
+
+    private Transaction findOwnedTransaction(String userId, Long transactionId) {
+        return transactionRepository.findByIdAndPaidBy_Id(transactionId, userId)
+                .orElseThrow(() -> new EntityNotFoundException("Transaction not found with id: " + transactionId));
+    }
+
+    // checks ownership with exists queries and links references, so the account and category rows are never loaded
+    private void applyRelations(String userId, TransactionRequestDTO transactionRequestDTO, Transaction transaction) {
+        Long accountId = transactionRequestDTO.getAccountId();
+        if (accountId != null) {
+            if (!accountRepository.existsByIdAndUser_Id(accountId, userId)) {
+                throw new EntityNotFoundException("Account not found with id: " + accountId);
+            }
+            transaction.setAccount(accountRepository.getReferenceById(accountId));
+        }
+        Long categoryId = transactionRequestDTO.getCategoryId();
+        if (categoryId != null) {
+            if (!categoryRepository.isUsableBy(categoryId, userId)) {
+                throw new EntityNotFoundException("Category not found with id: " + categoryId);
+            }
+            transaction.setCategory(categoryRepository.getReferenceById(categoryId));
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package org.finsible.backend.service;
+
+import org.finsible.backend.cache.CacheInvalidationBus;
+import org.finsible.backend.cache.CacheInvalidationBus.EntityType;
+import org.finsible.backend.routing.ReadYourWritesTracker;
+import org.finsible.backend.utility.TransactionScopedBuffer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user data version behind the ETags of the list endpoints. Every write to a user's accounts, categories, account
+ * groups or balances bumps it once per transaction: the counter row is incremented just before commit (so it commits or
+ * rolls back with the change) and the in-memory copy is replaced after commit, so no reader sees the new version before
+ * the new data.
+ * Versions are read from memory. Other nodes drop a user's entry when the write's invalidation reaches them; an entry
+ * older than max-age is re-read from its row all the same, as a backstop.
+ * Every write (and a recent updated_at seen on re-read) also starts the user's read-your-writes window, so their reads
+ * stay on the primary until replicas have caught up with the new version.
+ */
+@Service
+public class UserDataVersionService {
+    private static final String BUMP_SQL = """
+            INSERT INTO user_data_versions (user_id, version, updated_at) VALUES (?, 1, now())
+            ON CONFLICT (user_id) DO UPDATE SET version = user_data_versions.version + 1, updated_at = now()
+            RETURNING version
+            """;
+    private static final String SELECT_SQL = "SELECT version, updated_at FROM user_data_versions WHERE user_id = ?";
+
+    private record CachedVersion(long version, long loadedAtMillis) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final int maxSize;
+    private final long maxAgeMillis;
+    private final Map<String, CachedVersion> versions = new ConcurrentHashMap<>();
+    // sorted so concurrent transactions bumping several users lock the rows in the same order
+    private final TransactionScopedBuffer<String, Boolean> pendingBumps =
+            new TransactionScopedBuffer<>(TreeMap::new, (first, second) -> first, this::persist);
+
+    public UserDataVersionService(JdbcTemplate jdbcTemplate, ReadYourWritesTracker readYourWritesTracker, CacheInvalidationBus cacheInvalidationBus,
+                                  @Value("${app.data-versions.cache.max-size:10000}") int maxSize,
+                                  @Value("${app.data-versions.max-age:PT1M}") Duration maxAge) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.maxSize = maxSize;
+        this.maxAgeMillis = maxAge.toMillis();
+        // a write through another node: its new version is read on next use, and the user's reads stay on the primary here too
+        cacheInvalidationBus.subscribe(EntityType.USER_DATA, invalidation -> {
+            evict(invalidation.userId());
+            readYourWritesTracker.recordWrite(invalidation.userId(), Instant.now());
+        });
+        cacheInvalidationBus.subscribe(EntityType.USER, invalidation -> evict(invalidation.userId()));
+        cacheInvalidationBus.onFlush(this::clear);
+    }
+
+    public void bump(String userId) {
+        if (userId != null) {
+            pendingBumps.add(userId, Boolean.TRUE);
+            cacheInvalidationBus.publish(EntityType.USER_DATA, null, userId);
+        }
+    }
+
+    public long currentVersion(String userId) {
+        long now = System.currentTimeMillis();
+        CachedVersion cached = versions.get(userId);
+        if (cached != null && now - cached.loadedAtMillis() < maxAgeMillis) {
+            return cached.version();
+        }
+        Long version = jdbcTemplate.query(SELECT_SQL, resultSet -> {
+            if (!resultSet.next()) {
+                return 0L;
+            }
+            Timestamp updatedAt = resultSet.getTimestamp("updated_at");
+            readYourWritesTracker.recordWrite(userId, updatedAt.toInstant());
+            return resultSet.getLong("version");
+        }, userId);
+        long loaded = version == null ? 0 : version;
+        remember(userId, loaded, now);
+        return loaded;
+    }
+
+    // balances and loan summaries change with the date too, so the accounts tag includes the UTC day
+    public String accountsETag(String userId) {
+        return "accounts-" + currentVersion(userId) + "-" + LocalDate.now(ZoneOffset.UTC).toEpochDay();
+    }
+
+    // default categories are shared by everyone and versioned separately
+    public String categoriesETag(String userId, long defaultCategoriesVersion) {
+        return "categories-" + currentVersion(userId) + "-" + defaultCategoriesVersion;
+    }
+
+    public String accountGroupsETag(String userId) {
+        return "account-groups-" + currentVersion(userId);
+    }
+
+    // the profile has no version of its own, sign-ins that change it bump the user's data version
+    public String userETag(String userId) {
+        return "user-" + currentVersion(userId);
+    }
+
+    public void evict(String userId) {
+        versions.remove(userId);
+    }
+
+    public void clear() {
+        versions.clear();
+    }
+
+    private void persist(Map<String, Boolean> users) {
+        Map<String, Long> bumped = new HashMap<>();
+        for (String userId : users.keySet()) {
+            bumped.put(userId, jdbcTemplate.queryForObject(BUMP_SQL, Long.class, userId));
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            committed(bumped);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                committed(bumped);
+            }
+        });
+    }
+
+    private void committed(Map<String, Long> bumped) {
+        long now = System.currentTimeMillis();
+        Instant writtenAt = Instant.ofEpochMilli(now);
+        bumped.forEach((userId, version) -> {
+            readYourWritesTracker.recordWrite(userId, writtenAt);
+            remember(userId, version, now);
+        });
+    }
+
+    private void remember(String userId, long version, long loadedAtMillis) {
+        if (!versions.containsKey(userId) && versions.size() >= maxSize) {
+            // make room by dropping an arbitrary entry, it is read again from its row on next use
+            Iterator<String> iterator = versions.keySet().iterator();
+            if (iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+        CachedVersion fresh = new CachedVersion(version, loadedAtMillis);
+        // never go back: a slow reload must not overwrite a version bumped meanwhile
+        versions.merge(userId, fresh, (current, candidate) -> candidate.version() >= current.version() ? candidate : current);
+    }
+}
@@ -0,0 +1,139 @@
+package org.finsible.backend.settlement;
+
+import java.util.Arrays;
+
+/**
+ * Turns the members' net positions in a space into a short list of transfers that settles everyone.
+ * Amounts are longs in minor units (the caller fixes the scale), members are array indexes, and all work is done on
+ * primitive arrays so a space with thousands of members needs no boxing or per-edge objects.
+ *
+ * The greedy match (largest debtor pays largest creditor, the remainder goes back into its heap) produces at most
+ * members - 1 transfers and every member either only pays or only receives. The true minimum is NP-hard (it needs
+ * zero-sum subsets), the greedy result is what settlement apps commonly show.
+ */
+public final class DebtSimplificationEngine {
+    private DebtSimplificationEngine() {
+    }
+
+    // transfers[i]: from[i] pays amount[i] to to[i]
+    public record Settlements(int[] from, int[] to, long[] amount) {
+        public int size() {
+            return amount.length;
+        }
+    }
+
+    /**
+     * Net position of each member from pairwise debts: debtors[i] owes creditors[i] amounts[i].
+     * Positive means the member is owed money, negative means they owe.
+     */
+    public static long[] netPositions(int memberCount, int[] debtors, int[] creditors, long[] amounts) {
+        if (debtors.length != creditors.length || debtors.length != amounts.length) {
+            throw new IllegalArgumentException("debtors, creditors and amounts must have the same length");
+        }
+        long[] positions = new long[memberCount];
+        for (int i = 0; i < amounts.length; i++) {
+            positions[debtors[i]] -= amounts[i];
+            positions[creditors[i]] += amounts[i];
+        }
+        return positions;
+    }
+
+    public static Settlements simplify(long[] positions) {
+        long total = 0;
+        int creditorCount = 0;
+        int debtorCount = 0;
+        for (long position : positions) {
+            total += position;
+            if (position > 0) creditorCount++;
+            else if (position < 0) debtorCount++;
+        }
+        if (total != 0) {
+            throw new IllegalArgumentException("Net positions must sum to zero, got " + total);
+        }
+
+        IndexHeap creditors = new IndexHeap(creditorCount);
+        IndexHeap debtors = new IndexHeap(debtorCount);
+        for (int member = 0; member < positions.length; member++) {
+            if (positions[member] > 0) creditors.push(member, positions[member]);
+            else if (positions[member] < 0) debtors.push(member, -positions[member]);
+        }
+
+        int capacity = Math.max(creditorCount + debtorCount - 1, 0);
+        int[] from = new int[capacity];
+        int[] to = new int[capacity];
+        long[] amount = new long[capacity];
+        int transfers = 0;
+        while (!creditors.isEmpty() && !debtors.isEmpty()) {
+            long credit = creditors.peekKey();
+            int creditor = creditors.pop();
+            long debt = debtors.peekKey();
+            int debtor = debtors.pop();
+
+            long paid = Math.min(credit, debt);
+            from[transfers] = debtor;
+            to[transfers] = creditor;
+            amount[transfers] = paid;
+            transfers++;
+
+            if (credit > paid) creditors.push(creditor, credit - paid);
+            if (debt > paid) debtors.push(debtor, debt - paid);
+        }
+        if (transfers == capacity) {
+            return new Settlements(from, to, amount);
+        }
+        return new Settlements(Arrays.copyOf(from, transfers), Arrays.copyOf(to, transfers),
+                Arrays.copyOf(amount, transfers));
+    }
+
+    // binary max-heap of (member, key) pairs kept in two parallel arrays
+    private static final class IndexHeap {
+        private final int[] members;
+        private final long[] keys;
+        private int size;
+
+        IndexHeap(int capacity) {
+            members = new int[capacity];
+            keys = new long[capacity];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        long peekKey() {
+            return keys[0];
+        }
+
+        void push(int member, long key) {
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (keys[parent] >= key) break;
+                members[i] = members[parent];
+                keys[i] = keys[parent];
+                i = parent;
+            }
+            members[i] = member;
+            keys[i] = key;
+        }
+
+        int pop() {
+            int top = members[0];
+            int lastMember = members[--size];
+            long lastKey = keys[size];
+            int i = 0;
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && keys[child + 1] > keys[child]) child++;
+                if (lastKey >= keys[child]) break;
+                members[i] = members[child];
+                keys[i] = keys[child];
+                i = child;
+            }
+            members[i] = lastMember;
+            keys[i] = lastKey;
+            return top;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.finsible.backend.utility;
+
+import org.finsible.backend.cache.PreEncodedBody;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+/**
+ * Answers a GET from its ETag: 304 when the client's If-None-Match still matches (the body is never built), otherwise
+ * the body with the strong ETag.
+ */
+public final class ConditionalGet {
+    // clients may keep the response but have to revalidate it before each use
+    public static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private ConditionalGet() {
+    }
+
+    public static <T> ResponseEntity<T> respond(WebRequest request, String etag, Supplier<T> body) {
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(body.get());
+    }
+
+    // pre-serialized body: the variant matching Accept-Encoding is written as is, nothing is serialized or compressed
+    public static ResponseEntity<byte[]> respond(WebRequest request, PreEncodedBody body, CacheControl cacheControl) {
+        PreEncodedBody.Variant variant = body.variantFor(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        if (request.checkNotModified(variant.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(variant.etag()).cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING).build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(variant.etag()).cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON)
+                .contentLength(variant.bytes().length);
+        if (variant.contentEncoding() != null) {
+            response.header(HttpHeaders.CONTENT_ENCODING, variant.contentEncoding());
+        }
+        return response.body(variant.bytes());
+    }
+}
@@ -0,0 +1,60 @@
+package org.finsible.backend.utility;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Collects values per key for the current transaction, merging values added for the same key, and hands the merged map to
+ * the flush callback right before the transaction commits (so the writes are part of it). Without an active transaction
+ * every value is flushed immediately.
+ */
+public final class TransactionScopedBuffer<K, V> {
+    private final Supplier<Map<K, V>> mapFactory;
+    private final BinaryOperator<V> merge;
+    private final Consumer<Map<K, V>> flush;
+
+    public TransactionScopedBuffer(Supplier<Map<K, V>> mapFactory, BinaryOperator<V> merge, Consumer<Map<K, V>> flush) {
+        this.mapFactory = mapFactory;
+        this.merge = merge;
+        this.flush = flush;
+    }
+
+    public void add(K key, V value) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Map<K, V> single = mapFactory.get();
+            single.put(key, value);
+            flush.accept(single);
+            return;
+        }
+        pending().merge(key, value, merge);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<K, V> pending() {
+        Map<K, V> pending = (Map<K, V>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            return pending;
+        }
+        Map<K, V> created = mapFactory.get();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                flush.accept(created);
+                // written values are dropped, a second before-commit phase writes only what was added since
+                created.clear();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(TransactionScopedBuffer.this);
+            }
+        });
+        return created;
+    }
+}
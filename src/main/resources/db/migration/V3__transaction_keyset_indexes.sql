@@ -0,0 +1,13 @@
+-- Keyset pagination over a user's transactions is ordered by (created_at DESC, id DESC).
+-- Each listing filter gets an index whose leading columns are the equality filters followed by the sort key,
+-- so a page is a single index range scan that stops after LIMIT rows.
+CREATE INDEX idx_transactions_user_created ON transactions(paid_by_id, created_at DESC, id DESC);
+CREATE INDEX idx_transactions_user_account_created ON transactions(paid_by_id, account_id, created_at DESC, id DESC);
+CREATE INDEX idx_transactions_user_category_created ON transactions(paid_by_id, category_id, created_at DESC, id DESC);
+CREATE INDEX idx_transactions_user_type_created ON transactions(paid_by_id, type, created_at DESC, id DESC);
+CREATE INDEX idx_transactions_space_created ON transactions(space_id, created_at DESC, id DESC);
+
+-- covered by the composite indexes above, which lead with the same column
+-- (idx_transactions_type stays: the composites lead with paid_by_id, a filter on type alone cannot use them)
+DROP INDEX IF EXISTS idx_transactions_paid_by;
+DROP INDEX IF EXISTS idx_transactions_space;
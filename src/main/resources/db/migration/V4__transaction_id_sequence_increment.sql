@@ -0,0 +1,3 @@
+-- Transaction ids are generated by Hibernate's pooled optimizer with allocationSize = 50, so the sequence must advance
+-- by the same step. Inserts relying on the column default (bulk import) still get unique ids, just with gaps.
+ALTER SEQUENCE transactions_id_seq INCREMENT BY 50;
@@ -0,0 +1,29 @@
+-- Per user, category, currency and month totals of the user's share of their transactions.
+-- Maintained incrementally in the same database transaction as every transaction insert/update/delete
+-- (see MonthlySpendRollupService), rebuilt from scratch by the admin rebuild job.
+-- category_id 0 collects uncategorized transactions, so it is not a foreign key.
+CREATE TABLE monthly_category_spend (
+    user_id VARCHAR(255) NOT NULL,
+    month DATE NOT NULL,               -- first day of the month, UTC
+    category_id BIGINT NOT NULL,
+    currency_code VARCHAR(3) NOT NULL,
+    spent DECIMAL(19, 4) NOT NULL DEFAULT 0,
+    received DECIMAL(19, 4) NOT NULL DEFAULT 0,
+    transaction_count BIGINT NOT NULL DEFAULT 0,
+
+    CONSTRAINT pk_monthly_category_spend PRIMARY KEY (user_id, month, category_id, currency_code),
+    CONSTRAINT fk_monthly_category_spend_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- initial fill from existing history
+INSERT INTO monthly_category_spend (user_id, month, category_id, currency_code, spent, received, transaction_count)
+SELECT paid_by_id,
+       date_trunc('month', created_at AT TIME ZONE 'UTC')::date,
+       COALESCE(category_id, 0),
+       currency_code,
+       SUM(CASE WHEN type = 'EXPENSE' THEN COALESCE(user_share, total_amount, 0) ELSE 0 END),
+       SUM(CASE WHEN type = 'INCOME' THEN COALESCE(user_share, total_amount, 0) ELSE 0 END),
+       COUNT(*)
+FROM transactions
+WHERE paid_by_id IS NOT NULL AND type IN ('EXPENSE', 'INCOME')
+GROUP BY 1, 2, 3, 4;
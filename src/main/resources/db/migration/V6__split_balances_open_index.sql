@@ -0,0 +1,5 @@
+-- Settlement netting reads only the open balances of one space; this partial covering index serves it with an
+-- index-only scan instead of visiting every historical split row of the space.
+CREATE INDEX idx_split_balances_open_by_space ON split_balances(space_id)
+    INCLUDE (user1_email, user1_name, user2_email, user2_name, remaining_amount)
+    WHERE is_fully_settled IS NOT TRUE;
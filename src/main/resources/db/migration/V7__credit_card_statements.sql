@@ -0,0 +1,24 @@
+-- One row per credit card and statement cycle, written by the daily statement job (CreditCardStatementService).
+-- The cycle covers [period_start, statement_date) in UTC; re-running a day is a no-op thanks to the unique key.
+CREATE TABLE credit_card_statements (
+    id BIGSERIAL PRIMARY KEY,
+    account_id BIGINT NOT NULL,
+    statement_date DATE NOT NULL,
+    period_start DATE NOT NULL,
+    due_date DATE NOT NULL,
+    total_charges DECIMAL(19, 4) NOT NULL DEFAULT 0,
+    total_credits DECIMAL(19, 4) NOT NULL DEFAULT 0,
+    amount_due DECIMAL(19, 4) NOT NULL DEFAULT 0,
+    transaction_count BIGINT NOT NULL DEFAULT 0,
+    currency_code VARCHAR(3) NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL,
+
+    CONSTRAINT fk_credit_card_statements_account FOREIGN KEY (account_id) REFERENCES accounts(id) ON DELETE CASCADE,
+    CONSTRAINT uq_credit_card_statements_cycle UNIQUE (account_id, statement_date)
+);
+
+-- the job sums one card's cycle at a time, the listing indexes all lead with paid_by_id
+CREATE INDEX idx_transactions_account_created ON transactions(account_id, created_at);
+
+-- the job walks the cards billed on a given day in account id ranges
+CREATE INDEX idx_credit_card_details_billing_date ON credit_card_details(billing_date, account_id);
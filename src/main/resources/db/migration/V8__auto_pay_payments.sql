@@ -0,0 +1,34 @@
+-- Auto-pay work items, one per credit card statement (the unique statement_id makes creating them idempotent).
+-- Any number of app nodes claim PENDING rows with FOR UPDATE SKIP LOCKED, the claim token guards the final transition,
+-- and the transfer transaction is written in the same database transaction that marks the payment SUCCEEDED.
+CREATE TABLE auto_pay_payments (
+    id BIGSERIAL PRIMARY KEY,
+    statement_id BIGINT NOT NULL,
+    card_account_id BIGINT NOT NULL,
+    from_account_id BIGINT NOT NULL,
+    user_id VARCHAR(255) NOT NULL,
+    amount DECIMAL(19, 4) NOT NULL,
+    currency_code VARCHAR(3) NOT NULL,
+    due_date DATE NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING', -- PENDING, PROCESSING, SUCCEEDED, FAILED
+    attempts INT NOT NULL DEFAULT 0,
+    claim_token VARCHAR(100),
+    claimed_at TIMESTAMPTZ,
+    processed_at TIMESTAMPTZ,
+    transaction_id BIGINT,
+    failure_reason TEXT,
+    created_at TIMESTAMPTZ NOT NULL,
+    updated_at TIMESTAMPTZ NOT NULL,
+
+    CONSTRAINT uq_auto_pay_payments_statement UNIQUE (statement_id),
+    CONSTRAINT fk_auto_pay_payments_statement FOREIGN KEY (statement_id) REFERENCES credit_card_statements(id) ON DELETE CASCADE,
+    CONSTRAINT fk_auto_pay_payments_card FOREIGN KEY (card_account_id) REFERENCES accounts(id) ON DELETE CASCADE,
+    CONSTRAINT fk_auto_pay_payments_from FOREIGN KEY (from_account_id) REFERENCES accounts(id) ON DELETE CASCADE,
+    CONSTRAINT fk_auto_pay_payments_transaction FOREIGN KEY (transaction_id) REFERENCES transactions(id) ON DELETE SET NULL
+);
+
+-- workers only ever look at open items, finished ones drop out of the index
+CREATE INDEX idx_auto_pay_payments_open ON auto_pay_payments(due_date, id) WHERE status IN ('PENDING', 'PROCESSING');
+
+-- payments are created for statements that came due, newest cycles first
+CREATE INDEX idx_credit_card_statements_due ON credit_card_statements(due_date) WHERE amount_due > 0;
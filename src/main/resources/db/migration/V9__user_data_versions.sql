@@ -0,0 +1,9 @@
+-- One counter per user, bumped in the same transaction as every write to the user's accounts, categories, account groups
+-- or balances. List endpoints derive their ETags from it (see UserDataVersionService).
+CREATE TABLE user_data_versions (
+    user_id VARCHAR(255) PRIMARY KEY,
+    version BIGINT NOT NULL,
+    updated_at TIMESTAMPTZ NOT NULL,
+
+    CONSTRAINT fk_user_data_versions_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
@@ -0,0 +1,215 @@
+package org.finsible.backend.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.finsible.backend.cache.CacheInvalidationBus.EntityType;
+import org.finsible.backend.cache.CacheInvalidationBus.Invalidation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.postgresql.PGConnection;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CacheInvalidationBusTest {
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<CacheInvalidationBus> started = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        started.forEach(CacheInvalidationBus::stop);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private CacheInvalidationBus bus() {
+        return new CacheInvalidationBus(jdbcTemplate, new ObjectMapper(), new DataSourceProperties(), meterRegistry, true,
+                Duration.ofSeconds(10), Duration.ofSeconds(1));
+    }
+
+    // what the publishing node sent with NOTIFY
+    private String sentPayload() {
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(jdbcTemplate, atLeastOnce()).query(anyString(), any(ResultSetExtractor.class), eq(CacheInvalidationBus.CHANNEL), payload.capture());
+        return (String) payload.getValue();
+    }
+
+    @Test
+    void publishedInvalidationReachesOtherNodes() {
+        CacheInvalidationBus publisher = bus();
+        CacheInvalidationBus receiver = bus();
+        List<Invalidation> received = new ArrayList<>();
+        receiver.subscribe(EntityType.USER_DATA, received::add);
+
+        publisher.publish(EntityType.USER_DATA, "42", "user-1");
+        receiver.dispatch(sentPayload());
+
+        assertEquals(1, received.size());
+        assertEquals(EntityType.USER_DATA, received.getFirst().type());
+        assertEquals("42", received.getFirst().id());
+        assertEquals("user-1", received.getFirst().userId());
+        assertNotNull(received.getFirst().node());
+    }
+
+    @Test
+    void nodeSkipsItsOwnMessages() {
+        CacheInvalidationBus bus = bus();
+        AtomicInteger calls = new AtomicInteger();
+        bus.subscribe(EntityType.CURRENCY, invalidation -> calls.incrementAndGet());
+
+        bus.publish(EntityType.CURRENCY, "EUR", null);
+        bus.dispatch(sentPayload());
+
+        assertEquals(0, calls.get());
+        assertEquals(0, meterRegistry.get("cache.invalidations.received").functionCounter().count());
+    }
+
+    @Test
+    void messagesGoOnlyToSubscribersOfTheirType() {
+        CacheInvalidationBus publisher = bus();
+        CacheInvalidationBus receiver = bus();
+        AtomicInteger currency = new AtomicInteger();
+        AtomicInteger language = new AtomicInteger();
+        receiver.subscribe(EntityType.CURRENCY, invalidation -> currency.incrementAndGet());
+        receiver.subscribe(EntityType.LANGUAGE, invalidation -> language.incrementAndGet());
+
+        publisher.publish(EntityType.CURRENCY, "EUR", null);
+        receiver.dispatch(sentPayload());
+
+        assertEquals(1, currency.get());
+        assertEquals(0, language.get());
+    }
+
+    @Test
+    void failingSubscriberDoesNotStopTheOthers() {
+        CacheInvalidationBus publisher = bus();
+        CacheInvalidationBus receiver = bus();
+        AtomicInteger calls = new AtomicInteger();
+        receiver.subscribe(EntityType.USER, invalidation -> {
+            throw new IllegalStateException("cache is broken");
+        });
+        receiver.subscribe(EntityType.USER, invalidation -> calls.incrementAndGet());
+
+        publisher.publish(EntityType.USER, "user-1", "user-1");
+        receiver.dispatch(sentPayload());
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void malformedMessageIsIgnored() {
+        CacheInvalidationBus bus = bus();
+        AtomicInteger calls = new AtomicInteger();
+        bus.subscribe(EntityType.USER, invalidation -> calls.incrementAndGet());
+
+        assertDoesNotThrow(() -> bus.dispatch("{not json"));
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    void everyConnectFlushesAllCaches() throws Exception {
+        Connection lost = listenConnection();
+        Connection current = listenConnection();
+        // the first connection drops on its first poll, the second stays quiet
+        when(lost.unwrap(PGConnection.class).getNotifications(anyInt())).thenThrow(new SQLException("connection reset"));
+        when(current.unwrap(PGConnection.class).getNotifications(anyInt())).thenAnswer(invocation -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        });
+        AtomicInteger connects = new AtomicInteger();
+        CacheInvalidationBus bus = new CacheInvalidationBus(jdbcTemplate, new ObjectMapper(), new DataSourceProperties(), meterRegistry,
+                true, Duration.ofSeconds(10), Duration.ofSeconds(1)) {
+            @Override
+            Connection connect() {
+                return connects.getAndIncrement() == 0 ? lost : current;
+            }
+        };
+        CountDownLatch flushes = new CountDownLatch(2);
+        bus.onFlush(flushes::countDown);
+
+        bus.start();
+        started.add(bus);
+
+        assertTrue(flushes.await(5, TimeUnit.SECONDS), "a flush on connect and another on reconnect");
+        assertEquals(2, connects.get());
+        verify(lost.createStatement()).execute("LISTEN " + CacheInvalidationBus.CHANNEL);
+        verify(current.createStatement()).execute("LISTEN " + CacheInvalidationBus.CHANNEL);
+    }
+
+    @Test
+    void listenConnectionTimesOutJustAfterThePoll() {
+        DataSourceProperties dataSourceProperties = new DataSourceProperties();
+        dataSourceProperties.setUrl("jdbc:postgresql://localhost/finsible");
+        dataSourceProperties.setUsername("finsible");
+        dataSourceProperties.setPassword("secret");
+        CacheInvalidationBus bus = new CacheInvalidationBus(jdbcTemplate, new ObjectMapper(), dataSourceProperties, meterRegistry, true,
+                Duration.ofSeconds(10), Duration.ofSeconds(1));
+
+        Properties properties = bus.listenConnectionProperties();
+
+        assertEquals("15", properties.getProperty("socketTimeout"));
+        assertEquals("true", properties.getProperty("tcpKeepAlive"));
+        assertEquals("finsible", properties.getProperty("user"));
+        assertEquals("secret", properties.getProperty("password"));
+    }
+
+    @Test
+    void failedNotifyFailsTheTransaction() {
+        when(jdbcTemplate.query(anyString(), any(ResultSetExtractor.class), any(Object[].class)))
+                .thenThrow(new DataAccessResourceFailureException("connection reset"));
+        CacheInvalidationBus bus = bus();
+
+        TransactionSynchronizationManager.initSynchronization();
+        bus.publish(EntityType.USER_DATA, "42", "user-1");
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+
+        // the NOTIFY is sent right before commit, failing it rolls the write back instead of leaving other nodes stale
+        assertThrows(DataAccessResourceFailureException.class, () -> synchronizations.forEach(sync -> sync.beforeCommit(false)));
+        synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+    }
+
+    @Test
+    void failedNotifyOutsideATransactionIsOnlyLogged() {
+        when(jdbcTemplate.query(anyString(), any(ResultSetExtractor.class), any(Object[].class)))
+                .thenThrow(new DataAccessResourceFailureException("connection reset"));
+        CacheInvalidationBus bus = bus();
+
+        // the write has committed already, other nodes catch up on their next flush
+        assertDoesNotThrow(() -> bus.publish(EntityType.USER_DATA, "42", "user-1"));
+        verify(jdbcTemplate).query(anyString(), any(ResultSetExtractor.class), any(Object[].class));
+    }
+
+    private static Connection listenConnection() throws SQLException {
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        when(connection.createStatement()).thenReturn(statement);
+        PGConnection pgConnection = mock(PGConnection.class);
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        return connection;
+    }
+}
@@ -0,0 +1,71 @@
+package org.finsible.backend.loan;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AmortizationCalculatorTest {
+    private static final LoanTerms ONE_YEAR_AT_12 = new LoanTerms(new BigDecimal("100000"), new BigDecimal("12"), null, 31, 12,
+            LocalDate.of(2025, 1, 15));
+
+    @Test
+    void standardScheduleRepaysPrincipalWithinTenure() {
+        AmortizationSchedule schedule = AmortizationCalculator.schedule(ONE_YEAR_AT_12);
+
+        assertEquals(12, schedule.installments().size());
+        assertEquals(new BigDecimal("8884.88"), schedule.installments().getFirst().emi());
+        assertEquals(0, schedule.installments().getLast().outstanding().signum());
+        assertEquals(new BigDecimal("6618.53"), schedule.totalInterest());
+        BigDecimal repaid = schedule.installments().stream().map(AmortizationSchedule.Installment::principal).reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertEquals(0, repaid.compareTo(ONE_YEAR_AT_12.principal()));
+    }
+
+    @Test
+    void emiDayIsClampedToShortMonths() {
+        AmortizationSchedule schedule = AmortizationCalculator.schedule(ONE_YEAR_AT_12);
+
+        assertEquals(LocalDate.of(2025, 2, 28), schedule.installments().getFirst().dueDate());
+        assertEquals(LocalDate.of(2025, 3, 31), schedule.installments().get(1).dueDate());
+        assertEquals(LocalDate.of(2025, 4, 30), schedule.installments().get(2).dueDate());
+    }
+
+    @Test
+    void scheduleLookupsByDate() {
+        AmortizationSchedule schedule = AmortizationCalculator.schedule(ONE_YEAR_AT_12);
+
+        assertEquals(ONE_YEAR_AT_12.principal(), schedule.outstandingOn(LocalDate.of(2025, 2, 1)));
+        assertEquals(LocalDate.of(2025, 2, 28), schedule.nextInstallment(LocalDate.of(2025, 2, 28)).dueDate());
+        assertEquals(11, schedule.remainingInstallments(LocalDate.of(2025, 3, 1)));
+        assertNull(schedule.nextInstallment(LocalDate.of(2026, 2, 1)));
+    }
+
+    @Test
+    void prepaymentShortensTenureOrLowersEmi() {
+        List<Prepayment> prepayments = List.of(new Prepayment(LocalDate.of(2025, 4, 1), new BigDecimal("30000")));
+
+        AmortizationSchedule shorter = AmortizationCalculator.schedule(ONE_YEAR_AT_12, prepayments, AmortizationCalculator.PrepaymentMode.REDUCE_TENURE);
+        AmortizationSchedule cheaper = AmortizationCalculator.schedule(ONE_YEAR_AT_12, prepayments, AmortizationCalculator.PrepaymentMode.REDUCE_EMI);
+
+        assertTrue(shorter.installments().size() < 12);
+        assertEquals(12, cheaper.installments().size());
+        assertTrue(cheaper.installments().getLast().emi().compareTo(new BigDecimal("8884.88")) < 0);
+        assertTrue(shorter.totalInterest().compareTo(AmortizationCalculator.schedule(ONE_YEAR_AT_12).totalInterest()) < 0);
+    }
+
+    @Test
+    void equalTermsFromDifferentScalesAreTheSameKey() {
+        LoanTerms rescaled = new LoanTerms(new BigDecimal("100000.0000"), new BigDecimal("12.00"), null, 31, 12, LocalDate.of(2025, 1, 15));
+        assertEquals(ONE_YEAR_AT_12, rescaled);
+        assertEquals(ONE_YEAR_AT_12.hashCode(), rescaled.hashCode());
+    }
+
+    @Test
+    void emiBelowInterestIsRejected() {
+        LoanTerms underwater = new LoanTerms(new BigDecimal("100000"), new BigDecimal("12"), new BigDecimal("500"), 5, 12, LocalDate.of(2025, 1, 15));
+        assertThrows(IllegalArgumentException.class, () -> AmortizationCalculator.schedule(underwater));
+    }
+}
@@ -0,0 +1,145 @@
+package org.finsible.backend.routing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingDataSourceTest {
+    private static final String USER_ID = "routing-user";
+
+    private final DataSource primary = mock(DataSource.class);
+    private final Connection primaryConnection = mock(Connection.class);
+    private final ReadYourWritesTracker tracker = new ReadYourWritesTracker(true, Duration.ofSeconds(5));
+    private final Map<String, DataSource> replicas = new LinkedHashMap<>();
+    private final Map<String, Connection> replicaConnections = new LinkedHashMap<>();
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(USER_ID, null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        if (routing != null) {
+            routing.close();
+        }
+    }
+
+    private void routeTo(long... replicaLagMillis) throws SQLException {
+        for (long lagMillis : replicaLagMillis) {
+            replica("replica-" + (replicas.size() + 1), lagMillis);
+        }
+        routing = new ReplicaRoutingDataSource(primary, replicas, tracker, Duration.ofSeconds(2), new SimpleMeterRegistry());
+    }
+
+    // a negative lag stands for a replica whose WAL receiver is not streaming (the check reads NULL)
+    private void replica(String name, long lagMillis) throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getLong(1)).thenReturn(Math.max(lagMillis, 0));
+        when(resultSet.wasNull()).thenReturn(lagMillis < 0);
+        replicas.put(name, dataSource);
+        replicaConnections.put(name, connection);
+    }
+
+    @Test
+    void readsAreSpreadOverCurrentReplicas() throws SQLException {
+        routeTo(0, 0);
+        routing.checkLag();
+
+        Connection first = routing.getConnection();
+        Connection second = routing.getConnection();
+
+        assertNotSame(primaryConnection, first);
+        assertNotSame(primaryConnection, second);
+        assertNotSame(first, second);
+        assertTrue(replicaConnections.containsValue(first));
+        assertTrue(replicaConnections.containsValue(second));
+    }
+
+    @Test
+    void laggingReplicaIsSkipped() throws SQLException {
+        routeTo(0, 10_000);
+        routing.checkLag();
+
+        for (int i = 0; i < 4; i++) {
+            assertSame(replicaConnections.get("replica-1"), routing.getConnection());
+        }
+    }
+
+    @Test
+    void disconnectedReplicaIsSkipped() throws SQLException {
+        // replayed everything it received, but receives nothing
+        routeTo(-1, 0);
+        routing.checkLag();
+
+        for (int i = 0; i < 4; i++) {
+            assertSame(replicaConnections.get("replica-2"), routing.getConnection());
+        }
+    }
+
+    @Test
+    void readsFallBackToPrimaryWhenNoReplicaIsUsable() throws SQLException {
+        routeTo(0, 0);
+        // never checked: nothing is known to be current yet
+        assertSame(primaryConnection, routing.getConnection());
+
+        routing.checkLag();
+        for (DataSource replica : replicas.values()) {
+            when(replica.getConnection()).thenThrow(new SQLException("connection refused"));
+        }
+        assertSame(primaryConnection, routing.getConnection());
+        // both were taken out, the next read does not try them again
+        assertSame(primaryConnection, routing.getConnection());
+    }
+
+    @Test
+    void userIsPinnedToPrimaryAfterTheyWrite() throws SQLException {
+        routeTo(0);
+        routing.checkLag();
+        tracker.recordWrite(USER_ID, Instant.now());
+
+        assertSame(primaryConnection, routing.getConnection());
+
+        tracker.recordWrite("someone-else", Instant.now());
+        SecurityContextHolder.clearContext();
+        assertNotSame(primaryConnection, routing.getConnection());
+    }
+
+    @Test
+    void readYourWritesWindowExpires() {
+        tracker.recordWrite(USER_ID, Instant.now().minusSeconds(6));
+        assertFalse(tracker.isPinned(USER_ID));
+
+        tracker.recordWrite(USER_ID, Instant.now().minusSeconds(4));
+        assertTrue(tracker.isPinned(USER_ID));
+    }
+}
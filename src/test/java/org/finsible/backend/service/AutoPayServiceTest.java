@@ -0,0 +1,239 @@
+package org.finsible.backend.service;
+
+import org.finsible.backend.AppConstants;
+import org.finsible.backend.dto.request.AccountRequestDTO;
+import org.finsible.backend.dto.request.CreditCardAccountRequestDTO;
+import org.finsible.backend.entity.User;
+import org.finsible.backend.repository.AccountGroupRepository;
+import org.finsible.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Several AutoPayService instances stand in for app nodes polling the same work items at once.
+// Not @Transactional: claims and payments commit on their own, like they do across nodes.
+@SpringBootTest
+class AutoPayServiceTest {
+    private static final int NODES = 8;
+    private static final int STATEMENTS = 60;
+    private static final BigDecimal CREDIT_LIMIT = new BigDecimal("100000");
+
+    @Autowired private AccountService accountService;
+    @Autowired private BalancePostingService balancePostingService;
+    @Autowired private UserDataVersionService userDataVersionService;
+    @Autowired private CurrencyService currencyService;
+    @Autowired private LanguageService languageService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private AccountGroupRepository accountGroupRepository;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private String userId;
+    private Long bankAccountId;
+    private Long creditCardId;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        today = LocalDate.now(ZoneOffset.UTC);
+        userId = "auto-pay-" + UUID.randomUUID();
+        userRepository.save(User.builder()
+                .id(userId)
+                .email(userId + "@test.local")
+                .name("Auto Pay")
+                .lastLoggedIn(Instant.now())
+                .accountCreated(Instant.now())
+                .defaultLanguage(languageService.getLanguageOrDefault(AppConstants.DEFAULT_LANGUAGE_CODE))
+                .defaultCurrency(currencyService.getCurrencyOrDefault(AppConstants.DEFAULT_CURRENCY_CODE))
+                .build());
+        Long bankGroupId = accountGroupRepository.findAccountGroupByName(AppConstants.BANK_ACCOUNT_TYPE).getId();
+        AccountRequestDTO bank = new AccountRequestDTO();
+        bank.setName("Bank");
+        bankAccountId = accountService.createAccount(userId, bankGroupId, bank).getId();
+
+        CreditCardAccountRequestDTO creditCard = new CreditCardAccountRequestDTO();
+        creditCard.setName("Credit card");
+        creditCard.setCreditLimit(CREDIT_LIMIT);
+        creditCard.setAutoPayEnabled(true);
+        creditCard.setAutoPayFromAccountId(bankAccountId);
+        creditCardId = accountService.createCreditCardAccount(userId, creditCard).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM transactions WHERE paid_by_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM accounts WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+    }
+
+    @Test
+    void concurrentNodesPayEveryStatementOnce() throws Exception {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 1; i <= STATEMENTS; i++) {
+            BigDecimal amount = new BigDecimal(100 + i);
+            statement(today.minusDays(40 + i), amount);
+            total = total.add(amount);
+        }
+        assertEquals(STATEMENTS, nodeWithStaleClaimTimeout("creator", Duration.ofMinutes(10)).createDuePayments(today));
+
+        ExecutorService executor = Executors.newFixedThreadPool(NODES);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> nodes = new ArrayList<>();
+        for (int n = 0; n < NODES; n++) {
+            // small batches, so the nodes keep claiming next to each other
+            AutoPayService node = new AutoPayService(jdbcTemplate, transactionTemplate, balancePostingService, userDataVersionService,
+                    "node-" + n, 3, 4, 3, Duration.ofMinutes(10));
+            nodes.add(executor.submit(() -> {
+                start.await();
+                node.processDuePayments();
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> node : nodes) {
+            node.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        assertEquals(STATEMENTS, count("SELECT COUNT(*) FROM auto_pay_payments WHERE card_account_id = ?", creditCardId));
+        assertEquals(STATEMENTS, count("SELECT COUNT(*) FROM auto_pay_payments WHERE card_account_id = ? AND status = 'SUCCEEDED' "
+                + "AND transaction_id IS NOT NULL", creditCardId));
+        assertEquals(STATEMENTS, count("SELECT COUNT(*) FROM transactions WHERE account_id = ? AND type = 'TRANSFER'", creditCardId));
+        assertEquals(STATEMENTS, count("SELECT COUNT(DISTINCT transaction_id) FROM auto_pay_payments WHERE card_account_id = ?", creditCardId));
+        // each transfer posted both of its legs exactly once
+        assertEquals(0, total.negate().compareTo(balanceOf(bankAccountId)), "bank account balance");
+        assertEquals(0, CREDIT_LIMIT.add(total).compareTo(balanceOf(creditCardId)), "credit card balance");
+    }
+
+    @Test
+    void staleClaimIsTakenOverAfterTheTimeout() {
+        long stale = payment(today.minusDays(40), new BigDecimal("250"));
+        long fresh = payment(today.minusDays(41), new BigDecimal("300"));
+        // a node crashed an hour into paying the first, another node is still busy with the second
+        jdbcTemplate.update("UPDATE auto_pay_payments SET status = 'PROCESSING', claim_token = 'crashed', claimed_at = now() - interval '1 hour', "
+                + "attempts = 1 WHERE id = ?", stale);
+        jdbcTemplate.update("UPDATE auto_pay_payments SET status = 'PROCESSING', claim_token = 'busy', claimed_at = now(), attempts = 1 "
+                + "WHERE id = ?", fresh);
+
+        nodeWithStaleClaimTimeout("rescuer", Duration.ofMinutes(10)).processDuePayments();
+
+        assertEquals(AutoPayService.SUCCEEDED, statusOf(stale));
+        assertEquals(2, count("SELECT attempts FROM auto_pay_payments WHERE id = ?", stale));
+        assertNotEquals("crashed", jdbcTemplate.queryForObject("SELECT claim_token FROM auto_pay_payments WHERE id = ?", String.class, stale));
+        assertEquals(AutoPayService.PROCESSING, statusOf(fresh));
+        assertEquals("busy", jdbcTemplate.queryForObject("SELECT claim_token FROM auto_pay_payments WHERE id = ?", String.class, fresh));
+        assertEquals(0, new BigDecimal("-250").compareTo(balanceOf(bankAccountId)));
+    }
+
+    @Test
+    void completingWithAStaleClaimTokenChangesNothing() {
+        long paymentId = payment(today.minusDays(40), new BigDecimal("400"));
+        // the claim was taken over: the row now carries the new owner's token
+        jdbcTemplate.update("UPDATE auto_pay_payments SET status = 'PROCESSING', claim_token = 'new-owner', claimed_at = now(), attempts = 2 "
+                + "WHERE id = ?", paymentId);
+
+        int updated = jdbcTemplate.update(AutoPayService.COMPLETE_SQL, AutoPayService.SUCCEEDED, null, paymentId, "old-owner");
+
+        assertEquals(0, updated);
+        assertEquals(AutoPayService.PROCESSING, statusOf(paymentId));
+        assertEquals("new-owner", jdbcTemplate.queryForObject("SELECT claim_token FROM auto_pay_payments WHERE id = ?", String.class, paymentId));
+        assertNull(jdbcTemplate.queryForObject("SELECT processed_at FROM auto_pay_payments WHERE id = ?", Timestamp.class, paymentId));
+    }
+
+    @Test
+    void paymentsByHandSinceTheStatementArePaidOnlyOnce() {
+        long partlyPaid = payment(today.minusDays(40), new BigDecimal("500"));
+        long paidOff = payment(today.minusDays(41), new BigDecimal("300"));
+        // the user paid the card from the app after both statements closed
+        manualCardPayment(new BigDecimal("200"));
+        manualCardPayment(new BigDecimal("300"));
+
+        nodeWithStaleClaimTimeout("payer", Duration.ofMinutes(10)).processDuePayments();
+
+        // both statements closed before the 500 of payments, which cover the amount due of either: nothing is transferred
+        assertEquals(AutoPayService.SUCCEEDED, statusOf(partlyPaid));
+        assertEquals(AutoPayService.SUCCEEDED, statusOf(paidOff));
+        assertEquals(0, count("SELECT COUNT(*) FROM auto_pay_payments WHERE card_account_id = ? AND transaction_id IS NOT NULL",
+                creditCardId));
+        assertEquals(0, BigDecimal.ZERO.compareTo(jdbcTemplate.queryForObject(
+                "SELECT SUM(amount) FROM auto_pay_payments WHERE card_account_id = ?", BigDecimal.class, creditCardId)));
+        assertEquals(0, BigDecimal.ZERO.compareTo(balanceOf(bankAccountId)), "bank account balance");
+    }
+
+    @Test
+    void aPartialPaymentByHandReducesTheTransfer() {
+        long paymentId = payment(today.minusDays(40), new BigDecimal("500"));
+        manualCardPayment(new BigDecimal("200"));
+
+        nodeWithStaleClaimTimeout("payer", Duration.ofMinutes(10)).processDuePayments();
+
+        assertEquals(AutoPayService.SUCCEEDED, statusOf(paymentId));
+        assertEquals(0, new BigDecimal("300").compareTo(jdbcTemplate.queryForObject(
+                "SELECT amount FROM auto_pay_payments WHERE id = ?", BigDecimal.class, paymentId)));
+        assertEquals(0, new BigDecimal("300").compareTo(jdbcTemplate.queryForObject(
+                "SELECT t.total_amount FROM transactions t JOIN auto_pay_payments p ON p.transaction_id = t.id WHERE p.id = ?",
+                BigDecimal.class, paymentId)));
+        assertEquals(0, new BigDecimal("-300").compareTo(balanceOf(bankAccountId)), "bank account balance");
+    }
+
+    // a transfer into the card booked now, after the statements of the tests closed
+    private void manualCardPayment(BigDecimal amount) {
+        jdbcTemplate.update("""
+                INSERT INTO transactions (type, total_amount, user_share, is_split, paid_by_id, account_id, description, currency_code,
+                                          created_at, updated_at, created_by, updated_by)
+                VALUES ('TRANSFER', ?, ?, false, ?, ?, 'Card payment', ?, now(), now(), ?, ?)
+                """, amount, amount, userId, creditCardId, AppConstants.DEFAULT_CURRENCY_CODE, userId, userId);
+    }
+
+    private AutoPayService nodeWithStaleClaimTimeout(String nodeId, Duration staleClaimTimeout) {
+        return new AutoPayService(jdbcTemplate, transactionTemplate, balancePostingService, userDataVersionService,
+                nodeId, 100, 4, 3, staleClaimTimeout);
+    }
+
+    // due yesterday, within the month createDuePayments looks back; the statement date tells a card's statements apart
+    private long statement(LocalDate statementDate, BigDecimal amountDue) {
+        return jdbcTemplate.queryForObject("""
+                INSERT INTO credit_card_statements (account_id, statement_date, period_start, due_date, total_charges, amount_due,
+                                                    currency_code, created_at)
+                VALUES (?, ?, ?, ?, ?, ?, ?, now())
+                RETURNING id
+                """, Long.class, creditCardId, Date.valueOf(statementDate), Date.valueOf(statementDate.minusMonths(1)),
+                Date.valueOf(today.minusDays(1)), amountDue, amountDue, AppConstants.DEFAULT_CURRENCY_CODE);
+    }
+
+    private long payment(LocalDate statementDate, BigDecimal amountDue) {
+        long statementId = statement(statementDate, amountDue);
+        nodeWithStaleClaimTimeout("creator", Duration.ofMinutes(10)).createDuePayments(today);
+        return jdbcTemplate.queryForObject("SELECT id FROM auto_pay_payments WHERE statement_id = ?", Long.class, statementId);
+    }
+
+    private String statusOf(long paymentId) {
+        return jdbcTemplate.queryForObject("SELECT status FROM auto_pay_payments WHERE id = ?", String.class, paymentId);
+    }
+
+    private long count(String sql, Object... args) {
+        return jdbcTemplate.queryForObject(sql, Long.class, args);
+    }
+
+    private BigDecimal balanceOf(Long accountId) {
+        return jdbcTemplate.queryForObject("SELECT balance FROM accounts WHERE id = ?", BigDecimal.class, accountId);
+    }
+}
@@ -0,0 +1,233 @@
+package org.finsible.backend.service;
+
+import org.finsible.backend.AppConstants;
+import org.finsible.backend.dto.request.AccountRequestDTO;
+import org.finsible.backend.dto.request.CreditCardAccountRequestDTO;
+import org.finsible.backend.dto.request.DebitCardAccountRequestDTO;
+import org.finsible.backend.entity.User;
+import org.finsible.backend.repository.AccountGroupRepository;
+import org.finsible.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Many threads post to the same accounts at once; with delta updates no posting may be lost.
+// Not @Transactional: every posting commits on its own, like concurrent requests would.
+@SpringBootTest
+class BalancePostingConcurrencyTest {
+    private static final int THREADS = 16;
+    private static final int POSTINGS_PER_THREAD = 200;
+
+    @Autowired private BalancePostingService balancePostingService;
+    @Autowired private AccountService accountService;
+    @Autowired private CurrencyService currencyService;
+    @Autowired private LanguageService languageService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private AccountGroupRepository accountGroupRepository;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private String userId;
+    private Long bankAccountId;
+    private Long creditCardId;
+    private Long debitCardId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        userId = "balance-stress-" + UUID.randomUUID();
+        userRepository.save(User.builder()
+                .id(userId)
+                .email(userId + "@test.local")
+                .name("Balance Stress")
+                .lastLoggedIn(Instant.now())
+                .accountCreated(Instant.now())
+                .defaultLanguage(languageService.getLanguageOrDefault(AppConstants.DEFAULT_LANGUAGE_CODE))
+                .defaultCurrency(currencyService.getCurrencyOrDefault(AppConstants.DEFAULT_CURRENCY_CODE))
+                .build());
+        Long bankGroupId = accountGroupRepository.findAccountGroupByName(AppConstants.BANK_ACCOUNT_TYPE).getId();
+        AccountRequestDTO bank = new AccountRequestDTO();
+        bank.setName("Bank");
+        bankAccountId = accountService.createAccount(userId, bankGroupId, bank).getId();
+
+        CreditCardAccountRequestDTO creditCard = new CreditCardAccountRequestDTO();
+        creditCard.setName("Credit card");
+        creditCard.setCreditLimit(new BigDecimal("100000"));
+        creditCardId = accountService.createCreditCardAccount(userId, creditCard).getId();
+
+        DebitCardAccountRequestDTO debitCard = new DebitCardAccountRequestDTO();
+        debitCard.setName("Debit card");
+        debitCard.setLinkedBankAccountId(bankAccountId);
+        debitCardId = accountService.createDebitCardAccount(userId, debitCard).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM accounts WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+    }
+
+    @Test
+    void parallelPostingsAreNotLost() throws Exception {
+        BigDecimal creditLimit = new BigDecimal("100000");
+        // expected totals in cents
+        AtomicLong bankCents = new AtomicLong();
+        AtomicLong creditCardCents = new AtomicLong();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < POSTINGS_PER_THREAD; i++) {
+                    long income = random.nextLong(1, 100_000);
+                    long spend = random.nextLong(1, 100_000);
+                    long debitSpend = random.nextLong(1, 100_000);
+                    long cardSpend = random.nextLong(1, 100_000);
+                    transactionTemplate.executeWithoutResult(status -> {
+                        // two deltas for the bank account in one transaction are coalesced, the debit card posts to the bank too
+                        balancePostingService.post(bankAccountId, cents(income));
+                        balancePostingService.post(bankAccountId, cents(-spend));
+                        balancePostingService.post(debitCardId, cents(-debitSpend));
+                        balancePostingService.post(creditCardId, cents(-cardSpend));
+                    });
+                    bankCents.addAndGet(income - spend - debitSpend);
+                    creditCardCents.addAndGet(-cardSpend);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        assertEquals(0, cents(bankCents.get()).compareTo(balanceOf(bankAccountId)), "bank account balance");
+        assertEquals(0, creditLimit.add(cents(creditCardCents.get())).compareTo(balanceOf(creditCardId)), "credit card balance");
+        BigDecimal availableCredit = jdbcTemplate.queryForObject(
+                "SELECT available_credit FROM credit_card_details WHERE account_id = ?", BigDecimal.class, creditCardId);
+        assertEquals(0, creditLimit.add(cents(creditCardCents.get())).compareTo(availableCredit), "credit card available credit");
+    }
+
+    @Test
+    void creditLimitChangesKeepConcurrentPostings() throws Exception {
+        AtomicLong creditCardCents = new AtomicLong();
+        List<BigDecimal> limits = List.of(new BigDecimal("150000"), new BigDecimal("120000"), new BigDecimal("180000"));
+        int limitChanges = 60;
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < POSTINGS_PER_THREAD / 4; i++) {
+                    long cardSpend = random.nextLong(1, 100_000);
+                    transactionTemplate.executeWithoutResult(status -> balancePostingService.post(creditCardId, cents(-cardSpend)));
+                    creditCardCents.addAndGet(-cardSpend);
+                }
+                return null;
+            }));
+        }
+        // every edit loads the card and saves it while postings to it keep committing
+        workers.add(executor.submit(() -> {
+            start.await();
+            for (int i = 0; i < limitChanges; i++) {
+                CreditCardAccountRequestDTO update = new CreditCardAccountRequestDTO();
+                update.setCreditLimit(limits.get(i % limits.size()));
+                update.setDescription("limit change " + i);
+                accountService.updateCreditCardAccount(userId, creditCardId, update);
+            }
+            return null;
+        }));
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        BigDecimal finalLimit = limits.get((limitChanges - 1) % limits.size());
+        BigDecimal expected = finalLimit.add(cents(creditCardCents.get()));
+        assertEquals(0, finalLimit.compareTo(jdbcTemplate.queryForObject(
+                "SELECT credit_limit FROM credit_card_details WHERE account_id = ?", BigDecimal.class, creditCardId)), "credit limit");
+        assertEquals(0, expected.compareTo(jdbcTemplate.queryForObject(
+                "SELECT available_credit FROM credit_card_details WHERE account_id = ?", BigDecimal.class, creditCardId)), "available credit");
+        assertEquals(0, expected.compareTo(balanceOf(creditCardId)), "credit card balance");
+    }
+
+    @Test
+    void debitCardPostingsLockTheirBankInOrder() throws Exception {
+        // ids: debit card < wallet < savings, with the debit card now paying from savings; ordered by the posted ids a
+        // {debit card, wallet} transaction would lock savings first, a {wallet, savings} one the wallet first
+        Long bankGroupId = accountGroupRepository.findAccountGroupByName(AppConstants.BANK_ACCOUNT_TYPE).getId();
+        AccountRequestDTO walletRequest = new AccountRequestDTO();
+        walletRequest.setName("Wallet");
+        Long walletId = accountService.createAccount(userId, bankGroupId, walletRequest).getId();
+        AccountRequestDTO savingsRequest = new AccountRequestDTO();
+        savingsRequest.setName("Savings");
+        Long savingsId = accountService.createAccount(userId, bankGroupId, savingsRequest).getId();
+        DebitCardAccountRequestDTO relink = new DebitCardAccountRequestDTO();
+        relink.setLinkedBankAccountId(savingsId);
+        accountService.updateDebitCardAccount(userId, debitCardId, relink);
+
+        AtomicLong walletCents = new AtomicLong();
+        AtomicLong savingsCents = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            boolean viaDebitCard = t % 2 == 0;
+            workers.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < POSTINGS_PER_THREAD / 4; i++) {
+                    long walletDelta = random.nextLong(1, 100_000);
+                    long savingsDelta = -random.nextLong(1, 100_000);
+                    transactionTemplate.executeWithoutResult(status -> {
+                        balancePostingService.post(viaDebitCard ? debitCardId : savingsId, cents(savingsDelta));
+                        balancePostingService.post(walletId, cents(walletDelta));
+                    });
+                    walletCents.addAndGet(walletDelta);
+                    savingsCents.addAndGet(savingsDelta);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        // a deadlock fails a worker with the database's deadlock error
+        for (Future<?> worker : workers) {
+            worker.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        assertEquals(0, cents(walletCents.get()).compareTo(balanceOf(walletId)), "wallet balance");
+        assertEquals(0, cents(savingsCents.get()).compareTo(balanceOf(savingsId)), "savings balance");
+        assertEquals(0, BigDecimal.ZERO.compareTo(balanceOf(debitCardId)), "debit card balance");
+    }
+
+    private BigDecimal balanceOf(Long accountId) {
+        BigDecimal balance = jdbcTemplate.queryForObject("SELECT balance FROM accounts WHERE id = ?", BigDecimal.class, accountId);
+        return balance == null ? BigDecimal.ZERO : balance;
+    }
+
+    private static BigDecimal cents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
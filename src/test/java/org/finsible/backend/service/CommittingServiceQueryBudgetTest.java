@@ -0,0 +1,128 @@
+package org.finsible.backend.service;
+
+import org.finsible.backend.AppConstants;
+import org.finsible.backend.dto.request.AccountRequestDTO;
+import org.finsible.backend.dto.request.CreditCardAccountRequestDTO;
+import org.finsible.backend.dto.response.BootstrapResponseDTO;
+import org.finsible.backend.entity.User;
+import org.finsible.backend.repository.AccountGroupRepository;
+import org.finsible.backend.repository.UserRepository;
+import org.finsible.backend.support.QueryBudget;
+import org.finsible.backend.support.QueryBudgetTestConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// Query budgets of the paths that run on threads and transactions of their own, which would not see (or would wait on)
+// the data of a rolled back test transaction. Not @Transactional, the test data is committed and deleted afterwards.
+@SpringBootTest
+@Import(QueryBudgetTestConfiguration.class)
+class CommittingServiceQueryBudgetTest {
+    @Autowired private QueryBudget queryBudget;
+    @Autowired private BootstrapService bootstrapService;
+    @Autowired private AccountService accountService;
+    @Autowired private CategoryService categoryService;
+    @Autowired private BalancePostingService balancePostingService;
+    @Autowired private UserDataVersionService userDataVersionService;
+    @Autowired private CurrencyService currencyService;
+    @Autowired private LanguageService languageService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private AccountGroupRepository accountGroupRepository;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private String userId;
+    private Long bankAccountId;
+    private Long creditCardId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        userId = "committing-budget-" + UUID.randomUUID();
+        userRepository.save(User.builder()
+                .id(userId)
+                .email(userId + "@test.local")
+                .name("Committing Budget")
+                .lastLoggedIn(Instant.now())
+                .accountCreated(Instant.now())
+                .defaultLanguage(languageService.getLanguageOrDefault(AppConstants.DEFAULT_LANGUAGE_CODE))
+                .defaultCurrency(currencyService.getCurrencyOrDefault(AppConstants.DEFAULT_CURRENCY_CODE))
+                .build());
+        Long bankGroupId = accountGroupRepository.findAccountGroupByName(AppConstants.BANK_ACCOUNT_TYPE).getId();
+        AccountRequestDTO bank = new AccountRequestDTO();
+        bank.setName("Bank");
+        bankAccountId = accountService.createAccount(userId, bankGroupId, bank).getId();
+
+        CreditCardAccountRequestDTO creditCard = new CreditCardAccountRequestDTO();
+        creditCard.setName("Credit card");
+        creditCard.setCreditLimit(new BigDecimal("100000"));
+        creditCard.setAutoPayEnabled(true);
+        creditCard.setAutoPayFromAccountId(bankAccountId);
+        creditCardId = accountService.createCreditCardAccount(userId, creditCard).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM transactions WHERE paid_by_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM accounts WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+    }
+
+    @Test
+    void getBootstrap() {
+        categoryService.getAllCategories(userId); // builds the cached default categories
+
+        // the data version (when not cached) and one query per database section, the sections on their own threads
+        BootstrapResponseDTO bootstrap = queryBudget.atMost(5, "BootstrapService.getBootstrap",
+                () -> bootstrapService.getBootstrap(userId, null));
+        assertEquals(2, bootstrap.getAccounts().getData().size());
+
+        List<String> held = List.of(bootstrap.getUser().getEtag(), bootstrap.getAccounts().getEtag(), bootstrap.getAccountGroups().getEtag(),
+                bootstrap.getCategories().getEtag(), bootstrap.getCurrencies().getEtag(), bootstrap.getLanguages().getEtag());
+        // a client holding every section costs at most the version read
+        BootstrapResponseDTO unchanged = queryBudget.atMost(1, "BootstrapService.getBootstrap (all sections held)",
+                () -> bootstrapService.getBootstrap(userId, held));
+        assertNull(unchanged.getAccounts().getData());
+    }
+
+    @Test
+    void processDuePayments() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        int payments = 3;
+        for (int i = 1; i <= payments; i++) {
+            statement(today.minusDays(40 + i), today.minusDays(1), new BigDecimal(100 * i));
+        }
+        AutoPayService node = new AutoPayService(jdbcTemplate, transactionTemplate, balancePostingService, userDataVersionService,
+                "budget-node", 100, 4, 3, Duration.ofMinutes(10));
+        assertEquals(payments, node.createDuePayments(today));
+
+        // the claim, then per payment: payable check locking the card, amount still due, guarded transition, transfer insert,
+        // its id and amount on the payment, the posting target lookup, both balance legs in one batch, version bump, invalidation
+        queryBudget.atMost(1 + 9 * payments, "AutoPayService.processDuePayments", () -> node.processDuePayments());
+    }
+
+    private void statement(LocalDate statementDate, LocalDate dueDate, BigDecimal amountDue) {
+        jdbcTemplate.update("""
+                INSERT INTO credit_card_statements (account_id, statement_date, period_start, due_date, total_charges, amount_due,
+                                                    currency_code, created_at)
+                VALUES (?, ?, ?, ?, ?, ?, ?, now())
+                """, creditCardId, Date.valueOf(statementDate), Date.valueOf(statementDate.minusMonths(1)), Date.valueOf(dueDate),
+                amountDue, amountDue, AppConstants.DEFAULT_CURRENCY_CODE);
+    }
+}
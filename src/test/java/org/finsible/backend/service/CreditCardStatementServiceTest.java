@@ -0,0 +1,172 @@
+package org.finsible.backend.service;
+
+import org.finsible.backend.AppConstants;
+import org.finsible.backend.dto.request.CreditCardAccountRequestDTO;
+import org.finsible.backend.entity.CreditCardStatement;
+import org.finsible.backend.entity.User;
+import org.finsible.backend.repository.CreditCardStatementRepository;
+import org.finsible.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs the statement job for fixed dates against cards of a throwaway user. Not @Transactional: every chunk of the job
+// commits on its own connection.
+@SpringBootTest
+class CreditCardStatementServiceTest {
+    private static final String INSERT_TRANSACTION_SQL = """
+            INSERT INTO transactions (type, total_amount, user_share, is_split, paid_by_id, account_id, description, currency_code,
+                                      created_at, updated_at, created_by, updated_by)
+            VALUES (?, ?, ?, false, ?, ?, 'statement test', ?, ?, ?, ?, ?)
+            """;
+
+    @Autowired private CreditCardStatementService statementService;
+    @Autowired private CreditCardStatementRepository statementRepository;
+    @Autowired private AccountService accountService;
+    @Autowired private CurrencyService currencyService;
+    @Autowired private LanguageService languageService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private String userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = "statement-test-" + UUID.randomUUID();
+        userRepository.save(User.builder()
+                .id(userId)
+                .email(userId + "@test.local")
+                .name("Statement Test")
+                .lastLoggedIn(Instant.now())
+                .accountCreated(Instant.now())
+                .defaultLanguage(languageService.getLanguageOrDefault(AppConstants.DEFAULT_LANGUAGE_CODE))
+                .defaultCurrency(currencyService.getCurrencyOrDefault(AppConstants.DEFAULT_CURRENCY_CODE))
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM transactions WHERE paid_by_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM accounts WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+    }
+
+    @Test
+    void lateBillingDaysCloseOnTheLastDayOfShortMonths() throws Exception {
+        Long billedOn29 = card(29, 5);
+        Long billedOn30 = card(30, 5);
+        Long billedOn31 = card(31, 5);
+
+        statementService.generateStatements(LocalDate.of(2025, 2, 28));
+        statementService.generateStatements(LocalDate.of(2025, 4, 29));
+        statementService.generateStatements(LocalDate.of(2025, 4, 30));
+
+        assertStatementDates(billedOn29, LocalDate.of(2025, 4, 29), LocalDate.of(2025, 2, 28));
+        assertStatementDates(billedOn30, LocalDate.of(2025, 4, 30), LocalDate.of(2025, 2, 28));
+        assertStatementDates(billedOn31, LocalDate.of(2025, 4, 30), LocalDate.of(2025, 2, 28));
+        // the cycle starts on the billing day of the previous month, clamped the same way
+        assertEquals(LocalDate.of(2025, 1, 29), latest(billedOn29, LocalDate.of(2025, 2, 28)).getPeriodStart());
+        assertEquals(LocalDate.of(2025, 1, 31), latest(billedOn31, LocalDate.of(2025, 2, 28)).getPeriodStart());
+        assertEquals(LocalDate.of(2025, 3, 30), latest(billedOn30, LocalDate.of(2025, 4, 30)).getPeriodStart());
+        assertEquals(LocalDate.of(2025, 3, 31), latest(billedOn31, LocalDate.of(2025, 4, 30)).getPeriodStart());
+    }
+
+    @Test
+    void leapFebruaryClosesOnThe29th() throws Exception {
+        Long billedOn29 = card(29, 5);
+        Long billedOn31 = card(31, 5);
+
+        statementService.generateStatements(LocalDate.of(2024, 2, 29));
+
+        assertStatementDates(billedOn29, LocalDate.of(2024, 2, 29));
+        assertStatementDates(billedOn31, LocalDate.of(2024, 2, 29));
+    }
+
+    @Test
+    void dueDateFallsInTheStatementMonthOnlyWhenItIsStillAhead() throws Exception {
+        Long dueLater = card(5, 25);
+        Long dueEarlier = card(20, 10);
+        Long dueOn31 = card(10, 31);
+
+        statementService.generateStatements(LocalDate.of(2025, 1, 5));
+        statementService.generateStatements(LocalDate.of(2025, 1, 20));
+        statementService.generateStatements(LocalDate.of(2025, 1, 10));
+
+        assertEquals(LocalDate.of(2025, 1, 25), latest(dueLater, LocalDate.of(2025, 1, 5)).getDueDate());
+        assertEquals(LocalDate.of(2025, 2, 10), latest(dueEarlier, LocalDate.of(2025, 1, 20)).getDueDate());
+        assertEquals(LocalDate.of(2025, 1, 31), latest(dueOn31, LocalDate.of(2025, 1, 10)).getDueDate());
+
+        // a due day past the end of the month is clamped like the billing day
+        Long dueOn30 = card(3, 30);
+        statementService.generateStatements(LocalDate.of(2025, 2, 3));
+        assertEquals(LocalDate.of(2025, 2, 28), latest(dueOn30, LocalDate.of(2025, 2, 3)).getDueDate());
+    }
+
+    @Test
+    void unpaidBalanceIsCarriedForwardAndTransfersAreCredits() throws Exception {
+        Long cardId = card(10, 25);
+        transaction("EXPENSE", "1000", cardId, LocalDate.of(2024, 12, 15));
+        statementService.generateStatements(LocalDate.of(2025, 1, 10));
+
+        // a partial payment (auto-pay writes a transfer to the card) and a new charge
+        transaction("TRANSFER", "400", cardId, LocalDate.of(2025, 1, 20));
+        transaction("EXPENSE", "200", cardId, LocalDate.of(2025, 1, 22));
+        statementService.generateStatements(LocalDate.of(2025, 2, 10));
+
+        CreditCardStatement first = latest(cardId, LocalDate.of(2025, 1, 10));
+        CreditCardStatement second = latest(cardId, LocalDate.of(2025, 2, 10));
+        assertEquals(0, new BigDecimal("1000").compareTo(first.getAmountDue()));
+        assertEquals(0, new BigDecimal("200").compareTo(second.getTotalCharges()));
+        assertEquals(0, new BigDecimal("400").compareTo(second.getTotalCredits()));
+        assertEquals(0, new BigDecimal("800").compareTo(second.getAmountDue()));
+
+        // paying more than is due leaves nothing due, not a negative amount
+        transaction("INCOME", "900", cardId, LocalDate.of(2025, 2, 20));
+        statementService.generateStatements(LocalDate.of(2025, 3, 10));
+        assertEquals(0, latest(cardId, LocalDate.of(2025, 3, 10)).getAmountDue().signum());
+    }
+
+    private Long card(int billingDay, int dueDay) throws Exception {
+        CreditCardAccountRequestDTO card = new CreditCardAccountRequestDTO();
+        card.setName("Card billed on " + billingDay);
+        card.setCreditLimit(new BigDecimal("100000"));
+        card.setBillingDate(billingDay);
+        card.setDueDate(dueDay);
+        return accountService.createCreditCardAccount(userId, card).getId();
+    }
+
+    private void transaction(String type, String amount, Long accountId, LocalDate day) {
+        Timestamp createdAt = Timestamp.from(day.atTime(12, 0).toInstant(ZoneOffset.UTC));
+        BigDecimal total = new BigDecimal(amount);
+        jdbcTemplate.update(INSERT_TRANSACTION_SQL, type, total, total, userId, accountId, AppConstants.DEFAULT_CURRENCY_CODE,
+                createdAt, createdAt, userId, userId);
+    }
+
+    // newest first
+    private void assertStatementDates(Long cardId, LocalDate... expected) {
+        List<LocalDate> dates = statementRepository.findTop24ByAccountIdOrderByStatementDateDesc(cardId).stream()
+                .map(CreditCardStatement::getStatementDate)
+                .toList();
+        assertEquals(List.of(expected), dates);
+    }
+
+    private CreditCardStatement latest(Long cardId, LocalDate statementDate) {
+        return statementRepository.findTop24ByAccountIdOrderByStatementDateDesc(cardId).stream()
+                .filter(statement -> statement.getStatementDate().equals(statementDate))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("no statement on " + statementDate + " for card " + cardId));
+    }
+}
@@ -0,0 +1,31 @@
+package org.finsible.backend.service;
+
+import org.apache.coyote.BadRequestException;
+import org.finsible.backend.repository.MonthlyCategorySpendRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReportServiceTest {
+    private final MonthlyCategorySpendRepository repository = mock(MonthlyCategorySpendRepository.class);
+    private final ReportService reportService = new ReportService(repository);
+
+    @Test
+    void aReportCoversAtMostMaxMonthsCountingBothEnds() throws BadRequestException {
+        when(repository.findByUserIdAndMonthBetweenOrderByMonthAscCategoryIdAsc(anyString(), any(), any())).thenReturn(List.of());
+        YearMonth first = YearMonth.of(2000, 1);
+
+        // 2000-01 to 2009-12 is 120 months
+        assertEquals(List.of(), reportService.getMonthlySpend("user", first, first.plusMonths(ReportService.MAX_MONTHS - 1)));
+        // 2000-01 to 2010-01 is 121
+        assertThrows(BadRequestException.class,
+                () -> reportService.getMonthlySpend("user", first, first.plusMonths(ReportService.MAX_MONTHS)));
+    }
+}
@@ -0,0 +1,548 @@
+package org.finsible.backend.service;
+
+import org.finsible.backend.AppConstants;
+import org.finsible.backend.dto.request.*;
+import org.finsible.backend.dto.response.AccountGroupResponseDTO;
+import org.finsible.backend.dto.response.AccountResponseDTO;
+import org.finsible.backend.dto.response.CategoryResponseDTO;
+import org.finsible.backend.dto.response.CurrencyResponseDTO;
+import org.finsible.backend.dto.response.ImportProgressResponseDTO;
+import org.finsible.backend.dto.response.LanguageResponseDTO;
+import org.finsible.backend.dto.response.LoanScheduleResponseDTO;
+import org.finsible.backend.dto.response.SettlementResponseDTO;
+import org.finsible.backend.dto.response.SyncResponseDTO;
+import org.finsible.backend.dto.response.TransactionResponseDTO;
+import org.finsible.backend.entity.Category;
+import org.finsible.backend.entity.Transaction;
+import org.finsible.backend.entity.User;
+import org.finsible.backend.importer.TransactionRowReader;
+import org.finsible.backend.repository.AccountGroupRepository;
+import org.finsible.backend.repository.UserRepository;
+import org.finsible.backend.support.QueryBudget;
+import org.finsible.backend.support.QueryBudgetTestConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Query budgets for every public service method, each test rolls back. Paths that commit on threads of their own
+// (bootstrap, auto-pay) are in CommittingServiceQueryBudgetTest.
+// Budgets count every statement, JDBC ones and the writes left for commit included (see QueryBudget), and are upper bounds
+// of the current behavior: lower them when a method gets cheaper, never raise them to make a test pass without
+// understanding which statement was added. Writes to a user's data end with the data version bump and its invalidation.
+// Google sign-in (AuthService.googleSignIn / googleSignInWithCode) needs Google's endpoints and is not covered here.
+@SpringBootTest
+@Transactional
+@Import(QueryBudgetTestConfiguration.class)
+class ServiceQueryBudgetTest {
+    @Autowired private QueryBudget queryBudget;
+    @Autowired private AccountService accountService;
+    @Autowired private AccountGroupService accountGroupService;
+    @Autowired private AuthService authService;
+    @Autowired private CategoryService categoryService;
+    @Autowired private CurrencyService currencyService;
+    @Autowired private LanguageService languageService;
+    @Autowired private TransactionService transactionService;
+    @Autowired private ReportService reportService;
+    @Autowired private CreditCardStatementService creditCardStatementService;
+    @Autowired private SyncService syncService;
+    @Autowired private TransactionImportService transactionImportService;
+    @Autowired private SettlementService settlementService;
+    @Autowired private LoanService loanService;
+    @Autowired private BalancePostingService balancePostingService;
+    @Autowired private MonthlySpendRollupService monthlySpendRollupService;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private UserRepository userRepository;
+    @Autowired private AccountGroupRepository accountGroupRepository;
+
+    private String userId;
+    private Long bankGroupId;
+    private AccountResponseDTO bankAccount;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        userId = "query-budget-" + UUID.randomUUID();
+        userRepository.save(User.builder()
+                .id(userId)
+                .email(userId + "@test.local")
+                .name("Query Budget")
+                .lastLoggedIn(Instant.now())
+                .accountCreated(Instant.now())
+                .defaultLanguage(languageService.getLanguageOrDefault(AppConstants.DEFAULT_LANGUAGE_CODE))
+                .defaultCurrency(currencyService.getCurrencyOrDefault(AppConstants.DEFAULT_CURRENCY_CODE))
+                .build());
+        bankGroupId = accountGroupRepository.findAccountGroupByName(AppConstants.BANK_ACCOUNT_TYPE).getId();
+        bankAccount = accountService.createAccount(userId, bankGroupId, accountRequest("Savings"));
+        accountService.createCreditCardAccount(userId, creditCardRequest("Card"));
+        accountService.createDebitCardAccount(userId, debitCardRequest("Debit", bankAccount.getId()));
+        categoryService.createUserCategory(userId, categoryRequest("Groceries"));
+    }
+
+    // accounts
+
+    @Test
+    void getAccounts() {
+        List<AccountResponseDTO> accounts = queryBudget.atMost(1, "AccountService.getAccounts", () -> accountService.getAccounts(userId));
+        assertEquals(3, accounts.size());
+    }
+
+    @Test
+    void getAccountsWithDetailJoins() {
+        queryBudget.atMost(1, "AccountService.getAccountsWithDetailJoins", () -> accountService.getAccountsWithDetailJoins(userId));
+    }
+
+    @Test
+    void getAccountsWithDetailLookups() {
+        // legacy path: accounts, their eager relations and one lookup per detail table
+        queryBudget.atMost(8, "AccountService.getAccountsWithDetailLookups", () -> accountService.getAccountsWithDetailLookups(userId));
+    }
+
+    @Test
+    void getAccountsChangedSince() {
+        queryBudget.atMost(1, "AccountService.getAccountsChangedSince", () -> accountService.getAccountsChangedSince(userId, 0, true));
+    }
+
+    @Test
+    void createAccount() {
+        // user, account group, insert, version bump, invalidation
+        queryBudget.atMost(5, "AccountService.createAccount",
+                () -> accountService.createAccount(userId, bankGroupId, accountRequest("Wallet")));
+    }
+
+    @Test
+    void updateAccount() {
+        AccountRequestDTO update = new AccountRequestDTO();
+        update.setDescription("Salary account");
+        queryBudget.atMost(6, "AccountService.updateAccount",
+                () -> accountService.updateAccount(userId, bankAccount.getId(), update));
+    }
+
+    @Test
+    void deleteAccount() throws Exception {
+        AccountResponseDTO account = accountService.createAccount(userId, bankGroupId, accountRequest("Old account"));
+        // user, account, delete, tombstone, version bump, invalidation
+        queryBudget.atMost(7, "AccountService.deleteAccount", () -> accountService.deleteAccount(userId, account.getId()));
+    }
+
+    @Test
+    void createCreditCardAccount() {
+        queryBudget.atMost(7, "AccountService.createCreditCardAccount",
+                () -> accountService.createCreditCardAccount(userId, creditCardRequest("Travel card")));
+    }
+
+    @Test
+    void updateCreditCardAccount() throws Exception {
+        AccountResponseDTO card = accountService.createCreditCardAccount(userId, creditCardRequest("Fuel card"));
+        CreditCardAccountRequestDTO update = new CreditCardAccountRequestDTO();
+        update.setCreditLimit(BigDecimal.valueOf(90000));
+        // row lock, user, account, card, limit update, posting target lookup and posting, version bump, invalidation
+        queryBudget.atMost(10, "AccountService.updateCreditCardAccount",
+                () -> accountService.updateCreditCardAccount(userId, card.getId(), update));
+    }
+
+    @Test
+    void createDebitCardAccount() {
+        queryBudget.atMost(7, "AccountService.createDebitCardAccount",
+                () -> accountService.createDebitCardAccount(userId, debitCardRequest("Second debit", bankAccount.getId())));
+    }
+
+    @Test
+    void updateDebitCardAccount() throws Exception {
+        AccountResponseDTO card = accountService.createDebitCardAccount(userId, debitCardRequest("Spare debit", bankAccount.getId()));
+        DebitCardAccountRequestDTO update = new DebitCardAccountRequestDTO();
+        update.setName("Renamed debit");
+        queryBudget.atMost(8, "AccountService.updateDebitCardAccount",
+                () -> accountService.updateDebitCardAccount(userId, card.getId(), update));
+    }
+
+    // account groups
+
+    @Test
+    void getAccountGroups() {
+        accountGroupService.createAccountGroup(userId, accountGroupRequest("Investments"));
+        queryBudget.atMost(2, "AccountGroupService.getAccountGroups", () -> accountGroupService.getAccountGroups(userId));
+    }
+
+    @Test
+    void getAccountGroupsChangedSince() {
+        queryBudget.atMost(1, "AccountGroupService.getAccountGroupsChangedSince",
+                () -> accountGroupService.getAccountGroupsChangedSince(userId, 0));
+    }
+
+    @Test
+    void createAccountGroup() {
+        queryBudget.atMost(4, "AccountGroupService.createAccountGroup",
+                () -> accountGroupService.createAccountGroup(userId, accountGroupRequest("Crypto")));
+    }
+
+    @Test
+    void updateAccountGroup() {
+        AccountGroupResponseDTO group = accountGroupService.createAccountGroup(userId, accountGroupRequest("Pension"));
+        queryBudget.atMost(5, "AccountGroupService.updateAccountGroup",
+                () -> accountGroupService.updateAccountGroup(userId, group.getId(), accountGroupRequest("Retirement")));
+    }
+
+    @Test
+    void deleteAccountGroup() {
+        AccountGroupResponseDTO group = accountGroupService.createAccountGroup(userId, accountGroupRequest("Temporary"));
+        queryBudget.atMost(6, "AccountGroupService.deleteAccountGroup",
+                () -> accountGroupService.deleteAccountGroup(userId, group.getId()));
+    }
+
+    // auth
+
+    @Test
+    void authenticateAndGenerateToken() {
+        queryBudget.atMost(0, "AuthService.authenticateAndGenerateToken",
+                () -> authService.authenticateAndGenerateToken(userId, List.of("USER")));
+    }
+
+    @Test
+    void getUser() {
+        queryBudget.atMost(1, "AuthService.getUser", () -> authService.getUser(userId));
+    }
+
+    @Test
+    void signOut() {
+        queryBudget.atMost(1, "AuthService.signOut", () -> authService.signOut(userId));
+    }
+
+    // categories
+
+    @Test
+    void getAllCategories() {
+        categoryService.getAllCategories(userId); // builds the cached default categories
+        queryBudget.atMost(1, "CategoryService.getAllCategories", () -> categoryService.getAllCategories(userId));
+    }
+
+    @Test
+    void getCategoriesByType() {
+        categoryService.getCategoriesByType(userId, Category.CategoryType.EXPENSE);
+        queryBudget.atMost(1, "CategoryService.getCategoriesByType",
+                () -> categoryService.getCategoriesByType(userId, Category.CategoryType.EXPENSE));
+    }
+
+    @Test
+    void getCategoryTree() {
+        queryBudget.atMost(1, "CategoryService.getCategoryTree", () -> categoryService.getCategoryTree(userId));
+    }
+
+    @Test
+    void getCategoriesChangedSince() {
+        queryBudget.atMost(1, "CategoryService.getCategoriesChangedSince", () -> categoryService.getCategoriesChangedSince(userId, 0));
+    }
+
+    @Test
+    void getDefaultCategories() {
+        queryBudget.atMost(1, "CategoryService.getDefaultCategories", () -> categoryService.getDefaultCategories());
+    }
+
+    @Test
+    void getDefaultCategoriesVersion() {
+        queryBudget.atMost(0, "CategoryService.getDefaultCategoriesVersion", () -> categoryService.getDefaultCategoriesVersion());
+    }
+
+    @Test
+    void createDefaultCategory() {
+        // insert and the invalidation of every node's default categories
+        queryBudget.atMost(2, "CategoryService.createDefaultCategory",
+                () -> categoryService.createDefaultCategory(categoryRequest("Default budget test")));
+    }
+
+    @Test
+    void updateDefaultCategory() throws Exception {
+        CategoryResponseDTO category = categoryService.createDefaultCategory(categoryRequest("Default to update"));
+        queryBudget.atMost(3, "CategoryService.updateDefaultCategory",
+                () -> categoryService.updateDefaultCategory(category.getId(), categoryRequest("Default updated")));
+    }
+
+    @Test
+    void deleteDefaultCategory() throws Exception {
+        CategoryResponseDTO category = categoryService.createDefaultCategory(categoryRequest("Default to delete"));
+        queryBudget.atMost(4, "CategoryService.deleteDefaultCategory", () -> categoryService.deleteDefaultCategory(category.getId()));
+    }
+
+    @Test
+    void createUserCategory() {
+        queryBudget.atMost(4, "CategoryService.createUserCategory",
+                () -> categoryService.createUserCategory(userId, categoryRequest("Rent")));
+    }
+
+    @Test
+    void updateUserCategory() throws Exception {
+        CategoryResponseDTO category = categoryService.createUserCategory(userId, categoryRequest("Fuel"));
+        queryBudget.atMost(5, "CategoryService.updateUserCategory",
+                () -> categoryService.updateUserCategory(userId, category.getId(), categoryRequest("Petrol")));
+    }
+
+    @Test
+    void deleteUserCategory() throws Exception {
+        CategoryResponseDTO category = categoryService.createUserCategory(userId, categoryRequest("Gifts"));
+        queryBudget.atMost(6, "CategoryService.deleteUserCategory", () -> categoryService.deleteUserCategory(userId, category.getId()));
+    }
+
+    // transactions and reports
+
+    @Test
+    void getTransactions() throws Exception {
+        transactionService.createTransaction(userId, transactionRequest(new BigDecimal("250")));
+        TransactionService.TransactionFilter filter = new TransactionService.TransactionFilter(bankAccount.getId(), null, null, null, null, null);
+        queryBudget.atMost(1, "TransactionService.getTransactions", () -> transactionService.getTransactions(userId, filter, null, 20));
+    }
+
+    @Test
+    void getTransaction() throws Exception {
+        TransactionResponseDTO transaction = transactionService.createTransaction(userId, transactionRequest(new BigDecimal("80")));
+        queryBudget.atMost(1, "TransactionService.getTransaction", () -> transactionService.getTransaction(userId, transaction.getId()));
+    }
+
+    @Test
+    void createTransaction() {
+        // user, account ownership, sequence, insert, posting target lookup and posting, rollup upsert, version bump, invalidation
+        queryBudget.atMost(9, "TransactionService.createTransaction",
+                () -> transactionService.createTransaction(userId, transactionRequest(new BigDecimal("120"))));
+    }
+
+    @Test
+    void updateTransaction() throws Exception {
+        TransactionResponseDTO transaction = transactionService.createTransaction(userId, transactionRequest(new BigDecimal("60")));
+        TransactionRequestDTO update = new TransactionRequestDTO();
+        update.setTotalAmount(new BigDecimal("75"));
+        // the old and new amounts net out into one balance posting (and its target lookup) and one rollup upsert
+        TransactionResponseDTO updated = queryBudget.atMost(7, "TransactionService.updateTransaction",
+                () -> transactionService.updateTransaction(userId, transaction.getId(), update));
+        // not split: the user's share follows the edited amount
+        assertEquals(0, new BigDecimal("75").compareTo(updated.getUserShare()));
+    }
+
+    @Test
+    void deleteTransaction() throws Exception {
+        TransactionResponseDTO transaction = transactionService.createTransaction(userId, transactionRequest(new BigDecimal("30")));
+        queryBudget.atMost(7, "TransactionService.deleteTransaction", () -> transactionService.deleteTransaction(userId, transaction.getId()));
+    }
+
+    @Test
+    void getMonthlySpend() throws Exception {
+        transactionService.createTransaction(userId, transactionRequest(new BigDecimal("40")));
+        queryBudget.atMost(1, "ReportService.getMonthlySpend", () -> reportService.getMonthlySpend(userId, null, null));
+    }
+
+    @Test
+    void getCreditCardStatements() throws Exception {
+        AccountResponseDTO card = accountService.createCreditCardAccount(userId, creditCardRequest("Statements"));
+        queryBudget.atMost(2, "CreditCardStatementService.getStatements",
+                () -> creditCardStatementService.getStatements(userId, card.getId()));
+    }
+
+    @Test
+    void importTransactions() throws Exception {
+        String csv = """
+                date,amount,description
+                2025-01-05,-120.50,Groceries
+                2025-01-20,3000,Salary
+                2025-02-03,-45,Fuel
+                """;
+        // user, the account and category ids, one batch insert per chunk, then posting target lookup and balance posting,
+        // rollup upsert, version bump and invalidation for the whole chunk, however many rows it has
+        ImportProgressResponseDTO progress = queryBudget.atMost(9, "TransactionImportService.importTransactions",
+                () -> transactionImportService.importTransactions(userId, TransactionRowReader.ImportFormat.CSV, bankAccount.getId(),
+                        new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))));
+        assertEquals(3, progress.getRowsImported());
+        queryBudget.atMost(0, "TransactionImportService.getProgress", () -> transactionImportService.getProgress(userId));
+    }
+
+    @Test
+    void balancePostingsAreOneBatch() {
+        AccountResponseDTO wallet = accountService.createAccount(userId, bankGroupId, accountRequest("Wallet"));
+        // one lookup of the rows the postings go to, then one batch
+        queryBudget.atMost(2, "BalancePostingService.post", () -> {
+            balancePostingService.post(bankAccount.getId(), new BigDecimal("100"));
+            balancePostingService.post(bankAccount.getId(), new BigDecimal("-40"));
+            balancePostingService.postAll(Map.of(wallet.getId(), new BigDecimal("15"), bankAccount.getId(), new BigDecimal("5")));
+        });
+    }
+
+    @Test
+    void rollupDeltasAreOneBatch() {
+        Instant january = LocalDate.of(2025, 1, 10).atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant february = LocalDate.of(2025, 2, 10).atStartOfDay(ZoneOffset.UTC).toInstant();
+        queryBudget.atMost(1, "MonthlySpendRollupService.add", () -> {
+            monthlySpendRollupService.add(userId, january, null, AppConstants.DEFAULT_CURRENCY_CODE, Transaction.TransactionType.EXPENSE,
+                    new BigDecimal("20"), 1);
+            monthlySpendRollupService.add(userId, january, null, AppConstants.DEFAULT_CURRENCY_CODE, Transaction.TransactionType.EXPENSE,
+                    new BigDecimal("30"), 1);
+            monthlySpendRollupService.add(userId, february, null, AppConstants.DEFAULT_CURRENCY_CODE, Transaction.TransactionType.INCOME,
+                    new BigDecimal("500"), 1);
+        });
+    }
+
+    @Test
+    void rebuildMonthlySpendRollup() {
+        // a delete and an insert for each of the 4 partitions, on the rebuild's own threads and transactions
+        queryBudget.atMost(8, "MonthlySpendRollupService.rebuild", () -> monthlySpendRollupService.rebuild());
+    }
+
+    // loans and spaces
+
+    @Test
+    void loanSchedules() throws Exception {
+        Long loanGroupId = accountGroupRepository.findAccountGroupByName(AppConstants.LOAN_ACCOUNT_TYPE).getId();
+        AccountResponseDTO loan = accountService.createAccount(userId, loanGroupId, accountRequest("Home loan"));
+        jdbcTemplate.update("INSERT INTO loan_details (account_id, principal_amount, interest_rate, tenure_months, start_date, created_at, updated_at) "
+                + "VALUES (?, 2500000, 8.5, 240, ?, now(), now())", loan.getId(), Date.valueOf(LocalDate.now(ZoneOffset.UTC).minusYears(1)));
+
+        // the loan row, then its account and the account's eager relations; schedules come from the cache or are computed
+        LoanScheduleResponseDTO schedule = queryBudget.atMost(5, "LoanService.getSchedule", () -> loanService.getSchedule(userId, loan.getId()));
+        assertEquals(240, schedule.getInstallments().size());
+        LoanPrepaymentRequestDTO whatIf = new LoanPrepaymentRequestDTO(List.of(new LoanPrepaymentRequestDTO.PrepaymentDTO(
+                LocalDate.now(ZoneOffset.UTC).plusMonths(2), new BigDecimal("200000"))), null);
+        queryBudget.atMost(5, "LoanService.getPrepaymentWhatIf", () -> loanService.getPrepaymentWhatIf(userId, loan.getId(), whatIf));
+    }
+
+    @Test
+    void getSettlements() {
+        Long spaceId = jdbcTemplate.queryForObject("INSERT INTO spaces (space_name, currency_code, created_at, updated_at) "
+                + "VALUES ('Trip', ?, now(), now()) RETURNING id", Long.class, AppConstants.DEFAULT_CURRENCY_CODE);
+        jdbcTemplate.update("INSERT INTO space_user_details (space_id, user_id, user_email, is_active, currency_code, created_at, updated_at) "
+                + "VALUES (?, ?, ?, TRUE, ?, now(), now())", spaceId, userId, userId + "@test.local", AppConstants.DEFAULT_CURRENCY_CODE);
+        splitBalance(spaceId, userId + "@test.local", "a@test.local", "300");
+        splitBalance(spaceId, "b@test.local", userId + "@test.local", "100");
+        splitBalance(spaceId, "b@test.local", "a@test.local", "50");
+
+        // membership and the net positions, however many balances are open
+        List<SettlementResponseDTO> settlements = queryBudget.atMost(2, "SettlementService.getSettlements",
+                () -> settlementService.getSettlements(userId, spaceId));
+        // the user pays 200 and b pays 150, both to a
+        assertEquals(2, settlements.size());
+    }
+
+    // reference data, reads are served from memory
+
+    @Test
+    void currencyReads() {
+        queryBudget.atMost(0, "CurrencyService reads", () -> {
+            currencyService.getAllSupportedCurrencies();
+            currencyService.getCurrency(AppConstants.DEFAULT_CURRENCY_CODE);
+            currencyService.getCurrencyOrDefault("???");
+            currencyService.getSnapshot();
+        });
+    }
+
+    @Test
+    void currencyReloadSnapshot() {
+        queryBudget.atMost(1, "CurrencyService.reloadSnapshot", () -> currencyService.reloadSnapshot());
+    }
+
+    @Test
+    void createAndDeleteSupportedCurrency() {
+        // the in-memory snapshot does not roll back with the test, so the currency is removed again in the same test
+        CurrencyResponseDTO currency = queryBudget.atMost(2, "CurrencyService.createSupportedCurrency",
+                () -> currencyService.createSupportedCurrency(new CurrencyRequestDTO("Test currency", "ZZQ", "Z")));
+        queryBudget.atMost(3, "CurrencyService.deleteSupportedCurrency", () -> currencyService.deleteSupportedCurrency(currency.getId()));
+    }
+
+    @Test
+    void languageReads() {
+        queryBudget.atMost(0, "LanguageService reads", () -> {
+            languageService.getAllSupportedLanguages();
+            languageService.getLanguageOrDefault("??");
+            languageService.getSnapshot();
+        });
+    }
+
+    @Test
+    void languageReloadSnapshot() {
+        queryBudget.atMost(1, "LanguageService.reloadSnapshot", () -> languageService.reloadSnapshot());
+    }
+
+    @Test
+    void createAndDeleteSupportedLanguage() {
+        LanguageResponseDTO language = queryBudget.atMost(2, "LanguageService.createSupportedLanguage",
+                () -> languageService.createSupportedLanguage(new LanguageRequestDTO("zq", "Test language")));
+        queryBudget.atMost(3, "LanguageService.deleteSupportedLanguage", () -> languageService.deleteSupportedLanguage(language.getId()));
+    }
+
+    // sync: the snapshot, one query per list and, on a delta, the tombstones
+
+    @Test
+    void fullSync() throws Exception {
+        SyncResponseDTO sync = queryBudget.atMost(4, "SyncService.sync", () -> syncService.sync(userId, null));
+        assertEquals(3, sync.getAccounts().size());
+    }
+
+    @Test
+    void deltaSyncReturnsRowsWrittenAfterTheWatermark() throws Exception {
+        AccountResponseDTO oldAccount = accountService.createAccount(userId, bankGroupId, accountRequest("Old account"));
+        String watermark = syncService.sync(userId, null).getWatermark();
+        accountService.deleteAccount(userId, oldAccount.getId());
+        AccountResponseDTO wallet = accountService.createAccount(userId, bankGroupId, accountRequest("Wallet"));
+
+        SyncResponseDTO delta = queryBudget.atMost(5, "SyncService.sync (delta)", () -> syncService.sync(userId, watermark));
+        assertTrue(delta.getAccounts().stream().anyMatch(account -> account.getId().equals(wallet.getId())));
+        assertTrue(delta.getDeleted().stream().anyMatch(tombstone -> tombstone.getId().equals(oldAccount.getId())));
+    }
+
+    // owes means user1 owes user2 the amount
+    private void splitBalance(Long spaceId, String owesEmail, String owedEmail, String amount) {
+        jdbcTemplate.update("INSERT INTO split_balances (user1_email, user2_email, space_id, original_amount, remaining_amount, created_at, updated_at) "
+                + "VALUES (?, ?, ?, ?, ?, now(), now())", owesEmail, owedEmail, spaceId, new BigDecimal(amount), new BigDecimal(amount));
+    }
+
+    private static AccountRequestDTO accountRequest(String name) {
+        AccountRequestDTO request = new AccountRequestDTO();
+        request.setName(name);
+        return request;
+    }
+
+    private static CreditCardAccountRequestDTO creditCardRequest(String name) {
+        CreditCardAccountRequestDTO request = new CreditCardAccountRequestDTO();
+        request.setName(name);
+        request.setCreditLimit(BigDecimal.valueOf(50000));
+        return request;
+    }
+
+    private static DebitCardAccountRequestDTO debitCardRequest(String name, Long linkedBankAccountId) {
+        DebitCardAccountRequestDTO request = new DebitCardAccountRequestDTO();
+        request.setName(name);
+        request.setLinkedBankAccountId(linkedBankAccountId);
+        return request;
+    }
+
+    private static AccountGroupRequestDTO accountGroupRequest(String name) {
+        AccountGroupRequestDTO request = new AccountGroupRequestDTO();
+        request.setName(name);
+        return request;
+    }
+
+    private TransactionRequestDTO transactionRequest(BigDecimal amount) {
+        TransactionRequestDTO request = new TransactionRequestDTO();
+        request.setType(Transaction.TransactionType.EXPENSE);
+        request.setTotalAmount(amount);
+        request.setAccountId(bankAccount.getId());
+        return request;
+    }
+
+    private static CategoryRequestDTO categoryRequest(String name) {
+        CategoryRequestDTO request = new CategoryRequestDTO();
+        request.setName(name);
+        request.setType(Category.CategoryType.EXPENSE);
+        return request;
+    }
+}
@@ -0,0 +1,150 @@
+package org.finsible.backend.service;
+
+import org.finsible.backend.AppConstants;
+import org.finsible.backend.dto.request.AccountRequestDTO;
+import org.finsible.backend.dto.response.AccountResponseDTO;
+import org.finsible.backend.dto.response.SyncResponseDTO;
+import org.finsible.backend.dto.response.SyncTombstoneDTO;
+import org.finsible.backend.entity.User;
+import org.finsible.backend.repository.AccountGroupRepository;
+import org.finsible.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Delta sync against committed data: watermarks come from real snapshots, so nothing here runs in a test transaction.
+@SpringBootTest
+class SyncServiceTest {
+    @Autowired private SyncService syncService;
+    @Autowired private SyncTombstoneService syncTombstoneService;
+    @Autowired private AccountService accountService;
+    @Autowired private CurrencyService currencyService;
+    @Autowired private LanguageService languageService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private AccountGroupRepository accountGroupRepository;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private String userId;
+    private Long bankGroupId;
+
+    @BeforeEach
+    void setUp() {
+        userId = "sync-" + UUID.randomUUID();
+        userRepository.save(User.builder()
+                .id(userId)
+                .email(userId + "@test.local")
+                .name("Sync")
+                .lastLoggedIn(Instant.now())
+                .accountCreated(Instant.now())
+                .defaultLanguage(languageService.getLanguageOrDefault(AppConstants.DEFAULT_LANGUAGE_CODE))
+                .defaultCurrency(currencyService.getCurrencyOrDefault(AppConstants.DEFAULT_CURRENCY_CODE))
+                .build());
+        bankGroupId = accountGroupRepository.findAccountGroupByName(AppConstants.BANK_ACCOUNT_TYPE).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM sync_tombstones WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM accounts WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+    }
+
+    @Test
+    void rowWrittenAfterTheWatermarkComesBackOnce() throws Exception {
+        SyncResponseDTO first = syncService.sync(userId, null);
+        assertTrue(first.isFull());
+
+        Long accountId = createAccount("Savings");
+        SyncResponseDTO second = syncService.sync(userId, first.getWatermark());
+        // assumes no older transaction is open elsewhere, which would hold the snapshot xmin back and resend the row
+        SyncResponseDTO third = syncService.sync(userId, second.getWatermark());
+
+        assertFalse(second.isFull());
+        assertEquals(1, occurrences(second.getAccounts(), accountId));
+        assertEquals(0, occurrences(third.getAccounts(), accountId));
+    }
+
+    @Test
+    void deleteComesBackAsATombstone() throws Exception {
+        Long accountId = createAccount("Savings");
+        SyncResponseDTO before = syncService.sync(userId, null);
+        assertEquals(1, occurrences(before.getAccounts(), accountId));
+
+        accountService.deleteAccount(userId, accountId);
+        SyncResponseDTO after = syncService.sync(userId, before.getWatermark());
+
+        assertEquals(0, occurrences(after.getAccounts(), accountId));
+        SyncTombstoneDTO tombstone = new SyncTombstoneDTO(SyncTombstoneService.EntityType.ACCOUNT.name(), accountId);
+        assertEquals(1, after.getDeleted().stream().filter(tombstone::equals).count());
+    }
+
+    @Test
+    void transactionInFlightAtTheWatermarkIsNotSkipped() throws Exception {
+        SyncResponseDTO first = syncService.sync(userId, null);
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch watermarkTaken = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        // the row is written (and stamped) before the sync below, but commits only after it has read its snapshot
+        Future<Long> slowWrite = executor.submit(() -> transactionTemplate.execute(status -> {
+            Long accountId = accountService.createAccount(userId, bankGroupId, account("Late")).getId();
+            written.countDown();
+            try {
+                watermarkTaken.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return accountId;
+        }));
+        assertTrue(written.await(30, TimeUnit.SECONDS));
+
+        SyncResponseDTO during = syncService.sync(userId, first.getWatermark());
+        watermarkTaken.countDown();
+        Long accountId = slowWrite.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+        SyncResponseDTO after = syncService.sync(userId, during.getWatermark());
+
+        assertEquals(0, occurrences(during.getAccounts(), accountId), "not committed yet when the watermark was taken");
+        assertEquals(1, occurrences(after.getAccounts(), accountId));
+    }
+
+    @Test
+    void watermarkOlderThanTheRetentionForcesAFullSync() throws Exception {
+        Long accountId = createAccount("Savings");
+        SyncResponseDTO current = syncService.sync(userId, null);
+        long changeSeq = Long.parseLong(current.getWatermark().split("\\.")[0]);
+        Instant expired = Instant.now().minus(syncTombstoneService.getRetention()).minusSeconds(3600);
+
+        SyncResponseDTO resync = syncService.sync(userId, changeSeq + "." + expired.getEpochSecond());
+
+        // the tombstones of that time may be purged already, so the client gets everything instead of a delta
+        assertTrue(resync.isFull());
+        assertEquals(1, occurrences(resync.getAccounts(), accountId));
+        assertTrue(resync.getDeleted().isEmpty());
+    }
+
+    private Long createAccount(String name) {
+        return accountService.createAccount(userId, bankGroupId, account(name)).getId();
+    }
+
+    private static AccountRequestDTO account(String name) {
+        AccountRequestDTO request = new AccountRequestDTO();
+        request.setName(name);
+        return request;
+    }
+
+    private static long occurrences(List<AccountResponseDTO> accounts, Long accountId) {
+        return accounts.stream().filter(account -> account.getId().equals(accountId)).count();
+    }
+}
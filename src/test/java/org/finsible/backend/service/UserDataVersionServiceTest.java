@@ -0,0 +1,117 @@
+package org.finsible.backend.service;
+
+import org.finsible.backend.AppConstants;
+import org.finsible.backend.dto.request.AccountRequestDTO;
+import org.finsible.backend.dto.request.CategoryRequestDTO;
+import org.finsible.backend.entity.Category;
+import org.finsible.backend.entity.User;
+import org.finsible.backend.repository.AccountGroupRepository;
+import org.finsible.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The version behind the list ETags moves only with committed writes, once per transaction.
+// Not @Transactional: the bump happens right before commit, which a rolled back test transaction never reaches.
+@SpringBootTest
+class UserDataVersionServiceTest {
+    @Autowired private UserDataVersionService userDataVersionService;
+    @Autowired private AccountService accountService;
+    @Autowired private CategoryService categoryService;
+    @Autowired private CurrencyService currencyService;
+    @Autowired private LanguageService languageService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private AccountGroupRepository accountGroupRepository;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private String userId;
+    private Long bankGroupId;
+
+    @BeforeEach
+    void setUp() {
+        userId = "data-version-" + UUID.randomUUID();
+        userRepository.save(User.builder()
+                .id(userId)
+                .email(userId + "@test.local")
+                .name("Data Version")
+                .lastLoggedIn(Instant.now())
+                .accountCreated(Instant.now())
+                .defaultLanguage(languageService.getLanguageOrDefault(AppConstants.DEFAULT_LANGUAGE_CODE))
+                .defaultCurrency(currencyService.getCurrencyOrDefault(AppConstants.DEFAULT_CURRENCY_CODE))
+                .build());
+        bankGroupId = accountGroupRepository.findAccountGroupByName(AppConstants.BANK_ACCOUNT_TYPE).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM accounts WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM categories WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+    }
+
+    @Test
+    void severalWritesInOneTransactionBumpOnce() {
+        long before = userDataVersionService.currentVersion(userId);
+        String accountsETag = userDataVersionService.accountsETag(userId);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            accountService.createAccount(userId, bankGroupId, account("Savings"));
+            accountService.createAccount(userId, bankGroupId, account("Salary"));
+            try {
+                categoryService.createUserCategory(userId, category("Rent"));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertEquals(before + 1, userDataVersionService.currentVersion(userId));
+        assertEquals(before + 1, storedVersion());
+        assertNotEquals(accountsETag, userDataVersionService.accountsETag(userId));
+    }
+
+    @Test
+    void rolledBackWriteDoesNotBump() {
+        long before = userDataVersionService.currentVersion(userId);
+        String accountsETag = userDataVersionService.accountsETag(userId);
+
+        assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            accountService.createAccount(userId, bankGroupId, account("Savings"));
+            throw new IllegalStateException("request failed after the write");
+        }));
+
+        assertEquals(before, userDataVersionService.currentVersion(userId));
+        assertEquals(before, storedVersion());
+        assertEquals(accountsETag, userDataVersionService.accountsETag(userId));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM accounts WHERE user_id = ?", Long.class, userId));
+    }
+
+    // what another node (or this one after max-age) would read
+    private long storedVersion() {
+        Long version = jdbcTemplate.query("SELECT version FROM user_data_versions WHERE user_id = ?",
+                resultSet -> resultSet.next() ? resultSet.getLong(1) : 0L, userId);
+        return version == null ? 0 : version;
+    }
+
+    private static AccountRequestDTO account(String name) {
+        AccountRequestDTO request = new AccountRequestDTO();
+        request.setName(name);
+        return request;
+    }
+
+    private static CategoryRequestDTO category(String name) {
+        CategoryRequestDTO request = new CategoryRequestDTO();
+        request.setName(name);
+        request.setType(Category.CategoryType.EXPENSE);
+        return request;
+    }
+}
@@ -0,0 +1,113 @@
+package org.finsible.backend.settlement;
+
+import org.finsible.backend.settlement.DebtSimplificationEngine.Settlements;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DebtSimplificationEngineTest {
+
+    @Test
+    void transfersSettleEveryMember() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            long[] positions = randomPositions(random, 2 + random.nextInt(40));
+
+            Settlements settlements = DebtSimplificationEngine.simplify(positions);
+
+            assertArrayEquals(positions, settledPositions(positions.length, settlements));
+            for (long amount : settlements.amount()) {
+                assertTrue(amount > 0);
+            }
+        }
+    }
+
+    @Test
+    void atMostOneTransferLessThanUnsettledMembers() {
+        Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            long[] positions = randomPositions(random, 2 + random.nextInt(40));
+            int unsettled = 0;
+            for (long position : positions) {
+                if (position != 0) unsettled++;
+            }
+
+            Settlements settlements = DebtSimplificationEngine.simplify(positions);
+
+            assertTrue(settlements.size() <= Math.max(unsettled - 1, 0), "transfers: " + settlements.size());
+            assertTrue(settlements.size() <= positions.length - 1);
+        }
+    }
+
+    @Test
+    void noMemberBothPaysAndReceives() {
+        Random random = new Random(11);
+        for (int round = 0; round < 200; round++) {
+            long[] positions = randomPositions(random, 2 + random.nextInt(40));
+
+            Settlements settlements = DebtSimplificationEngine.simplify(positions);
+
+            boolean[] pays = new boolean[positions.length];
+            boolean[] receives = new boolean[positions.length];
+            for (int i = 0; i < settlements.size(); i++) {
+                pays[settlements.from()[i]] = true;
+                receives[settlements.to()[i]] = true;
+            }
+            for (int member = 0; member < positions.length; member++) {
+                assertFalse(pays[member] && receives[member], "member " + member);
+            }
+        }
+    }
+
+    @Test
+    void settledSpaceNeedsNoTransfers() {
+        assertEquals(0, DebtSimplificationEngine.simplify(new long[4]).size());
+        assertEquals(0, DebtSimplificationEngine.simplify(new long[0]).size());
+    }
+
+    @Test
+    void everyoneOwingOneCreditorPaysThemDirectly() {
+        long[] positions = {-300, 900, -250, -350, 0};
+
+        Settlements settlements = DebtSimplificationEngine.simplify(positions);
+
+        assertEquals(3, settlements.size());
+        for (int i = 0; i < settlements.size(); i++) {
+            assertEquals(1, settlements.to()[i]);
+            assertEquals(-positions[settlements.from()[i]], settlements.amount()[i]);
+        }
+    }
+
+    @Test
+    void netPositionsFromPairwiseDebts() {
+        // 0 owes 1 500, 1 owes 2 200, 2 owes 0 100
+        long[] positions = DebtSimplificationEngine.netPositions(3, new int[]{0, 1, 2}, new int[]{1, 2, 0}, new long[]{500, 200, 100});
+
+        assertArrayEquals(new long[]{-400, 300, 100}, positions);
+        assertArrayEquals(positions, settledPositions(3, DebtSimplificationEngine.simplify(positions)));
+    }
+
+    @Test
+    void unbalancedPositionsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> DebtSimplificationEngine.simplify(new long[]{100, -99}));
+    }
+
+    // positions summing to zero, some members already settled
+    private static long[] randomPositions(Random random, int members) {
+        long[] positions = new long[members];
+        long total = 0;
+        for (int member = 0; member < members - 1; member++) {
+            positions[member] = random.nextInt(4) == 0 ? 0 : random.nextLong(-100_000, 100_000);
+            total += positions[member];
+        }
+        positions[members - 1] = -total;
+        return positions;
+    }
+
+    // the net positions the transfers stand for, each transfer read as a debt from payer to receiver
+    private static long[] settledPositions(int members, Settlements settlements) {
+        return DebtSimplificationEngine.netPositions(members, settlements.from(), settlements.to(), settlements.amount());
+    }
+}
@@ -0,0 +1,73 @@
+package org.finsible.backend.support;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.finsible.backend.monitoring.RequestQueryStats;
+import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.api.function.ThrowingSupplier;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Asserts how many SQL statements a call is allowed to run. Statements are counted by the JDBC monitoring proxy into
+ * RequestQueryStats, so Hibernate and JdbcTemplate statements count alike, and so do those of worker threads the call
+ * hands its stats to; a JDBC batch is one statement, like the round trip it is. Needs app.db-monitoring.enabled (the default).
+ * Inside a transaction the persistence context is flushed and cleared before the call, so entities loaded by test setup
+ * do not hide selects, and after it the session is flushed and the before-commit work runs (balance postings, rollup
+ * upserts, data version bumps, cache invalidations), so everything the call leaves for its commit counts towards the
+ * budget although the test transaction rolls back. Outside a transaction the call commits on its own.
+ */
+public class QueryBudget {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public <T> T atMost(int maxStatements, String description, ThrowingSupplier<T> call) {
+        boolean inTransaction = TransactionSynchronizationManager.isActualTransactionActive();
+        if (inTransaction) {
+            // whatever test setup left for commit is written now, not charged to the call
+            beforeCommit();
+            entityManager.clear();
+        }
+        RequestQueryStats stats = RequestQueryStats.begin();
+        T result;
+        try {
+            result = call.get();
+            if (inTransaction) {
+                beforeCommit();
+            }
+        } catch (Throwable e) {
+            throw new AssertionError(description + " failed while measuring its query budget", e);
+        } finally {
+            stats.end();
+            RequestQueryStats.detach();
+        }
+        if (stats.statements() > maxStatements) {
+            fail(description + " ran " + stats.statements() + " SQL statements, budget is " + maxStatements + ":\n"
+                    + listed(stats.repeatedStatements(1)));
+        }
+        return result;
+    }
+
+    public void atMost(int maxStatements, String description, Executable call) {
+        atMost(maxStatements, description, () -> {
+            call.execute();
+            return null;
+        });
+    }
+
+    // what a commit runs before committing
+    private void beforeCommit() {
+        entityManager.flush();
+        TransactionSynchronizationUtils.triggerBeforeCommit(false);
+    }
+
+    private static String listed(Map<String, Integer> executionsBySql) {
+        StringBuilder listing = new StringBuilder();
+        executionsBySql.forEach((sql, executions) -> listing.append("  ").append(executions).append("x ").append(sql).append('\n'));
+        return listing.toString();
+    }
+}
@@ -0,0 +1,14 @@
+package org.finsible.backend.support;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+// import into a @SpringBootTest to get a QueryBudget bean
+@TestConfiguration
+public class QueryBudgetTestConfiguration {
+
+    @Bean
+    public QueryBudget queryBudget() {
+        return new QueryBudget();
+    }
+}
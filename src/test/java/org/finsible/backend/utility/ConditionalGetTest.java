@@ -0,0 +1,48 @@
+package org.finsible.backend.utility;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConditionalGetTest {
+    private static final String ETAG = "accounts-7-20000";
+
+    private static ServletWebRequest get(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/accounts/all");
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+
+    @Test
+    void matchingIfNoneMatchIsNotModified() {
+        AtomicInteger builds = new AtomicInteger();
+
+        ResponseEntity<String> response = ConditionalGet.respond(get("\"" + ETAG + "\""), ETAG, () -> "body-" + builds.incrementAndGet());
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        assertEquals(0, builds.get(), "the body is never built for a 304");
+        assertEquals("\"" + ETAG + "\"", response.getHeaders().getETag());
+        assertEquals(ConditionalGet.REVALIDATE.getHeaderValue(), response.getHeaders().getCacheControl());
+    }
+
+    @Test
+    void staleOrMissingIfNoneMatchGetsTheBody() {
+        for (String ifNoneMatch : new String[]{"\"accounts-6-20000\"", null}) {
+            ResponseEntity<String> response = ConditionalGet.respond(get(ifNoneMatch), ETAG, () -> "body");
+
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertEquals("body", response.getBody());
+            assertEquals("\"" + ETAG + "\"", response.getHeaders().getETag());
+        }
+    }
+}